@@ -25,34 +25,48 @@ import com.qaprosoft.apitools.util.GenerationUtil;
 
 public class GenerateProcessor implements PropertiesProcessor {
 
+    private static final String GENERATE_PREFIX = "generate_";
+
+    private static final Pattern WORD_PATTERN = Pattern.compile(PropertiesKeywords.GENERATE_WORD_REGEX.getKey());
+    private static final Pattern NUMBER_PATTERN = Pattern.compile(PropertiesKeywords.GENERATE_NUMBER_REGEX.getKey());
+    private static final Pattern DATE_PATTERN = Pattern.compile(PropertiesKeywords.GENERATE_DATE_REGEX.getKey());
+    private static final Pattern LENGTH_PATTERN = Pattern.compile("\\d+");
+    private static final Pattern OFFSET_PATTERN = Pattern.compile("-{0,1}\\d+");
+    private static final Pattern FORMAT_PATTERN = Pattern.compile("(?<=generate_date\\().*(?=;)");
+
     @Override
     public Properties process(Properties in) {
         Properties out = new Properties();
         for (Entry<Object, Object> entry : in.entrySet()) {
-            Matcher wordMatcher = Pattern.compile(PropertiesKeywords.GENERATE_WORD_REGEX.getKey()).matcher(entry.getValue().toString());
-            Matcher numberMatcher = Pattern.compile(PropertiesKeywords.GENERATE_NUMBER_REGEX.getKey()).matcher(entry.getValue().toString());
-            Matcher dateMatcher = Pattern.compile(PropertiesKeywords.GENERATE_DATE_REGEX.getKey()).matcher(entry.getValue().toString());
+            if (!entry.getValue().toString().contains(GENERATE_PREFIX)) {
+                // most of the values are constants
+                out.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            Matcher wordMatcher = WORD_PATTERN.matcher(entry.getValue().toString());
+            Matcher numberMatcher = NUMBER_PATTERN.matcher(entry.getValue().toString());
+            Matcher dateMatcher = DATE_PATTERN.matcher(entry.getValue().toString());
             {
                 if (wordMatcher.find()) {
                     String toReplace = wordMatcher.group();
-                    Matcher tmpMatcher = Pattern.compile("\\d+").matcher(toReplace);
+                    Matcher tmpMatcher = LENGTH_PATTERN.matcher(toReplace);
                     tmpMatcher.find();
                     String length = tmpMatcher.group();
                     out.put(entry.getKey(), entry.getValue().toString().replace(toReplace, GenerationUtil.generateWord(Integer.parseInt(length))));
                 } else if (numberMatcher.find()) {
                     String toReplace = numberMatcher.group();
-                    Matcher tmpMatcher = Pattern.compile("\\d+").matcher(toReplace);
+                    Matcher tmpMatcher = LENGTH_PATTERN.matcher(toReplace);
                     tmpMatcher.find();
                     String length = tmpMatcher.group();
                     out.put(entry.getKey(), entry.getValue().toString().replace(toReplace, GenerationUtil.generateNumber(Integer.parseInt(length))));
                 } else if (dateMatcher.find()) {
                     String toReplace = dateMatcher.group();
                     // getting offset
-                    Matcher offsetMatcher = Pattern.compile("-{0,1}\\d+").matcher(entry.getValue().toString());
+                    Matcher offsetMatcher = OFFSET_PATTERN.matcher(entry.getValue().toString());
                     offsetMatcher.find();
                     String offset = offsetMatcher.group();
                     // getting format
-                    Matcher formatMatcher = Pattern.compile("(?<=generate_date\\().*(?=;)").matcher(entry.getValue().toString());
+                    Matcher formatMatcher = FORMAT_PATTERN.matcher(entry.getValue().toString());
                     formatMatcher.find();
                     String format = formatMatcher.group();
                     // generating date
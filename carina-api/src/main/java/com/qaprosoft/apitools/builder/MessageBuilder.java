@@ -17,7 +17,10 @@ package com.qaprosoft.apitools.builder;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import freemarker.cache.ClassTemplateLoader;
 import freemarker.template.Configuration;
@@ -28,27 +31,32 @@ public class MessageBuilder {
 
     private static Configuration freemarkerConfiguration;
 
+    // parsed templates are immutable and can be processed by several threads at once
+    private static final Map<String, Template> templates = new ConcurrentHashMap<String, Template>();
+
     static {
         freemarkerConfiguration = new Configuration();
         freemarkerConfiguration.setTemplateLoader(new ClassTemplateLoader(MessageBuilder.class, "/"));
     }
 
-    public final static synchronized String buildStringMessage(String templatePath, Properties... propertiesArr) {
-        Template template;
-        try {
-            template = freemarkerConfiguration.getTemplate(templatePath);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+    public final static String buildStringMessage(String templatePath, Properties... propertiesArr) {
+        Template template = getTemplate(templatePath);
 
-        Properties resultProperties = new Properties();
-        for (Properties properties : propertiesArr) {
-            resultProperties.putAll(properties);
+        Object dataModel;
+        if (propertiesArr.length == 1) {
+            // template doesn't modify data model so there is no need to copy the only properties
+            dataModel = propertiesArr[0];
+        } else {
+            Map<Object, Object> resultProperties = new HashMap<Object, Object>();
+            for (Properties properties : propertiesArr) {
+                resultProperties.putAll(properties);
+            }
+            dataModel = resultProperties;
         }
 
         StringWriter sw = new StringWriter();
         try {
-            template.process(resultProperties, sw);
+            template.process(dataModel, sw);
         } catch (TemplateException e) {
             throw new RuntimeException(e);
         } catch (IOException e) {
@@ -62,4 +70,17 @@ public class MessageBuilder {
         }
         return sw.getBuffer().toString();
     }
+
+    private static Template getTemplate(String templatePath) {
+        Template template = templates.get(templatePath);
+        if (template == null) {
+            try {
+                template = freemarkerConfiguration.getTemplate(templatePath);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            templates.put(templatePath, template);
+        }
+        return template;
+    }
 }
@@ -15,6 +15,14 @@
  *******************************************************************************/
 package com.qaprosoft.apitools.validation;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +36,8 @@ import org.skyscreamer.jsonassert.comparator.DefaultComparator;
 
 public class JsonKeywordsComparator extends DefaultComparator {
 
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<String, Pattern>();
+
     private String validationFlags[];
 
     public JsonKeywordsComparator(JSONCompareMode mode, String... validationFlags) {
@@ -49,7 +59,7 @@ public class JsonKeywordsComparator extends DefaultComparator {
             if (actualValue instanceof Number || actualValue instanceof String) {
                 String actualStr = actualValue.toString();
                 String regex = expectedValue.toString().replace(JsonCompareKeywords.REGEX.getKey(), "");
-                Matcher m = Pattern.compile(regex).matcher(actualStr);
+                Matcher m = getPattern(regex).matcher(actualStr);
                 if (!m.find()) {
                     result.fail(String.format("%s\nActual value '%s' doesn't match to expected regex '%s'\n", prefix, actualStr, regex));
                 }
@@ -74,10 +84,11 @@ public class JsonKeywordsComparator extends DefaultComparator {
             }
         }
 
-        JSONArray actualTmp = new JSONArray();
-        for (int i1 = 0; i1 < actual.length(); i1++) {
-            actualTmp.put(actual.get(i1));
-        }
+        // actual items which are not matched to any expected item yet, items keep their original order
+        BitSet remaining = new BitSet(actual.length());
+        remaining.set(0, actual.length());
+        Map<List<String>, Map<List<Object>, List<Integer>>> indexes = new HashMap<List<String>, Map<List<Object>, List<Integer>>>();
+
         for (int i = 0; i < expected.length(); ++i) {
             boolean isEquals = false;
             if (!JSONObject.class.equals(expected.get(i).getClass())) {
@@ -86,39 +97,141 @@ public class JsonKeywordsComparator extends DefaultComparator {
             }
             JSONObject expectedValue = (JSONObject) expected.get(i);
 
-            JSONObject actValueMostlySimilar = (JSONObject) actualTmp.get(0);
-            int actValueMostlySimilarIndex = 0;
-            int minErrorsCount = Integer.MAX_VALUE;
+            if (remaining.isEmpty()) {
+                throw new JSONException("JSONArray[0] not found.");
+            }
+            int actValueMostlySimilarIndex = remaining.nextSetBit(0);
 
-            for (int j = 0; j < actualTmp.length(); ++j) {
-                JSONObject actualValue = (JSONObject) actualTmp.get(j);
-                JSONCompareResult tmpResult = new JSONCompareResult();
-                compareValues(prefix + "[" + i + "]", expectedValue, actualValue, tmpResult);
-                if (tmpResult.passed()) {
-                    isEquals = true;
-                    actValueMostlySimilarIndex = j;
-                    break;
-                }
-                if (tmpResult.getFieldFailures().size() < minErrorsCount) {
-                    minErrorsCount = tmpResult.getFieldFailures().size();
-                    actValueMostlySimilar = actualValue;
-                    actValueMostlySimilarIndex = j;
+            // only actual items with the same values of plain expected fields can be equal to the expected item
+            List<String> fields = getFingerprintFields(expectedValue);
+            List<Integer> candidates = getIndex(indexes, fields, actual).get(getFingerprint(expectedValue, fields));
+            if (candidates != null) {
+                for (int j : candidates) {
+                    if (!remaining.get(j)) {
+                        continue;
+                    }
+                    JSONCompareResult tmpResult = new JSONCompareResult();
+                    compareValues(prefix + "[" + i + "]", expectedValue, actual.get(j), tmpResult);
+                    if (tmpResult.passed()) {
+                        isEquals = true;
+                        actValueMostlySimilarIndex = j;
+                        break;
+                    }
                 }
             }
+
             if (!isEquals) {
+                JSONObject actValueMostlySimilar = (JSONObject) actual.get(actValueMostlySimilarIndex);
+                int minErrorsCount = Integer.MAX_VALUE;
+                for (int j = remaining.nextSetBit(0); j >= 0; j = remaining.nextSetBit(j + 1)) {
+                    JSONObject actualValue = (JSONObject) actual.get(j);
+                    JSONCompareResult tmpResult = new JSONCompareResult();
+                    compareValues(prefix + "[" + i + "]", expectedValue, actualValue, tmpResult);
+                    if (tmpResult.getFieldFailures().size() < minErrorsCount) {
+                        minErrorsCount = tmpResult.getFieldFailures().size();
+                        actValueMostlySimilar = actualValue;
+                        actValueMostlySimilarIndex = j;
+                    }
+                }
                 JSONCompareResult tmpResult = new JSONCompareResult();
                 super.compareJSON(prefix + "[" + i + "]", expectedValue, actValueMostlySimilar, tmpResult);
                 result.fail(tmpResult.getMessage());
             }
 
-            JSONArray arrayAfterRemove = new JSONArray();
-            for (int i1 = 0; i1 < actualTmp.length(); i1++) {
-                if (i1 != actValueMostlySimilarIndex) {
-                    arrayAfterRemove.put(actualTmp.get(i1));
+            remaining.clear(actValueMostlySimilarIndex);
+        }
+    }
+
+    /**
+     * Returns sorted names of expected fields which values are compared by equality, i.e. plain values without keywords.
+     */
+    private static List<String> getFingerprintFields(JSONObject expected) throws JSONException {
+        List<String> fields = new ArrayList<String>();
+        Iterator<?> keys = expected.keys();
+        while (keys.hasNext()) {
+            String key = (String) keys.next();
+            Object value = expected.get(key);
+            if (value instanceof String && (JsonCompareKeywords.SKIP.getKey().equals(value)
+                    || ((String) value).startsWith(JsonCompareKeywords.TYPE.getKey())
+                    || ((String) value).startsWith(JsonCompareKeywords.REGEX.getKey()))) {
+                continue;
+            }
+            if (getFingerprintValue(value) != null) {
+                fields.add(key);
+            }
+        }
+        Collections.sort(fields);
+        return fields;
+    }
+
+    /**
+     * Groups indexes of the actual items by values of the fields. Items which can't be equal to any expected item with such
+     * fields (not objects, fields are missing or not plain) are not indexed.
+     */
+    private static Map<List<Object>, List<Integer>> getIndex(Map<List<String>, Map<List<Object>, List<Integer>>> indexes,
+            List<String> fields, JSONArray actual) throws JSONException {
+        Map<List<Object>, List<Integer>> index = indexes.get(fields);
+        if (index == null) {
+            index = new HashMap<List<Object>, List<Integer>>();
+            for (int j = 0; j < actual.length(); j++) {
+                Object item = actual.get(j);
+                if (!(item instanceof JSONObject)) {
+                    continue;
+                }
+                List<Object> fingerprint = getFingerprint((JSONObject) item, fields);
+                if (fingerprint == null) {
+                    continue;
+                }
+                List<Integer> bucket = index.get(fingerprint);
+                if (bucket == null) {
+                    bucket = new ArrayList<Integer>();
+                    index.put(fingerprint, bucket);
                 }
+                bucket.add(j);
+            }
+            indexes.put(fields, index);
+        }
+        return index;
+    }
+
+    private static List<Object> getFingerprint(JSONObject item, List<String> fields) throws JSONException {
+        List<Object> fingerprint = new ArrayList<Object>(fields.size());
+        for (String field : fields) {
+            if (!item.has(field)) {
+                return null;
             }
-            actualTmp = arrayAfterRemove;
+            Object value = getFingerprintValue(item.get(field));
+            if (value == null) {
+                return null;
+            }
+            fingerprint.add(value);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Normalizes plain value the same way as it is compared by DefaultComparator: numbers are compared as doubles, other values
+     * by equality.
+     */
+    private static Object getFingerprintValue(Object value) {
+        if (value instanceof Number) {
+            // 0.0 and -0.0 are equal as doubles but not as Double objects
+            double number = ((Number) value).doubleValue();
+            return Double.valueOf(number == 0 ? 0.0 : number);
+        }
+        if (value instanceof String || value instanceof Boolean || JSONObject.NULL.equals(value)) {
+            return value;
+        }
+        return null;
+    }
+
+    private static Pattern getPattern(String regex) {
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            PATTERNS.put(regex, pattern);
         }
+        return pattern;
     }
 
     private void compareJSONArrayForSimpleTypeWContains(String prefix, JSONArray expected, JSONArray actual, JSONCompareResult result)
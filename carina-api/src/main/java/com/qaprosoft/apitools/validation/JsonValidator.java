@@ -16,7 +16,13 @@
 package com.qaprosoft.apitools.validation;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.json.JSONException;
@@ -30,10 +36,15 @@ import com.github.fge.jsonschema.core.report.ProcessingMessage;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.qaprosoft.apitools.message.TemplateMessage;
 
 public class JsonValidator {
     private final static Logger LOGGER = Logger.getLogger(JsonValidator.class);
 
+    // factory and compiled schemas are immutable and thread safe
+    private final static JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+    private final static Map<String, JsonSchema> schemas = new ConcurrentHashMap<String, JsonSchema>();
+
     public static void validateJson(String expectedJson, String actualJson, JSONCompareMode jsonCompareMode) {
         try {
             JSONAssert.assertEquals(expectedJson, actualJson, new JsonKeywordsComparator(jsonCompareMode));
@@ -56,15 +67,69 @@ public class JsonValidator {
         } catch (IOException e) {
             throw new RuntimeException("Can't read json from String: " + e.getMessage(), e);
         }
+        validateJsonAgainstSchema(createJsonSchema(schemaNode), data);
+    }
+
+    /**
+     * Returns compiled schema by path of its template. Schemas don't depend on the API method properties so they are
+     * rendered and compiled only once.
+     * 
+     * @param schemaPath
+     *            path to the schema template
+     * @return JsonSchema
+     */
+    public static JsonSchema getJsonSchema(String schemaPath) {
+        JsonSchema schema = schemas.get(schemaPath);
+        if (schema == null) {
+            TemplateMessage tm = new TemplateMessage();
+            tm.setTemplatePath(schemaPath);
+            try {
+                schema = createJsonSchema(JsonLoader.fromString(tm.getMessageText()));
+            } catch (IOException e) {
+                throw new RuntimeException("Can't read schema from String: " + e.getMessage(), e);
+            }
+            schemas.put(schemaPath, schema);
+        }
+        return schema;
+    }
 
-        JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
-        // load the schema and validate
-        JsonSchema schema;
+    public static void validateJsonAgainstSchema(JsonSchema schema, String jsonData) {
+        JsonNode data;
         try {
-            schema = factory.getJsonSchema(schemaNode);
+            data = JsonLoader.fromString(jsonData);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't read json from String: " + e.getMessage(), e);
+        }
+        validateJsonAgainstSchema(schema, data);
+    }
+
+    /**
+     * Validates json read directly from the stream so the whole response doesn't have to be converted to String first.
+     * 
+     * @param schema
+     *            compiled schema, see {@link #getJsonSchema(String)}
+     * @param jsonData
+     *            json stream, it is closed after reading
+     */
+    public static void validateJsonAgainstSchema(JsonSchema schema, InputStream jsonData) {
+        JsonNode data;
+        try (Reader reader = new InputStreamReader(jsonData, StandardCharsets.UTF_8)) {
+            data = JsonLoader.fromReader(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't read json from stream: " + e.getMessage(), e);
+        }
+        validateJsonAgainstSchema(schema, data);
+    }
+
+    private static JsonSchema createJsonSchema(JsonNode schemaNode) {
+        try {
+            return factory.getJsonSchema(schemaNode);
         } catch (ProcessingException e) {
             throw new RuntimeException("Can't process shema", e);
         }
+    }
+
+    private static void validateJsonAgainstSchema(JsonSchema schema, JsonNode data) {
         ProcessingReport report;
         try {
             report = schema.validate(data, true);
@@ -18,12 +18,9 @@ package com.qaprosoft.carina.core.foundation.api;
 import static com.jayway.restassured.RestAssured.given;
 
 import java.io.PrintStream;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.conn.ssl.SSLSocketFactory;
@@ -33,7 +30,6 @@ import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.hamcrest.xml.HasXPath;
 
-import com.jayway.restassured.RestAssured;
 import com.jayway.restassured.config.RestAssuredConfig;
 import com.jayway.restassured.config.SSLConfig;
 import com.jayway.restassured.filter.log.RequestLoggingFilter;
@@ -45,9 +41,6 @@ import com.qaprosoft.carina.core.foundation.api.http.HttpClient;
 import com.qaprosoft.carina.core.foundation.api.http.HttpMethodType;
 import com.qaprosoft.carina.core.foundation.api.http.HttpResponseStatusType;
 import com.qaprosoft.carina.core.foundation.api.log.LoggingOutputStream;
-import com.qaprosoft.carina.core.foundation.api.ssl.NullHostnameVerifier;
-import com.qaprosoft.carina.core.foundation.api.ssl.NullX509TrustManager;
-import com.qaprosoft.carina.core.foundation.api.ssl.SSLContextBuilder;
 import com.qaprosoft.carina.core.foundation.utils.Configuration;
 import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
 import com.qaprosoft.carina.core.foundation.utils.R;
@@ -62,18 +55,28 @@ public abstract class AbstractApiMethod extends HttpClient {
     public RequestSpecification request;
     private boolean logRequest = Configuration.getBoolean(Parameter.LOG_ALL_JSON);
     private boolean logResponse = Configuration.getBoolean(Parameter.LOG_ALL_JSON);
+    private boolean isRequestLogged = false;
+    private boolean isResponseLogged = false;
+
+    // every thread writes logs to its own stream which is flushed to the log after each call
+    private static final ThreadLocal<PrintStream> LOG_STREAM = ThreadLocal
+            .withInitial(() -> new PrintStream(new LoggingOutputStream(LOGGER, Level.INFO)));
+    private static final ThreadLocal<RequestLoggingFilter> REQUEST_LOGGING_FILTER = ThreadLocal
+            .withInitial(() -> new RequestLoggingFilter(LOG_STREAM.get()));
+    private static final ThreadLocal<ResponseLoggingFilter> RESPONSE_LOGGING_FILTER = ThreadLocal
+            .withInitial(() -> new ResponseLoggingFilter(LOG_STREAM.get()));
 
     public AbstractApiMethod() {
         init(getClass());
         bodyContent = new StringBuilder();
-        request = given();
+        request = given().config(HttpClient.getDefaultConfig());
         request.contentType(ContentType.TEXT);
     }
 
     public AbstractApiMethod(String contentType) {
         init(getClass());
         bodyContent = new StringBuilder();
-        request = given();
+        request = given().config(HttpClient.getDefaultConfig());
         request.contentType(contentType);
     }
 
@@ -181,21 +184,21 @@ public abstract class AbstractApiMethod extends HttpClient {
 
         Response rs = null;
 
-        PrintStream ps = null;
-        if (logRequest || logResponse) {
-            ps = new PrintStream(new LoggingOutputStream(LOGGER, Level.INFO));
+        // filters stay in the request specification so they are added only once
+        if (logRequest && !isRequestLogged) {
+            request.filter(REQUEST_LOGGING_FILTER.get());
+            isRequestLogged = true;
         }
 
-        if (logRequest)
-            request.filter(new RequestLoggingFilter(ps));
-
-        if (logResponse)
-            request.filter(new ResponseLoggingFilter(ps));
+        if (logResponse && !isResponseLogged) {
+            request.filter(RESPONSE_LOGGING_FILTER.get());
+            isResponseLogged = true;
+        }
         try {
             rs = HttpClient.send(request, methodPath, methodType);
         } finally {
-            if (ps != null)
-                ps.close();
+            if (isRequestLogged || isResponseLogged)
+                LOG_STREAM.get().flush();
         }
         return rs;
     }
@@ -224,7 +227,6 @@ public abstract class AbstractApiMethod extends HttpClient {
     }
 
     public void setMethodPath(String methodPath) {
-        RestAssured.reset();
         this.methodPath = methodPath;
     }
 
@@ -244,28 +246,12 @@ public abstract class AbstractApiMethod extends HttpClient {
         this.logResponse = logResponse;
     }
 
-    public void ignoreSSLCerts() {
-        SSLContext sslContext = null;
-        try {
-            sslContext = SSLContext.getInstance("TLS");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-        TrustManager[] trustManagerArray = { new NullX509TrustManager() };
-        try {
-            sslContext.init(null, trustManagerArray, null);
-        } catch (KeyManagementException e) {
-            throw new RuntimeException(e);
-        }
-
-        SSLSocketFactory socketFactory = new SSLSocketFactory(sslContext, new NullHostnameVerifier());
-        SSLConfig sslConfig = new SSLConfig();
-        sslConfig = sslConfig.sslSocketFactory(socketFactory);
-        sslConfig = sslConfig.x509HostnameVerifier(new NullHostnameVerifier());
+    public boolean isLogResponse() {
+        return logResponse;
+    }
 
-        RestAssuredConfig cfg = new RestAssuredConfig();
-        cfg = cfg.sslConfig(sslConfig);
-        request = request.config(cfg);
+    public void ignoreSSLCerts() {
+        request = request.config(HttpClient.getTrustAllConfig());
     }
 
     public void setSSLContext(SSLContext sslContext) {
@@ -279,7 +265,7 @@ public abstract class AbstractApiMethod extends HttpClient {
     }
 
     public void setDefaultTLSSupport() {
-        setSSLContext(new SSLContextBuilder(true).createSSLContext());
+        request = request.config(HttpClient.getDefaultTLSConfig());
     }
 
 }
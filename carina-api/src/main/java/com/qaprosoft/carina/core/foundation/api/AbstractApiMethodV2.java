@@ -15,14 +15,33 @@
  *******************************************************************************/
 package com.qaprosoft.carina.core.foundation.api;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompare;
 import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.skyscreamer.jsonassert.JSONCompareResult;
+import org.skyscreamer.jsonassert.comparator.JSONComparator;
 
+import com.jayway.restassured.path.json.JsonPath;
 import com.jayway.restassured.response.Response;
 import com.qaprosoft.apitools.builder.PropertiesProcessorMain;
 import com.qaprosoft.apitools.message.TemplateMessage;
@@ -30,32 +49,49 @@ import com.qaprosoft.apitools.validation.JsonKeywordsComparator;
 import com.qaprosoft.apitools.validation.JsonValidator;
 
 public abstract class AbstractApiMethodV2 extends AbstractApiMethod {
+    // base properties files are shared by all instances of API method class, they are never modified after loading
+    private static final Map<String, Properties> BASE_PROPERTIES = new ConcurrentHashMap<String, Properties>();
+
+    // max size of response body written to the log in streaming mode
+    private static final int STREAM_LOG_LIMIT = 64 * 1024;
+
     private Properties properties;
     private String rqPath;
     private String rsPath;
     private String actualRsBody;
+    private boolean streamResponse = false;
+    private File actualRsFile;
 
     public AbstractApiMethodV2(String rqPath, String rsPath, String propertiesPath) {
         super("application/json");
         setHeaders("Accept=*/*");
 
-        URL baseResource = ClassLoader.getSystemResource(propertiesPath);
-        if (baseResource != null) {
-            properties = new Properties();
-            try {
-                properties.load(baseResource.openStream());
-            } catch (IOException e) {
-                throw new RuntimeException("Properties can't be loaded by path: " + propertiesPath, e);
-            }
-            LOGGER.info("Base properties loaded: " + propertiesPath);
-        } else {
-            throw new RuntimeException("Properties can't be found by path: " + propertiesPath);
-        }
-        properties = PropertiesProcessorMain.processProperties(properties);
+        // processing is repeated for every instance as generated values should be unique
+        properties = PropertiesProcessorMain.processProperties(loadProperties(propertiesPath));
         this.rqPath = rqPath;
         this.rsPath = rsPath;
     }
 
+    private static Properties loadProperties(String propertiesPath) {
+        Properties cached = BASE_PROPERTIES.get(propertiesPath);
+        if (cached == null) {
+            URL baseResource = ClassLoader.getSystemResource(propertiesPath);
+            if (baseResource != null) {
+                cached = new Properties();
+                try (InputStream is = baseResource.openStream()) {
+                    cached.load(is);
+                } catch (IOException e) {
+                    throw new RuntimeException("Properties can't be loaded by path: " + propertiesPath, e);
+                }
+                LOGGER.info("Base properties loaded: " + propertiesPath);
+            } else {
+                throw new RuntimeException("Properties can't be found by path: " + propertiesPath);
+            }
+            BASE_PROPERTIES.put(propertiesPath, cached);
+        }
+        return cached;
+    }
+
     public AbstractApiMethodV2(String rqPath, String rsPath, Properties properties) {
         super("application/json");
         setHeaders("Accept=*/*");
@@ -92,9 +128,54 @@ public abstract class AbstractApiMethodV2 extends AbstractApiMethod {
             tm.setPropertiesStorage(properties);
             setBodyContent(tm.getMessageText());
         }
-        Response rs = super.callAPI();
-        actualRsBody = rs.asString();
-        return rs;
+        deleteResponseFile();
+        if (!streamResponse) {
+            Response rs = super.callAPI();
+            actualRsBody = rs.asString();
+            return rs;
+        }
+
+        // body is logged here with size limit instead of response logging filter
+        boolean logResponse = isLogResponse();
+        setLogResponse(false);
+        try {
+            Response rs = super.callAPI();
+            actualRsBody = null;
+            actualRsFile = saveResponseBody(rs, logResponse);
+            return rs;
+        } finally {
+            setLogResponse(logResponse);
+        }
+    }
+
+    private File saveResponseBody(Response rs, boolean logResponse) {
+        ByteArrayOutputStream logBuffer = new ByteArrayOutputStream();
+        long size = 0;
+        File file = null;
+        try {
+            file = File.createTempFile("api-response-", ".json");
+            try (InputStream is = rs.asInputStream(); OutputStream os = new FileOutputStream(file)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = is.read(buffer)) != -1) {
+                    os.write(buffer, 0, read);
+                    if (logResponse && size < STREAM_LOG_LIMIT) {
+                        logBuffer.write(buffer, 0, (int) Math.min(read, STREAM_LOG_LIMIT - size));
+                    }
+                    size += read;
+                }
+            }
+        } catch (IOException e) {
+            if (file != null && !file.delete()) {
+                LOGGER.warn("Unable to delete partially saved response body: " + file.getAbsolutePath());
+            }
+            throw new RuntimeException("Unable to save response body", e);
+        }
+        if (logResponse) {
+            String body = new String(logBuffer.toByteArray(), StandardCharsets.UTF_8);
+            LOGGER.info(rs.getStatusLine() + "\n" + (size > STREAM_LOG_LIMIT ? body + "\n... (" + size + " bytes total)" : body));
+        }
+        return file;
     }
 
     public void addProperty(String key, Object value) {
@@ -132,20 +213,48 @@ public abstract class AbstractApiMethodV2 extends AbstractApiMethod {
         if (properties == null) {
             properties = new Properties();
         }
-        if (actualRsBody == null) {
+        if (actualRsBody == null && actualRsFile == null) {
             throw new RuntimeException("Actual response body is null. Please make API call before validation response");
         }
         TemplateMessage tm = new TemplateMessage();
         tm.setTemplatePath(rsPath);
         tm.setPropertiesStorage(properties);
         String expectedRs = tm.getMessageText();
+        JsonKeywordsComparator comparator = new JsonKeywordsComparator(mode, validationFlags);
         try {
-            JSONAssert.assertEquals(expectedRs, actualRsBody, new JsonKeywordsComparator(mode, validationFlags));
+            if (actualRsBody != null) {
+                JSONAssert.assertEquals(expectedRs, actualRsBody, comparator);
+            } else {
+                assertStreamedResponse(expectedRs, comparator);
+            }
         } catch (JSONException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void assertStreamedResponse(String expectedRs, JSONComparator comparator) throws JSONException {
+        Object expected = new JSONTokener(expectedRs).nextValue();
+        Object actual;
+        // JSON tree is built right from the file so the whole body never exists as a string
+        try (Reader reader = new InputStreamReader(openResponseStream(), StandardCharsets.UTF_8)) {
+            actual = new JSONTokener(reader).nextValue();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read response body", e);
+        }
+
+        JSONCompareResult result;
+        if (expected instanceof JSONObject && actual instanceof JSONObject) {
+            result = JSONCompare.compareJSON((JSONObject) expected, (JSONObject) actual, comparator);
+        } else if (expected instanceof JSONArray && actual instanceof JSONArray) {
+            result = JSONCompare.compareJSON((JSONArray) expected, (JSONArray) actual, comparator);
+        } else {
+            throw new AssertionError("Expected and actual response bodies have different JSON types");
+        }
+        if (result.failed()) {
+            throw new AssertionError(result.getMessage());
+        }
+    }
+
     /**
      * @param validationFlags
      *            parameter that specifies how to validate JSON response. Currently only array validation flag is supported.
@@ -156,13 +265,81 @@ public abstract class AbstractApiMethodV2 extends AbstractApiMethod {
     }
 
     public void validateResponseAgainstJSONSchema(String schemaPath) {
+        if (actualRsFile != null && actualRsBody == null) {
+            JsonValidator.validateJsonAgainstSchema(JsonValidator.getJsonSchema(schemaPath), openResponseStream());
+            return;
+        }
         if (actualRsBody == null) {
             throw new RuntimeException("Actual response body is null. Please make API call before validation response");
         }
-        TemplateMessage tm = new TemplateMessage();
-        tm.setTemplatePath(schemaPath);
-        String schema = tm.getMessageText();
-        JsonValidator.validateJsonAgainstSchema(schema, actualRsBody);
+        JsonValidator.validateJsonAgainstSchema(JsonValidator.getJsonSchema(schemaPath), actualRsBody);
+    }
+
+    /**
+     * Validates response body against JSON schema reading the body as a stream.
+     * 
+     * @param schemaPath
+     *            path to the schema template
+     * @param response
+     *            API response
+     */
+    public void validateResponseAgainstJSONSchema(String schemaPath, Response response) {
+        JsonValidator.validateJsonAgainstSchema(JsonValidator.getJsonSchema(schemaPath), response.asInputStream());
+    }
+
+    /**
+     * Returns JSON path for the last response. In streaming mode it is parsed right from the saved response body.
+     * 
+     * @return JsonPath
+     */
+    public JsonPath getResponseJsonPath() {
+        if (actualRsBody != null) {
+            return JsonPath.from(actualRsBody);
+        }
+        if (actualRsFile == null) {
+            throw new RuntimeException("Actual response body is null. Please make API call before validation response");
+        }
+        return JsonPath.from(actualRsFile);
+    }
+
+    /**
+     * Enables streaming mode: response body is saved to a temporary file instead of being kept in memory and only
+     * first 64 KB of it are logged. Validation reads the body from that file which is replaced by the next call and
+     * has to be removed by {@link #deleteResponseFile()} after the last one.
+     * 
+     * @param streamResponse
+     *            true to stream response bodies
+     */
+    public void setStreamResponse(boolean streamResponse) {
+        this.streamResponse = streamResponse;
+    }
+
+    /**
+     * @return temporary file with the last response body or null if streaming mode was not used
+     */
+    public File getResponseFile() {
+        return actualRsFile;
+    }
+
+    /**
+     * Deletes temporary file with the last streamed response body. Call it as soon as the response is validated,
+     * otherwise the file is kept until the next call of the method.
+     */
+    public void deleteResponseFile() {
+        if (actualRsFile != null) {
+            if (!actualRsFile.delete() && actualRsFile.exists()) {
+                LOGGER.warn("Unable to delete response body file: " + actualRsFile.getAbsolutePath());
+            }
+            actualRsFile = null;
+        }
+    }
+
+    private InputStream openResponseStream() {
+        try {
+            return new BufferedInputStream(new FileInputStream(actualRsFile));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read response body", e);
+        }
     }
 
     public void setAuth(String jSessionId) {
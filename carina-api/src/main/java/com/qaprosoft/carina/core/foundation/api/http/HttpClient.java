@@ -15,10 +15,32 @@
  *******************************************************************************/
 package com.qaprosoft.carina.core.foundation.api.http;
 
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.apache.log4j.Logger;
 
+import com.jayway.restassured.authentication.CertAuthScheme;
+import com.jayway.restassured.config.HttpClientConfig;
+import com.jayway.restassured.config.RestAssuredConfig;
+import com.jayway.restassured.config.SSLConfig;
 import com.jayway.restassured.response.Response;
+import com.jayway.restassured.specification.FilterableRequestSpecification;
 import com.jayway.restassured.specification.RequestSpecification;
+import com.qaprosoft.carina.core.foundation.api.ssl.NullHostnameVerifier;
+import com.qaprosoft.carina.core.foundation.api.ssl.NullX509TrustManager;
+import com.qaprosoft.carina.core.foundation.api.ssl.SSLContextBuilder;
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
 import com.qaprosoft.carina.proxy.SystemProxy;
 
 /*
@@ -26,12 +48,24 @@ import com.qaprosoft.carina.proxy.SystemProxy;
  * 
  * @author Alex Khursevich
  */
+@SuppressWarnings("deprecation")
 public class HttpClient {
     protected static final Logger LOGGER = Logger.getLogger(HttpClient.class);
 
+    private static final int MAX_CONNECTIONS = 200;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 50;
+
+    // proxy settings which are already applied to the system properties
+    private static volatile String systemProxy;
+
+    // pooled http clients mapped to the only configuration whose SSL settings may be registered in them
+    private static final Map<org.apache.http.client.HttpClient, RestAssuredConfig> POOLED_CLIENTS = Collections
+            .synchronizedMap(new IdentityHashMap<>());
+
     public static Response send(RequestSpecification request, String methodPath, HttpMethodType methodType) {
         Response response = null;
-        SystemProxy.setupProxy();
+        setupProxy();
+        isolateSSLSettings(request);
         switch (methodType) {
         case HEAD:
             response = request.head(methodPath);
@@ -58,4 +92,119 @@ public class HttpClient {
         return response;
     }
 
+    private static void setupProxy() {
+        String proxy = Configuration.get(Parameter.PROXY_HOST) + ":" + Configuration.get(Parameter.PROXY_PORT) + ":"
+                + Configuration.get(Parameter.PROXY_PROTOCOLS) + ":" + Configuration.get(Parameter.PROXY_SET_TO_SYSTEM);
+        if (!proxy.equals(systemProxy)) {
+            SystemProxy.setupProxy();
+            systemProxy = proxy;
+        }
+    }
+
+    /**
+     * RestAssured registers SSL settings of the request in the scheme registry of the http client. Requests which
+     * changed SSL settings of the pooled configuration (relaxed validation, keystore, certificate authentication)
+     * get their own http client so that the settings are not applied to the other requests.
+     * 
+     * @param request RequestSpecification
+     */
+    private static void isolateSSLSettings(RequestSpecification request) {
+        if (!(request instanceof FilterableRequestSpecification)) {
+            return;
+        }
+        FilterableRequestSpecification spec = (FilterableRequestSpecification) request;
+        RestAssuredConfig config = spec.getConfig();
+        if (config == null || !config.getHttpClientConfig().isConfiguredToReuseTheSameHttpClientInstance()) {
+            return;
+        }
+        RestAssuredConfig owner = POOLED_CLIENTS.get(config.getHttpClientConfig().httpClientInstance());
+        if (owner == null) {
+            return;
+        }
+        boolean sslChanged = owner.getSSLConfig() != config.getSSLConfig()
+                || spec.getAuthenticationScheme() instanceof CertAuthScheme;
+        if (sslChanged) {
+            HttpClientConfig httpClientConfig = config.getHttpClientConfig();
+            spec.config(config.httpClient(HttpClientConfig.httpClientConfig().withParams(httpClientConfig.params())
+                    .httpMultipartMode(httpClientConfig.httpMultipartMode())));
+        }
+    }
+
+    /**
+     * Returns configuration with keep-alive connections pooled by the shared http client.
+     * 
+     * @return RestAssuredConfig
+     */
+    public static RestAssuredConfig getDefaultConfig() {
+        return DefaultConfigHolder.CONFIG;
+    }
+
+    /**
+     * Returns pooled configuration which trusts all the certificates and host names.
+     * 
+     * @return RestAssuredConfig
+     */
+    public static RestAssuredConfig getTrustAllConfig() {
+        return TrustAllConfigHolder.CONFIG;
+    }
+
+    /**
+     * Returns pooled configuration with SSL context created from the default TLS keysecure files.
+     * 
+     * @return RestAssuredConfig
+     */
+    public static RestAssuredConfig getDefaultTLSConfig() {
+        return DefaultTLSConfigHolder.CONFIG;
+    }
+
+    private static RestAssuredConfig createPooledConfig(SSLConfig sslConfig) {
+        // the only client is created for every configuration as SSL settings are registered in the client itself
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        final DefaultHttpClient client = new DefaultHttpClient(connectionManager);
+        RestAssuredConfig config = RestAssuredConfig.newConfig()
+                .httpClient(HttpClientConfig.httpClientConfig().reuseHttpClientInstance().httpClientFactory(() -> client))
+                .sslConfig(sslConfig);
+        POOLED_CLIENTS.put(client, config);
+        return config;
+    }
+
+    private static class DefaultConfigHolder {
+        private static final RestAssuredConfig CONFIG = createPooledConfig(SSLConfig.sslConfig());
+    }
+
+    private static class TrustAllConfigHolder {
+        private static final RestAssuredConfig CONFIG;
+
+        static {
+            SSLContext sslContext = null;
+            try {
+                sslContext = SSLContext.getInstance("TLS");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+            TrustManager[] trustManagerArray = { new NullX509TrustManager() };
+            try {
+                sslContext.init(null, trustManagerArray, null);
+            } catch (KeyManagementException e) {
+                throw new RuntimeException(e);
+            }
+
+            SSLSocketFactory socketFactory = new SSLSocketFactory(sslContext, new NullHostnameVerifier());
+            SSLConfig sslConfig = new SSLConfig();
+            sslConfig = sslConfig.sslSocketFactory(socketFactory);
+            sslConfig = sslConfig.x509HostnameVerifier(new NullHostnameVerifier());
+            CONFIG = createPooledConfig(sslConfig);
+        }
+    }
+
+    private static class DefaultTLSConfigHolder {
+        private static final RestAssuredConfig CONFIG;
+
+        static {
+            SSLSocketFactory socketFactory = new SSLSocketFactory(new SSLContextBuilder(true).createSSLContext());
+            CONFIG = createPooledConfig(new SSLConfig().sslSocketFactory(socketFactory));
+        }
+    }
 }
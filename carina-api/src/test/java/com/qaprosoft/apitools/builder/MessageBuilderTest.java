@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.apitools.builder;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MessageBuilderTest {
+    private static final String TEMPLATE = "builder/request.json";
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    public void testBuildMessage() {
+        Properties properties = new Properties();
+        properties.put("name", "John");
+        properties.put("email", "john@example.com");
+        String message = MessageBuilder.buildStringMessage(TEMPLATE, properties);
+        Assert.assertTrue(message.contains("\"name\": \"John\""), message);
+        Assert.assertTrue(message.contains("\"email\": \"john@example.com\""), message);
+    }
+
+    @Test
+    public void testBuildMessageFromSeveralProperties() {
+        Properties base = new Properties();
+        base.put("name", "John");
+        base.put("email", "john@example.com");
+        Properties custom = new Properties();
+        custom.put("name", "Jane");
+        String message = MessageBuilder.buildStringMessage(TEMPLATE, base, custom);
+        Assert.assertTrue(message.contains("\"name\": \"Jane\""), message);
+        Assert.assertTrue(message.contains("\"email\": \"john@example.com\""), message);
+    }
+
+    @Test(threadPoolSize = 4, invocationCount = 8)
+    public void testBuildMessageFromThreads() {
+        // cached template is rendered by several threads at once with different data models
+        String name = "user" + invocations.incrementAndGet();
+        Properties properties = new Properties();
+        properties.put("name", name);
+        properties.put("email", name + "@example.com");
+        for (int i = 0; i < 500; i++) {
+            String message = MessageBuilder.buildStringMessage(TEMPLATE, properties);
+            Assert.assertEquals(StringUtils.normalizeSpace(message),
+                    "{ \"name\": \"" + name + "\", \"email\": \"" + name + "@example.com\" }",
+                    "Message was built with properties of another thread!");
+        }
+    }
+
+    @Test
+    public void testGenerateProcessor() {
+        Properties properties = new Properties();
+        properties.put("constant", "value");
+        properties.put("word", "generate_word(7)");
+        properties.put("number", "id_generate_number(5)");
+        Properties processed = PropertiesProcessorMain.processProperties(properties);
+        Assert.assertEquals(processed.get("constant"), "value");
+        Assert.assertEquals(processed.getProperty("word").length(), 7);
+        Assert.assertTrue(processed.getProperty("number").matches("id_\\d{5}"), processed.getProperty("number"));
+    }
+}
@@ -65,4 +65,26 @@ public class JsonSchemaValidatorTest {
         }
         Assert.assertTrue(isErrorThrown, "Assertion Error not thrown");
     }
+
+    @Test
+    public void testSchemaIsCompiledOnce() {
+        Assert.assertSame(JsonValidator.getJsonSchema("validation/schema/schema4/schema4.json"),
+                JsonValidator.getJsonSchema("validation/schema/schema4/schema4.json"));
+    }
+
+    @Test
+    public void testErrorSchema4FromStream() throws IOException {
+        String expectedError = IOUtils.toString(JsonSchemaValidatorTest.class.getClassLoader().getResourceAsStream(
+                "validation/schema/schema4/error_schema4.json"), Charset.forName("UTF-8"));
+
+        boolean isErrorThrown = false;
+        try {
+            JsonValidator.validateJsonAgainstSchema(JsonValidator.getJsonSchema("validation/schema/schema4/schema4.json"),
+                    JsonSchemaValidatorTest.class.getClassLoader().getResourceAsStream("validation/schema/schema4/rs_w_schema_error.json"));
+        } catch (Exception e) {
+            isErrorThrown = true;
+            Assert.assertEquals(normalizeSpace(e.getMessage()), normalizeSpace(expectedError), "Error message not as expected");
+        }
+        Assert.assertTrue(isErrorThrown, "Assertion Error not thrown");
+    }
 }
@@ -248,4 +248,40 @@ public class JsonValidatorTest {
         }
         Assert.assertTrue(isErrorThrown, "Assertion Error not thrown");
     }
+
+    @Test
+    public void testLargeShuffledArray() {
+        int size = 5000;
+        StringBuilder expected = new StringBuilder("[");
+        StringBuilder actual = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            int j = (i * 7919) % size;
+            expected.append(i == 0 ? "" : ",").append(String.format("{\"id\": %d, \"name\": \"item%d\", \"created\": \"skip\"}", i, i));
+            actual.append(i == 0 ? "" : ",").append(String.format("{\"id\": %d.0, \"name\": \"item%d\", \"created\": %d}", j, j, i));
+        }
+        JsonValidator.validateJson(expected.append("]").toString(), actual.append("]").toString(), JSONCompareMode.NON_EXTENSIBLE);
+    }
+
+    @Test
+    public void testArrayItemsWithWildcards() {
+        String expected = "[{\"id\": \"regex:^\\\\d+$\", \"type\": \"b\"}, {\"id\": \"type:Integer\", \"type\": \"a\"}]";
+        String actual = "[{\"id\": 1, \"type\": \"a\"}, {\"id\": 2, \"type\": \"b\"}]";
+        JsonValidator.validateJson(expected, actual, JSONCompareMode.NON_EXTENSIBLE);
+    }
+
+    @Test
+    public void testMostlySimilarArrayItemIsReported() {
+        String expected = "[{\"id\": 1, \"name\": \"first\"}, {\"id\": 2, \"name\": \"second\"}]";
+        String actual = "[{\"id\": 2, \"name\": \"second\"}, {\"id\": 1, \"name\": \"other\"}]";
+        boolean isErrorThrown = false;
+        try {
+            JsonValidator.validateJson(expected, actual, JSONCompareMode.NON_EXTENSIBLE);
+        } catch (AssertionError e) {
+            isErrorThrown = true;
+            Assert.assertTrue(e.getMessage().contains("[0].name"), e.getMessage());
+            Assert.assertTrue(e.getMessage().contains("other"), e.getMessage());
+            Assert.assertFalse(e.getMessage().contains("[1]"), e.getMessage());
+        }
+        Assert.assertTrue(isErrorThrown, "Assertion Error not thrown");
+    }
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.utils.R;
+import com.sun.net.httpserver.HttpServer;
+
+public class StreamingResponseTest {
+    private static final int ITEMS = 2000;
+
+    private static String baseUrl;
+
+    private HttpServer server;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        StringBuilder body = new StringBuilder("{\"total\": " + ITEMS + ", \"items\": [");
+        for (int i = 0; i < ITEMS; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"name\": \"item ").append(i)
+                    .append("\", \"description\": \"large enough description of the item to exceed log limit\"}");
+        }
+        byte[] content = body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(content);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        R.API.put(ItemsMethod.class.getSimpleName(), "GET:${base_url}/items");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testValidateStreamedResponse() {
+        ItemsMethod method = new ItemsMethod("api/stream/rs.json");
+        method.setStreamResponse(true);
+        method.setLogResponse(true);
+        method.callAPI();
+
+        Assert.assertNotNull(method.getResponseFile(), "Response body is not saved");
+        Assert.assertTrue(method.getResponseFile().length() > 64 * 1024, "Response body is not saved completely");
+        method.validateResponse();
+        method.validateResponseAgainstJSONSchema("api/stream/schema.json");
+        Assert.assertEquals(method.getResponseJsonPath().getInt("total"), ITEMS);
+        Assert.assertEquals(method.getResponseJsonPath().getList("items").size(), ITEMS);
+        method.deleteResponseFile();
+    }
+
+    @Test
+    public void testResponseFileIsDeleted() {
+        ItemsMethod method = new ItemsMethod("api/stream/rs.json");
+        method.setStreamResponse(true);
+        method.callAPI();
+        File first = method.getResponseFile();
+        Assert.assertTrue(first.exists());
+
+        method.callAPI();
+        File second = method.getResponseFile();
+        Assert.assertFalse(first.exists(), "Previous response body is not deleted by the next call");
+        method.validateResponse();
+
+        method.deleteResponseFile();
+        Assert.assertFalse(second.exists(), "Response body is not deleted");
+        Assert.assertNull(method.getResponseFile());
+    }
+
+    @Test(expectedExceptions = AssertionError.class)
+    public void testValidateStreamedResponseMismatch() {
+        ItemsMethod method = new ItemsMethod("api/stream/rs_error.json");
+        method.setStreamResponse(true);
+        method.callAPI();
+        try {
+            method.validateResponse();
+        } finally {
+            method.deleteResponseFile();
+        }
+    }
+
+    @Test
+    public void testValidateBufferedResponse() {
+        ItemsMethod method = new ItemsMethod("api/stream/rs.json");
+        method.callAPI();
+
+        Assert.assertNull(method.getResponseFile(), "Response body is saved in buffered mode");
+        method.validateResponse();
+        Assert.assertEquals(method.getResponseJsonPath().getInt("total"), ITEMS);
+    }
+
+    public static class ItemsMethod extends AbstractApiMethodV2 {
+        public ItemsMethod(String rsPath) {
+            super(null, rsPath);
+            replaceUrlPlaceholder("base_url", baseUrl);
+        }
+    }
+}
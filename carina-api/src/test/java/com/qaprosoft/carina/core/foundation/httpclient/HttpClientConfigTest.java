@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.httpclient;
+
+import static com.jayway.restassured.RestAssured.given;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.jayway.restassured.config.RestAssuredConfig;
+import com.jayway.restassured.specification.RequestSpecification;
+import com.qaprosoft.carina.core.foundation.api.http.HttpClient;
+import com.qaprosoft.carina.core.foundation.api.http.HttpMethodType;
+
+public class HttpClientConfigTest {
+
+    @Test
+    public void testDefaultConfigIsShared() {
+        RestAssuredConfig config = HttpClient.getDefaultConfig();
+        Assert.assertSame(HttpClient.getDefaultConfig(), config);
+        Assert.assertTrue(config.getHttpClientConfig().isConfiguredToReuseTheSameHttpClientInstance());
+    }
+
+    @Test
+    public void testTrustAllConfigIsShared() {
+        RestAssuredConfig config = HttpClient.getTrustAllConfig();
+        Assert.assertSame(HttpClient.getTrustAllConfig(), config);
+        Assert.assertNotSame(HttpClient.getDefaultConfig(), config);
+        Assert.assertNotNull(config.getSSLConfig().getSSLSocketFactory());
+        Assert.assertTrue(config.getHttpClientConfig().isConfiguredToReuseTheSameHttpClientInstance());
+    }
+
+    @Test
+    public void testPooledClientIsReused() {
+        RestAssuredConfig config = HttpClient.getDefaultConfig();
+        Assert.assertSame(config.getHttpClientConfig().httpClientInstance(), config.getHttpClientConfig().httpClientInstance());
+    }
+
+    @Test
+    public void testRelaxedSpecDoesNotAffectDefaultSpec() throws IOException {
+        AbstractHttpClient client = (AbstractHttpClient) HttpClient.getDefaultConfig().getHttpClientConfig().httpClientInstance();
+        SchemeSocketFactory httpsFactory = getHttpsFactory(client);
+
+        sendQuietly(given().config(HttpClient.getDefaultConfig()).relaxedHTTPSValidation());
+
+        Assert.assertSame(getHttpsFactory(client), httpsFactory, "SSL settings of the spec leaked into the shared client");
+    }
+
+    private static SchemeSocketFactory getHttpsFactory(AbstractHttpClient client) {
+        return client.getConnectionManager().getSchemeRegistry().getScheme("https").getSchemeSocketFactory();
+    }
+
+    private static void sendQuietly(RequestSpecification request) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        try {
+            HttpClient.send(request, "https://localhost:" + port + "/", HttpMethodType.GET);
+        } catch (Exception e) {
+            // nobody listens on the port, only SSL settings applied before connecting matter
+        }
+    }
+}
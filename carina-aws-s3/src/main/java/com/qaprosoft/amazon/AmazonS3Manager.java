@@ -59,7 +59,7 @@ public class AmazonS3Manager {
             synchronized (AmazonS3Manager.class) {
                 if (instance == null) {
                     instance = new AmazonS3Manager();
-                    CryptoTool cryptoTool = new CryptoTool(Configuration.get(Parameter.CRYPTO_KEY_PATH));
+                    CryptoTool cryptoTool = CryptoTool.getInstance(Configuration.get(Parameter.CRYPTO_KEY_PATH));
                     Pattern CRYPTO_PATTERN = Pattern.compile(SpecialKeywords.CRYPT);
                     
                     String accessKey = cryptoTool.decryptByPattern(Configuration.get(Parameter.ACCESS_KEY_ID), CRYPTO_PATTERN);
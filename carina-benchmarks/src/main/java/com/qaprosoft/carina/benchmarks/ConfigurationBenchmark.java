@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+import com.qaprosoft.carina.core.foundation.utils.R;
+
+/**
+ * Configuration lookups done by almost every carina call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigurationBenchmark {
+
+    @Setup
+    public void setUp() {
+        R.CONFIG.put("benchmark_url", "http://${benchmark_host}:${benchmark_port}/wd/hub");
+        R.CONFIG.put("benchmark_host", "localhost");
+        R.CONFIG.put("benchmark_port", "4444");
+    }
+
+    @Benchmark
+    public String rConfigGet() {
+        return R.CONFIG.get("browser");
+    }
+
+    @Benchmark
+    public String rConfigGetWithPlaceholders() {
+        return R.CONFIG.get("benchmark_url");
+    }
+
+    @Benchmark
+    public String configurationGet() {
+        return Configuration.get(Parameter.BROWSER);
+    }
+
+    @Benchmark
+    public int configurationGetInt() {
+        return Configuration.getInt(Parameter.EXPLICIT_TIMEOUT);
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
+import com.qaprosoft.carina.core.foundation.crypto.CryptoTool;
+import com.qaprosoft.carina.core.foundation.crypto.SecretKeyManager;
+
+/**
+ * Decryption of the secured values in texts typed by tests, e.g. '{crypt:...}' passwords in test data.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CryptoToolBenchmark {
+    private static final Pattern CRYPTO_PATTERN = Pattern.compile(SpecialKeywords.CRYPT);
+
+    private File keyFile;
+    private CryptoTool cryptoTool;
+    private String encrypted;
+
+    @Setup
+    public void setUp() throws IOException, NoSuchAlgorithmException {
+        keyFile = File.createTempFile("crypto", ".key");
+        SecretKeyManager.saveKey(SecretKeyManager.generateKey(SpecialKeywords.CRYPTO_KEY_TYPE, SpecialKeywords.CRYPTO_KEY_SIZE), keyFile);
+        cryptoTool = new CryptoTool(keyFile.getAbsolutePath());
+        encrypted = "login: " + String.format(SpecialKeywords.CRYPT_WRAPPER, cryptoTool.encrypt("john.doe"))
+                + ", password: " + String.format(SpecialKeywords.CRYPT_WRAPPER, cryptoTool.encrypt("P@ssw0rd"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        keyFile.delete();
+    }
+
+    @Benchmark
+    public String decryptByPattern() {
+        return cryptoTool.decryptByPattern(encrypted, CRYPTO_PATTERN);
+    }
+
+    @Benchmark
+    public String plainText() {
+        return cryptoTool.decryptByPattern("login: john.doe, password: not secured", CRYPTO_PATTERN);
+    }
+}
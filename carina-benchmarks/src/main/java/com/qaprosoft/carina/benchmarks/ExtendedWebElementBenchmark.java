@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.FindBy;
+
+import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
+import com.qaprosoft.carina.core.foundation.crypto.SecretKeyManager;
+import com.qaprosoft.carina.core.foundation.utils.R;
+import com.qaprosoft.carina.core.foundation.webdriver.IDriverPool;
+import com.qaprosoft.carina.core.foundation.webdriver.decorator.ExtendedWebElement;
+import com.qaprosoft.carina.core.gui.AbstractPage;
+
+/**
+ * Construction of the ExtendedWebElements directly and by page objects initialization. Driver is in-memory
+ * {@link WebDriverStub} registered in the driver pool of the benchmark thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExtendedWebElementBenchmark implements IDriverPool {
+
+    private File keyFile;
+    private WebDriver driver;
+    private final By by = By.id("login");
+
+    @Setup
+    public void setUp() throws IOException, NoSuchAlgorithmException {
+        // page objects load crypto key on creation
+        keyFile = File.createTempFile("crypto", ".key");
+        SecretKeyManager.saveKey(SecretKeyManager.generateKey(SpecialKeywords.CRYPTO_KEY_TYPE, SpecialKeywords.CRYPTO_KEY_SIZE), keyFile);
+        R.CONFIG.put("crypto_key_path", keyFile.getAbsolutePath());
+
+        driver = new WebDriverStub();
+        registerDriver(driver, DEFAULT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        deregisterDriver(DEFAULT);
+        keyFile.delete();
+    }
+
+    @Benchmark
+    public ExtendedWebElement byLocator() {
+        return new ExtendedWebElement(by, "login", driver);
+    }
+
+    @Benchmark
+    public LoginPage pageObject() {
+        return new LoginPage(driver);
+    }
+
+    public static class LoginPage extends AbstractPage {
+        @FindBy(id = "login")
+        private ExtendedWebElement loginField;
+
+        @FindBy(id = "password")
+        private ExtendedWebElement passwordField;
+
+        @FindBy(xpath = "//button[@type='submit']")
+        private ExtendedWebElement loginButton;
+
+        @FindBy(css = ".menu li")
+        private List<ExtendedWebElement> menuItems;
+
+        public LoginPage(WebDriver driver) {
+            super(driver);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skyscreamer.jsonassert.JSONCompare;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.skyscreamer.jsonassert.JSONCompareResult;
+
+import com.qaprosoft.apitools.validation.JsonKeywordsComparator;
+
+/**
+ * Comparison of the API responses with arrays of objects. Actual array is in reversed order so every expected
+ * item has to be searched for.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonKeywordsComparatorBenchmark {
+
+    @Param({ "10", "100" })
+    private int size;
+
+    private String expected;
+    private String actual;
+    private JsonKeywordsComparator comparator;
+
+    @Setup
+    public void setUp() throws JSONException {
+        JSONArray expectedItems = new JSONArray();
+        JSONArray actualItems = new JSONArray();
+        for (int i = 0; i < size; i++) {
+            expectedItems.put(new JSONObject().put("id", i).put("name", "item " + i).put("created", "skip").put("price", "type:Double"));
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            actualItems.put(new JSONObject().put("id", i).put("name", "item " + i).put("created", System.currentTimeMillis()).put("price", i + 0.5));
+        }
+        expected = new JSONObject().put("items", expectedItems).toString();
+        actual = new JSONObject().put("items", actualItems).toString();
+        comparator = new JsonKeywordsComparator(JSONCompareMode.STRICT);
+    }
+
+    @Benchmark
+    public JSONCompareResult compare() throws JSONException {
+        return JSONCompare.compareJSON(expected, actual, comparator);
+    }
+}
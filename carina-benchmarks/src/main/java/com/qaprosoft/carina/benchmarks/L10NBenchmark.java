@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qaprosoft.carina.core.foundation.utils.R;
+import com.qaprosoft.carina.core.foundation.utils.resources.L10N;
+
+/**
+ * Lookups of the localized texts from 'L10N/benchmark' bundle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class L10NBenchmark {
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        R.CONFIG.put("enable_l10n", "true");
+        R.CONFIG.put("locale", "en_US");
+        L10N.init();
+
+        // L10N.init scans class path directories only so bundles packed into benchmarks jar are registered explicitly
+        Field field = L10N.class.getDeclaredField("resBoundles");
+        field.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        List<ResourceBundle> bundles = (List<ResourceBundle>) field.get(null);
+        bundles.add(ResourceBundle.getBundle("L10N.benchmark", Locale.US));
+    }
+
+    @Benchmark
+    public String existingKey() {
+        return L10N.getText("benchmark.login.button");
+    }
+
+    @Benchmark
+    public String missingKey() {
+        return L10N.getText("benchmark.missing.key");
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qaprosoft.carina.grid.MobileCapabilityMatcher;
+
+/**
+ * Matching of the requested capabilities against the grid node ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MobileCapabilityMatcherBenchmark {
+
+    private final MobileCapabilityMatcher matcher = new MobileCapabilityMatcher();
+
+    private final Map<String, Object> nodeCapability = new HashMap<String, Object>();
+    private final Map<String, Object> mobileCapability = new HashMap<String, Object>();
+    private final Map<String, Object> browserCapability = new HashMap<String, Object>();
+
+    @Setup
+    public void setUp() {
+        nodeCapability.put("platformName", "ANDROID");
+        nodeCapability.put("platformVersion", "8.1.0");
+        nodeCapability.put("deviceName", "Pixel 2");
+        nodeCapability.put("deviceType", "phone");
+        nodeCapability.put("udid", "HT7A11A03124");
+        nodeCapability.put("browserName", "chrome");
+
+        mobileCapability.put("platformName", "ANDROID");
+        mobileCapability.put("platformVersion", "8.0+");
+        mobileCapability.put("deviceName", "Nexus 5,Pixel 2");
+        mobileCapability.put("deviceType", "phone");
+
+        browserCapability.put("browserName", "chrome");
+    }
+
+    @Benchmark
+    public boolean matchMobile() {
+        return matcher.matches(nodeCapability, mobileCapability);
+    }
+
+    @Benchmark
+    public boolean matchBrowser() {
+        return matcher.matches(nodeCapability, browserCapability);
+    }
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qaprosoft.carina.core.foundation.utils.ParameterGenerator;
+
+/**
+ * Processing of the data provider values which mostly have no placeholders at all.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParameterGeneratorBenchmark {
+
+    @Setup
+    public void setUp() {
+        ParameterGenerator.setUUID("3c5b4b06-8e5c-4b0b-9d4d-2b8c1b7a4f7e");
+    }
+
+    @Benchmark
+    public Object plainValue() {
+        return ParameterGenerator.process("plain value without placeholders");
+    }
+
+    @Benchmark
+    public Object generateWord() {
+        return ParameterGenerator.process("user_{generate:8}");
+    }
+
+    @Benchmark
+    public Object generateUUID() {
+        return ParameterGenerator.process("order_{generate_uuid}");
+    }
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.ErrorCodes;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+/**
+ * In-memory RemoteWebDriver which answers commands locally without any browser or network calls.
+ * Every find command returns new element, other commands return empty values.
+ */
+public class WebDriverStub extends RemoteWebDriver {
+
+    public WebDriverStub() {
+        super(new StubCommandExecutor(), new DesiredCapabilities());
+    }
+
+    private static class StubCommandExecutor implements CommandExecutor {
+        private final String sessionId = UUID.randomUUID().toString();
+        private long elementId = 0;
+
+        @Override
+        public Response execute(Command command) {
+            Response response = new Response();
+            response.setStatus(ErrorCodes.SUCCESS);
+            response.setSessionId(sessionId);
+
+            switch (command.getName()) {
+            case DriverCommand.NEW_SESSION:
+                response.setValue(new HashMap<String, Object>());
+                break;
+            case DriverCommand.FIND_ELEMENT:
+            case DriverCommand.FIND_CHILD_ELEMENT:
+                response.setValue(newElement());
+                break;
+            case DriverCommand.FIND_ELEMENTS:
+            case DriverCommand.FIND_CHILD_ELEMENTS:
+                response.setValue(Collections.singletonList(newElement()));
+                break;
+            case DriverCommand.GET_TITLE:
+            case DriverCommand.GET_CURRENT_URL:
+            case DriverCommand.GET_ELEMENT_TEXT:
+                response.setValue("");
+                break;
+            case DriverCommand.IS_ELEMENT_DISPLAYED:
+            case DriverCommand.IS_ELEMENT_ENABLED:
+                response.setValue(true);
+                break;
+            default:
+                response.setValue(null);
+            }
+            return response;
+        }
+
+        private synchronized Map<String, Object> newElement() {
+            return Collections.<String, Object> singletonMap("ELEMENT", String.valueOf(++elementId));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qaprosoft.carina.core.foundation.dataprovider.parser.XLSParser;
+
+/**
+ * Lookups of the localized locators and key/value test data in the spreadsheets.
+ * Workbook contains 'l10n' sheet with 200 keys for 5 locales and 'data' sheet with 500 key/value rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XLSParserBenchmark {
+    private static final String XLS = "benchmarks/benchmark.xlsx";
+
+    private final Locale locale = new Locale("fr", "FR");
+
+    @Setup
+    public void setUp() {
+        // load workbook into the cache
+        XLSParser.parseValue(XLS, "data", "key_0");
+    }
+
+    @Benchmark
+    public String localizedLocator() {
+        return XLSParser.parseValue("locator_150", XLS, locale);
+    }
+
+    @Benchmark
+    public String firstKey() {
+        return XLSParser.parseValue(XLS, "data", "key_0");
+    }
+
+    @Benchmark
+    public String lastKey() {
+        return XLSParser.parseValue(XLS, "data", "key_499");
+    }
+}
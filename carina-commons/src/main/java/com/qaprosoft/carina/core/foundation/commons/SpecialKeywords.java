@@ -163,6 +163,7 @@ public class SpecialKeywords {
     public static final String STF_ENABLED = "STF_ENABLED";
     public static final String STF_URL = "STF_URL";
     public static final String STF_TOKEN = "STF_TOKEN";
+    public static final String STF_DEVICES_MAX_AGE = "STF_DEVICES_MAX_AGE";
 
     
     // ------------- qTEST PROPERTIES -------------------------------
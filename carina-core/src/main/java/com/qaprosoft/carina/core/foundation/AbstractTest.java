@@ -16,6 +16,7 @@
 package com.qaprosoft.carina.core.foundation;
 
 import java.lang.annotation.Annotation;
+import java.util.Iterator;
 
 import org.apache.log4j.Logger;
 import org.testng.ITestContext;
@@ -83,6 +84,18 @@ public abstract class AbstractTest implements IDriverPool, ITestCases {
         return objects;
     }
 
+    @DataProvider(name = "StreamingDataProvider", parallel = true)
+    public Iterator<Object[]> createStreamingData(final ITestNGMethod testMethod, ITestContext context) {
+        Annotation[] annotations = testMethod.getConstructorOrMethod().getMethod().getDeclaredAnnotations();
+        return DataProviderFactory.getNeedRerunDataProviderIterator(annotations, context, testMethod);
+    }
+
+    @DataProvider(name = "SingleStreamingDataProvider")
+    public Iterator<Object[]> createStreamingDataSingleThread(final ITestNGMethod testMethod, ITestContext context) {
+        Annotation[] annotations = testMethod.getConstructorOrMethod().getMethod().getDeclaredAnnotations();
+        return DataProviderFactory.getNeedRerunDataProviderIterator(annotations, context, testMethod);
+    }
+
     protected void setBug(String id) {
         String test = TestNamingUtil.getTestNameByThread();
         TestNamingUtil.associateBug(test, id);
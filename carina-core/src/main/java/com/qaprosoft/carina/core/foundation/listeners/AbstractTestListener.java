@@ -39,6 +39,7 @@ import org.testng.TestListenerAdapter;
 import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
 import com.qaprosoft.carina.core.foundation.dataprovider.parser.DSBean;
 import com.qaprosoft.carina.core.foundation.jira.Jira;
+import com.qaprosoft.carina.core.foundation.performance.Timer;
 import com.qaprosoft.carina.core.foundation.report.Artifacts;
 import com.qaprosoft.carina.core.foundation.report.ReportContext;
 import com.qaprosoft.carina.core.foundation.report.TestResultItem;
@@ -222,6 +223,11 @@ public class AbstractTestListener extends TestListenerAdapter implements IDriver
             }
         }
         
+        // latency percentiles and counters of the operations tracked by Timer
+        if (ReportContext.savePerformanceStatistics() != null) {
+            Artifacts.add("Performance", ReportContext.getPerformanceStatisticsLink(test));
+        }
+
         ReportContext.renameTestDir(test);
 
         TestNamingUtil.releaseTestInfoByThread();
@@ -284,6 +290,9 @@ public class AbstractTestListener extends TestListenerAdapter implements IDriver
 
     @Override
     public void onTestStart(ITestResult result) {
+        // performance metrics are collected per test
+        Timer.startTest();
+
         //declare carina custom RetryAnalyzer annotation for each test method
         IRetryAnalyzer retryAnalyzer = new RetryAnalyzer();
         IRetryAnalyzer curRetryAnalyzer = result.getMethod().getRetryAnalyzer();
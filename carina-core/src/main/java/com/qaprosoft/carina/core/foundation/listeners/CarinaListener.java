@@ -33,7 +33,6 @@ import org.apache.log4j.Category;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PropertyConfigurator;
-import org.openqa.selenium.WebDriverException;
 import org.testng.Assert;
 import org.testng.ISuite;
 import org.testng.ISuiteListener;
@@ -53,6 +52,8 @@ import com.qaprosoft.amazon.AmazonS3Manager;
 import com.qaprosoft.carina.browsermobproxy.ProxyPool;
 import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
 import com.qaprosoft.carina.core.foundation.jira.Jira;
+import com.qaprosoft.carina.core.foundation.performance.OperationStatistics;
+import com.qaprosoft.carina.core.foundation.performance.Timer;
 import com.qaprosoft.carina.core.foundation.report.Artifacts;
 import com.qaprosoft.carina.core.foundation.report.ReportContext;
 import com.qaprosoft.carina.core.foundation.report.TestResultItem;
@@ -72,6 +73,8 @@ import com.qaprosoft.carina.core.foundation.utils.resources.I18N;
 import com.qaprosoft.carina.core.foundation.utils.resources.L10N;
 import com.qaprosoft.carina.core.foundation.utils.resources.L10Nparser;
 import com.qaprosoft.carina.core.foundation.webdriver.CarinaDriver;
+import com.qaprosoft.carina.core.foundation.webdriver.DriverQuitExecutor;
+import com.qaprosoft.carina.core.foundation.webdriver.DriverWarmPool;
 import com.qaprosoft.carina.core.foundation.webdriver.IDriverPool;
 import com.qaprosoft.carina.core.foundation.webdriver.TestPhase;
 import com.qaprosoft.carina.core.foundation.webdriver.TestPhase.Phase;
@@ -202,6 +205,9 @@ public class CarinaListener extends AbstractTestListener implements ISuiteListen
                 + suite.getXmlSuite().getDataProviderThreadCount());
 
         onHealthCheck(suite);
+
+        // start driver sessions in background for default capabilities if warm pool is enabled
+        DriverWarmPool.start();
     }
 
     @Override
@@ -373,6 +379,17 @@ public class CarinaListener extends AbstractTestListener implements ISuiteListen
     @Override
     public void onFinish(ISuite suite) {
         try {
+            // quit not used warm driver sessions
+            DriverWarmPool.shutdown();
+            // make sure sessions quit in background by tests are closed
+            DriverQuitExecutor.await();
+
+            // latency percentiles of the operations merged from all tests
+            Map<String, OperationStatistics> statistics = Timer.getSuiteStatistics();
+            if (!statistics.isEmpty()) {
+                LOGGER.info("Performance statistics:\n" + StringUtils.join(statistics.values(), "\n"));
+            }
+
             ReportContext.removeTempDir(); // clean temp artifacts directory
             //HtmlReportGenerator.generate(ReportContext.getBaseDir().getAbsolutePath());
 
@@ -803,37 +820,21 @@ public class CarinaListener extends AbstractTestListener implements ISuiteListen
         }
         
         private void quitAllDrivers() {
-            // as it is shutdown hook just try to quit all registered drivers on by one
+            // as it is shutdown hook just try to quit all registered drivers in parallel
             for (CarinaDriver carinaDriver : IDriverPool.driversPool) {
                 //it is expected that all drivers are killed in appropriate aftermethod/class/suite blocks
                 String name = carinaDriver.getName();
                 LOGGER.warn("Trying to quite driver '" + name + "' on shutdown hook action!");
                 ProxyPool.stopProxy();
-                
-                try {
-                    logger.debug("Driver exiting..." + name);
-                    carinaDriver.getDriver().quit();
-                    logger.debug("Driver exited..." + name);
-                } catch (WebDriverException e) {
-                    logger.debug("Error message detected during driver verification: " + e.getMessage(), e);
-                    // do nothing
-                } catch (Exception e) {
-                    logger.debug("Error discovered during driver quit: " + e.getMessage(), e);
-
-                    // TODO: it seems like BROWSER_TIMEOUT or NODE_FORWARDING should be handled here as well
-                    if (!e.getMessage().contains("Session ID is null.")) {
-                        throw e;
-                    }
-                } finally {
-                    //do nothing
-                }
+                DriverQuitExecutor.quit(name, carinaDriver.getDriver());
             }
+            DriverQuitExecutor.await();
         }
 
-
         @Override
         public void run() {
             LOGGER.debug("Running shutdown hook");
+            DriverWarmPool.shutdown();
             quitAllDrivers();
             generateMetadata();
         }
@@ -17,8 +17,17 @@ package com.qaprosoft.carina.core.foundation.crypto;
 
 import java.io.File;
 import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,23 +40,31 @@ import org.apache.log4j.Logger;
 
 import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
 
+/**
+ * CryptoTool - encrypts/decrypts values using the secret key.
+ * 
+ * Tool is thread-safe: every encryption/decryption borrows initialized Cipher from the pool of the tool as Cipher
+ * itself is not thread-safe. Recently decrypted values are cached. Tools shared by {@link #getInstance(String)} can't
+ * be reconfigured.
+ */
 public class CryptoTool {
     private static final Logger LOGGER = Logger.getLogger(CryptoTool.class);
 
-    private String algorithm;
-    private Cipher cipher;
-    private Key key;
+    private static final int DECRYPTED_CACHE_SIZE = 256;
 
-    public CryptoTool(String cryptoAlgorithm, String cryptoKeyType, Key key) {
-        this.algorithm = cryptoAlgorithm;
+    // key path -> shared tool
+    private static final ConcurrentMap<String, CryptoTool> tools = new ConcurrentHashMap<String, CryptoTool>();
 
-        this.key = key;
+    private final Key key;
+    private final boolean shared;
 
-        try {
-            this.cipher = Cipher.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            LOGGER.error(e.getMessage(), e);
-        }
+    // replaced as a whole on reconfiguration so ciphers borrowed before are never returned to the new pool
+    private volatile Ciphers ciphers;
+
+    public CryptoTool(String cryptoAlgorithm, String cryptoKeyType, Key key) {
+        this.key = key;
+        this.shared = false;
+        this.ciphers = new Ciphers(cryptoAlgorithm, createCipher(cryptoAlgorithm));
     }
 
     public CryptoTool() {
@@ -59,25 +76,50 @@ public class CryptoTool {
     }
 
     public CryptoTool(String cryptoAlgorithm, String cryptoKeyType, String cryptoKeyPath) {
-        this.algorithm = cryptoAlgorithm;
+        this(cryptoAlgorithm, cryptoKeyType, cryptoKeyPath, false);
+    }
 
+    private CryptoTool(String cryptoAlgorithm, String cryptoKeyType, String cryptoKeyPath, boolean shared) {
+        Key key = null;
         try {
-            this.key = SecretKeyManager.loadKey(new File(cryptoKeyPath), cryptoKeyType);
+            key = SecretKeyManager.loadCachedKey(new File(cryptoKeyPath), cryptoKeyType);
         } catch (IOException e) {
             LOGGER.error(e.getMessage(), e);
         }
-        try {
-            this.cipher = Cipher.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            LOGGER.error(e.getMessage(), e);
+        this.key = key;
+        this.shared = shared;
+        this.ciphers = new Ciphers(cryptoAlgorithm, createCipher(cryptoAlgorithm));
+    }
+
+    /**
+     * Get tool shared for the key path using default algorithm and key type. Algorithm and cipher of the shared tool
+     * can't be changed.
+     * 
+     * @param cryptoKeyPath
+     *            String key file path
+     * @return CryptoTool
+     */
+    public static CryptoTool getInstance(String cryptoKeyPath) {
+        CryptoTool tool = tools.get(cryptoKeyPath);
+        if (tool == null) {
+            tool = new CryptoTool(SpecialKeywords.CRYPTO_ALGORITHM, SpecialKeywords.CRYPTO_KEY_TYPE, cryptoKeyPath, true);
+            if (tool.key != null) {
+                // don't remember tool without key to be able to load it later
+                CryptoTool existing = tools.putIfAbsent(cryptoKeyPath, tool);
+                tool = existing != null ? existing : tool;
+            }
         }
+        return tool;
     }
 
     // Encrypt/decrypt
     public String encrypt(String strToEncrypt) {
+        Ciphers current = ciphers;
         try {
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-            final String encryptedString = new String(Base64.encodeBase64(cipher.doFinal(strToEncrypt.getBytes())));
+            Cipher c = current.borrow(current.encryptCiphers, Cipher.ENCRYPT_MODE, key);
+            final String encryptedString = new String(Base64.encodeBase64(c.doFinal(strToEncrypt.getBytes())));
+            // cipher is reset to the initialized state after doFinal so it could be reused
+            current.encryptCiphers.offer(c);
             return encryptedString;
         } catch (Exception e) {
             throw new RuntimeException("Error while encrypting, check your crypto key! " + e.getMessage(), e);
@@ -85,84 +127,145 @@ public class CryptoTool {
     }
 
     public String decrypt(String strToDecrypt) {
-        try {
-            cipher.init(Cipher.DECRYPT_MODE, key);
-            final String decryptedString = new String(cipher.doFinal(Base64.decodeBase64(strToDecrypt.getBytes())));
+        Ciphers current = ciphers;
+        String decryptedString = current.decrypted.get(strToDecrypt);
+        if (decryptedString != null) {
             return decryptedString;
+        }
+        try {
+            Cipher c = current.borrow(current.decryptCiphers, Cipher.DECRYPT_MODE, key);
+            decryptedString = new String(c.doFinal(Base64.decodeBase64(strToDecrypt.getBytes())));
+            current.decryptCiphers.offer(c);
         } catch (Exception e) {
             throw new RuntimeException("Error while decrypting, check your crypto key! " + e.getMessage(), e);
         }
+        current.decrypted.put(strToDecrypt, decryptedString);
+        return decryptedString;
     }
 
     public String encryptByPattern(String content, Pattern pattern) {
-        String wildcard = pattern.pattern().substring(pattern.pattern().indexOf("{") + 1,
-                pattern.pattern().indexOf(":"));
-        if (content != null && content.contains(wildcard)) {
-            Matcher matcher = pattern.matcher(content);
-            while (matcher.find()) {
-                String group = matcher.group();
-                String crypt = StringUtils.removeStart(group, "{" + wildcard + ":").replace("}", "");
-                content = StringUtils.replace(content, group, encrypt(crypt));
-            }
-        }
-        return content;
+        return replaceByPattern(content, pattern, this::encrypt);
     }
 
     public String decryptByPattern(String content, Pattern pattern) {
-        String wildcard = pattern.pattern().substring(pattern.pattern().indexOf("{") + 1,
-                pattern.pattern().indexOf(":"));
-        if (content != null && content.contains(wildcard)) {
-            Matcher matcher = pattern.matcher(content);
-            while (matcher.find()) {
-                String group = matcher.group();
-                String crypt = StringUtils.removeStart(group, "{" + wildcard + ":").replace("}", "");
-                content = StringUtils.replace(content, group, decrypt(crypt));
-            }
-        }
-        return content;
+        return replaceByPattern(content, pattern, this::decrypt);
     }
 
     public String encryptByPatternAndWrap(String content, Pattern pattern, String wrapper) {
-        String wildcard = pattern.pattern().substring(pattern.pattern().indexOf("{") + 1,
-                pattern.pattern().indexOf(":"));
-        if (content != null && content.contains(wildcard)) {
-            Matcher matcher = pattern.matcher(content);
-            while (matcher.find()) {
-                String group = matcher.group();
-                String crypt = StringUtils.removeStart(group, "{" + wildcard + ":").replace("}", "");
-                content = StringUtils.replace(content, group, String.format(wrapper, encrypt(crypt)));
-            }
-        }
-        return content;
+        return replaceByPattern(content, pattern, crypt -> String.format(wrapper, encrypt(crypt)));
     }
 
     public String decryptByPatternAndWrap(String content, Pattern pattern, String wrapper) {
+        return replaceByPattern(content, pattern, crypt -> String.format(wrapper, decrypt(crypt)));
+    }
+
+    /**
+     * Replace every pattern match by the converted value in a single pass.
+     */
+    private static String replaceByPattern(String content, Pattern pattern, Function<String, String> converter) {
         String wildcard = pattern.pattern().substring(pattern.pattern().indexOf("{") + 1,
                 pattern.pattern().indexOf(":"));
-        if (content != null && content.contains(wildcard)) {
-            Matcher matcher = pattern.matcher(content);
-            while (matcher.find()) {
-                String group = matcher.group();
-                String crypt = StringUtils.removeStart(group, "{" + wildcard + ":").replace("}", "");
-                content = StringUtils.replace(content, group, String.format(wrapper, decrypt(crypt)));
-            }
+        if (content == null || !content.contains(wildcard)) {
+            return content;
+        }
+
+        Matcher matcher = pattern.matcher(content);
+        if (!matcher.find()) {
+            return content;
         }
-        return content;
+        String prefix = "{" + wildcard + ":";
+        StringBuilder result = new StringBuilder(content.length());
+        int last = 0;
+        do {
+            String crypt = StringUtils.removeStart(matcher.group(), prefix).replace("}", "");
+            result.append(content, last, matcher.start()).append(converter.apply(crypt));
+            last = matcher.end();
+        } while (matcher.find());
+        return result.append(content, last, content.length()).toString();
     }
 
     public String getAlgorithm() {
-        return algorithm;
+        return ciphers.algorithm;
     }
 
+    /**
+     * Change algorithm of the tool.
+     * 
+     * @param algorithm
+     *            String
+     * @throws UnsupportedOperationException
+     *             if tool is shared by {@link #getInstance(String)}
+     */
     public void setAlgorithm(String algorithm) {
-        this.algorithm = algorithm;
+        checkNotShared();
+        this.ciphers = new Ciphers(algorithm, createCipher(algorithm));
     }
 
     public Cipher getCipher() {
-        return cipher;
+        return ciphers.cipher;
     }
 
+    /**
+     * Change cipher of the tool.
+     * 
+     * @param cipher
+     *            Cipher
+     * @throws UnsupportedOperationException
+     *             if tool is shared by {@link #getInstance(String)}
+     */
     public void setCipher(Cipher cipher) {
-        this.cipher = cipher;
+        checkNotShared();
+        this.ciphers = new Ciphers(ciphers.algorithm, cipher);
+    }
+
+    private void checkNotShared() {
+        if (shared) {
+            throw new UnsupportedOperationException("Shared CryptoTool can't be reconfigured, create new CryptoTool instead!");
+        }
+    }
+
+    private static Cipher createCipher(String algorithm) {
+        try {
+            return Cipher.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            LOGGER.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Cipher settings with initialized ciphers and decrypted values produced by them.
+     */
+    private static class Ciphers {
+        private final String algorithm;
+        private final Cipher cipher;
+
+        // initialized ciphers ready for reuse per mode
+        private final Queue<Cipher> encryptCiphers = new ConcurrentLinkedQueue<Cipher>();
+        private final Queue<Cipher> decryptCiphers = new ConcurrentLinkedQueue<Cipher>();
+
+        // encrypted value -> decrypted value, least recently used values are evicted
+        private final Map<String, String> decrypted = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > DECRYPTED_CACHE_SIZE;
+            }
+        });
+
+        private Ciphers(String algorithm, Cipher cipher) {
+            this.algorithm = algorithm;
+            this.cipher = cipher;
+        }
+
+        private Cipher borrow(Queue<Cipher> ciphers, int mode, Key key) throws GeneralSecurityException {
+            Cipher c = ciphers.poll();
+            if (c == null) {
+                c = cipher != null ? Cipher.getInstance(cipher.getAlgorithm(), cipher.getProvider()) : Cipher.getInstance(algorithm);
+                c.init(mode, key);
+            }
+            return c;
+        }
     }
 }
@@ -18,6 +18,8 @@ package com.qaprosoft.carina.core.foundation.crypto;
 import java.io.File;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -27,6 +29,9 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.FileUtils;
 
 public class SecretKeyManager {
+    // key type and absolute key file path -> loaded key
+    private static final ConcurrentMap<String, SecretKey> keys = new ConcurrentHashMap<String, SecretKey>();
+
     public static SecretKey generateKey(String keyType, int size) throws NoSuchAlgorithmException {
         // LOGGER.debug("generating key use algorithm: '" + keyType + "'; size: " + size);
         KeyGenerator keyGenerator = KeyGenerator.getInstance(keyType);
@@ -38,6 +43,8 @@ public class SecretKeyManager {
     public static void saveKey(SecretKey key, File file) throws IOException {
         byte[] encoded = key.getEncoded();
         FileUtils.writeByteArrayToFile(file, Base64.encodeBase64(encoded));
+        // forget previously loaded key from the same file
+        keys.keySet().removeIf(k -> k.endsWith(":" + file.getAbsolutePath()));
     }
 
     public static SecretKey loadKey(File file, String cryptoKeyType) throws IOException {
@@ -45,6 +52,27 @@ public class SecretKeyManager {
         return key;
     }
 
+    /**
+     * Load key from the file once and reuse it for subsequent calls with the same file and key type.
+     * 
+     * @param file
+     *            key file
+     * @param cryptoKeyType
+     *            key type
+     * @return SecretKey
+     * @throws IOException
+     *             if key file can't be read
+     */
+    public static SecretKey loadCachedKey(File file, String cryptoKeyType) throws IOException {
+        String cacheKey = cryptoKeyType + ":" + file.getAbsolutePath();
+        SecretKey key = keys.get(cacheKey);
+        if (key == null) {
+            key = loadKey(file, cryptoKeyType);
+            keys.put(cacheKey, key);
+        }
+        return key;
+    }
+
     public static SecretKey getKey(String keyAsString, String cryptoKeyType) {
         return new SecretKeySpec(Base64.decodeBase64(keyAsString), cryptoKeyType);
     }
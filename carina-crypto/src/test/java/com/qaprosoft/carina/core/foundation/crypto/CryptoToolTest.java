@@ -18,6 +18,12 @@ package com.qaprosoft.carina.core.foundation.crypto;
 import java.io.File;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import javax.crypto.SecretKey;
@@ -58,6 +64,17 @@ public class CryptoToolTest {
         Assert.assertEquals(SpecialKeywords.CRYPTO_KEY_TYPE, key.getAlgorithm());
     }
 
+    @Test(priority = 3)
+    public void testLoadCachedKey() throws NoSuchAlgorithmException, IOException {
+        File keyFile = new File(cryptoFileName);
+        SecretKey cachedKey = SecretKeyManager.loadCachedKey(keyFile, SpecialKeywords.CRYPTO_KEY_TYPE);
+        Assert.assertSame(SecretKeyManager.loadCachedKey(keyFile, SpecialKeywords.CRYPTO_KEY_TYPE), cachedKey);
+
+        // saving of the new key should reset loaded one
+        SecretKeyManager.saveKey(key, keyFile);
+        Assert.assertNotSame(SecretKeyManager.loadCachedKey(keyFile, SpecialKeywords.CRYPTO_KEY_TYPE), cachedKey);
+    }
+
     @Test(priority = 4)
     public void testInitializationFromKeyFile() {
         cryptoTool = new CryptoTool(cryptoFileName);
@@ -151,6 +168,49 @@ public class CryptoToolTest {
         Assert.assertEquals(input, decrypted);
     }
 
+    @Test(priority = 8)
+    public void testDecryptByPatternSinglePass() {
+        String first = cryptoTool.encrypt("first");
+        String second = cryptoTool.encrypt("second");
+        String content = String.format("user={crypt:%s}; password={crypt:%s}; user={crypt:%s}", first, second, first);
+
+        Assert.assertEquals(cryptoTool.decryptByPattern(content, CRYPTO_PATTERN), "user=first; password=second; user=first");
+        Assert.assertEquals(cryptoTool.decryptByPattern("no values", CRYPTO_PATTERN), "no values");
+    }
+
+    @Test(priority = 8)
+    public void testParallelEncryptDecrypt() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 200; i++) {
+                final String input = "value" + i;
+                results.add(executor.submit(() -> cryptoTool.decrypt(cryptoTool.encrypt(input))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(results.get(i).get(), "value" + i);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(priority = 8, expectedExceptions = UnsupportedOperationException.class)
+    public void testSharedToolIsNotReconfigured() {
+        CryptoTool shared = CryptoTool.getInstance(cryptoFileName);
+        Assert.assertSame(CryptoTool.getInstance(cryptoFileName), shared, "Tool is not shared");
+        shared.setAlgorithm("DES");
+    }
+
+    @Test(priority = 8)
+    public void testReconfiguration() {
+        CryptoTool tool = new CryptoTool(cryptoFileName);
+        String encrypted = tool.encrypt("EncryptMe");
+        tool.setAlgorithm(SpecialKeywords.CRYPTO_ALGORITHM);
+        Assert.assertEquals(tool.decrypt(encrypted), "EncryptMe");
+        Assert.assertEquals(tool.getCipher().getAlgorithm(), SpecialKeywords.CRYPTO_ALGORITHM);
+    }
+
     @AfterSuite
     public void cleanup() {
         File keyFile = new File(cryptoFileName);
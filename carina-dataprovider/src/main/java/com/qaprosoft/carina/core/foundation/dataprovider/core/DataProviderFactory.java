@@ -19,8 +19,9 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.log4j.Logger;
 import org.testng.ITestContext;
 import org.testng.ITestNGMethod;
@@ -38,6 +39,9 @@ public class DataProviderFactory {
 
     protected static final Logger LOGGER = Logger.getLogger(DataProviderFactory.class);
 
+    private static final Map<Class<? extends Annotation>, Optional<Method>> CLASS_NAME_METHODS = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<Constructor<?>>> PROVIDER_CONSTRUCTORS = new ConcurrentHashMap<>();
+
     private DataProviderFactory() {
     }
 
@@ -52,37 +56,16 @@ public class DataProviderFactory {
         Map<String, String> bugArgsMap = Collections.synchronizedMap(new HashMap<String, String>());
         List<String> doNotRunTests = Collections.synchronizedList(new ArrayList<>());
 
-        Object[][] provider = new Object[][] {};
+        List<Object[][]> providers = new ArrayList<Object[][]>(annotations.length);
+        int size = 0;
 
         for (Annotation annotation : annotations) {
             try {
-                Class<? extends Annotation> type = annotation.annotationType();
-
-                String providerClass = "";
-
-                for (Method method : type.getDeclaredMethods()) {
-                    if (method.getName().equalsIgnoreCase("classname")) {
-                        providerClass = (String) method.invoke(annotation);
-                        break;
-                    }
-                }
-
-                if (providerClass.isEmpty())
-                    continue;
-
-                Class<?> clazz;
-                Object object = null;
-                try {
-                    clazz = Class.forName(providerClass);
-                    Constructor<?> ctor = clazz.getConstructor();
-                    object = ctor.newInstance();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-
-                BaseDataProvider activeProvider = (BaseDataProvider) object;
-                if (object instanceof com.qaprosoft.carina.core.foundation.dataprovider.core.impl.BaseDataProvider) {
-                    provider = ArrayUtils.addAll(provider, activeProvider.getDataProvider(annotation, context, m));
+                BaseDataProvider activeProvider = createProvider(annotation);
+                if (activeProvider != null) {
+                    Object[][] rows = activeProvider.getDataProvider(annotation, context, m);
+                    providers.add(rows);
+                    size += rows.length;
                     testNameArgsMap.putAll(activeProvider.getTestNameArgsMap());
                     canonicalTestNameArgsMap.putAll(activeProvider.getCanonicalTestNameArgsMap());
                     testMethodNameArgsMap.putAll(activeProvider.getTestMethodNameArgsMap());
@@ -99,6 +82,13 @@ public class DataProviderFactory {
             }
         }
 
+        Object[][] provider = new Object[size][];
+        int position = 0;
+        for (Object[][] rows : providers) {
+            System.arraycopy(rows, 0, provider, position, rows.length);
+            position += rows.length;
+        }
+
         if (!GroupByMapper.getInstanceInt().isEmpty() || !GroupByMapper.getInstanceStrings().isEmpty()) {
             provider = getGroupedList(provider);
         }
@@ -120,6 +110,97 @@ public class DataProviderFactory {
         return provider;
     }
 
+    /**
+     * Lazy version of {@link #getDataProvider(Annotation[], ITestContext, ITestNGMethod)}. Rows are read from the data sources
+     * on demand, args maps of the test context are populated as soon as the row is returned by iterator.
+     * Grouped data providers are read at once as grouping requires all the rows.
+     * 
+     * @param annotations
+     *            test method annotations
+     * @param context
+     *            ITestContext
+     * @param m
+     *            ITestNGMethod
+     * @return Iterator of the data provider rows
+     */
+    public static Iterator<Object[]> getDataProviderIterator(Annotation[] annotations, ITestContext context, ITestNGMethod m) {
+        context.setAttribute(SpecialKeywords.TEST_NAME_ARGS_MAP, Collections.synchronizedMap(new HashMap<String, String>()));
+        context.setAttribute(SpecialKeywords.CANONICAL_TEST_NAME_ARGS_MAP, Collections.synchronizedMap(new HashMap<String, String>()));
+        context.setAttribute(SpecialKeywords.TEST_METHOD_NAME_ARGS_MAP, Collections.synchronizedMap(new HashMap<String, String>()));
+        context.setAttribute(SpecialKeywords.TEST_METHOD_OWNER_ARGS_MAP, Collections.synchronizedMap(new HashMap<String, String>()));
+        context.setAttribute(SpecialKeywords.JIRA_ARGS_MAP, Collections.synchronizedMap(new HashMap<String, String>()));
+        context.setAttribute(SpecialKeywords.TESTRAIL_ARGS_MAP, Collections.synchronizedMap(new HashMap<String, String>()));
+        context.setAttribute(SpecialKeywords.BUG_ARGS_MAP, Collections.synchronizedMap(new HashMap<String, String>()));
+        List<String> doNotRunTests = Collections.synchronizedList(new ArrayList<>());
+        context.setAttribute(SpecialKeywords.DO_NOT_RUN_TESTS, doNotRunTests);
+
+        List<Iterator<Object[]>> providers = new ArrayList<Iterator<Object[]>>();
+        for (Annotation annotation : annotations) {
+            try {
+                BaseDataProvider activeProvider = createProvider(annotation);
+                if (activeProvider != null) {
+                    activeProvider.shareArgsMaps(context);
+                    providers.add(activeProvider.getDataProviderIterator(annotation, context, m));
+                    doNotRunTests.addAll(activeProvider.getDoNotRunRowsIDs());
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                // do nothing
+            }
+        }
+
+        Iterator<Object[]> provider = new ChainedIterator(providers.iterator());
+        if (!GroupByMapper.getInstanceInt().isEmpty() || !GroupByMapper.getInstanceStrings().isEmpty()) {
+            List<Object[]> rows = new ArrayList<Object[]>();
+            while (provider.hasNext()) {
+                rows.add(provider.next());
+            }
+            provider = Arrays.asList(getGroupedList(rows.toArray(new Object[rows.size()][]))).iterator();
+        }
+
+        // clear group by settings
+        GroupByMapper.getInstanceInt().clear();
+        GroupByMapper.getInstanceStrings().clear();
+
+        return provider;
+    }
+
+    private static BaseDataProvider createProvider(Annotation annotation) throws ReflectiveOperationException {
+        Optional<Method> classNameMethod = CLASS_NAME_METHODS.computeIfAbsent(annotation.annotationType(), type -> {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.getName().equalsIgnoreCase("classname")) {
+                    return Optional.of(method);
+                }
+            }
+            return Optional.empty();
+        });
+
+        if (!classNameMethod.isPresent())
+            return null;
+
+        String providerClass = (String) classNameMethod.get().invoke(annotation);
+        if (providerClass.isEmpty())
+            return null;
+
+        Optional<Constructor<?>> ctor = PROVIDER_CONSTRUCTORS.computeIfAbsent(providerClass, name -> {
+            try {
+                Class<?> clazz = Class.forName(name);
+                if (BaseDataProvider.class.isAssignableFrom(clazz)) {
+                    return Optional.of(clazz.getConstructor());
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            return Optional.empty();
+        });
+
+        if (!ctor.isPresent())
+            return null;
+
+        // providers keep state of the single data source so new instance is created every time
+        return (BaseDataProvider) ctor.get().newInstance();
+    }
+
     private static Object[][] getGroupedList(Object[][] provider) {
         Object[][] finalProvider;
         if (GroupByMapper.isHashMapped()) {
@@ -140,22 +221,121 @@ public class DataProviderFactory {
         return finalProvider;
     }
 
-    @SuppressWarnings("unchecked")
     public static Object[][] getNeedRerunDataProvider(Annotation[] annotations, ITestContext context, ITestNGMethod m) {
         Object[][] dp = getDataProvider(annotations, context, m);
+        Predicate<Object[]> filter = getRerunFilter(context);
+        if (filter == null) {
+            return dp;
+        }
+        List<Object[]> rows = new ArrayList<Object[]>(dp.length);
+        for (Object[] row : dp) {
+            if (filter.test(row)) {
+                rows.add(row);
+            }
+        }
+        return rows.toArray(new Object[rows.size()][]);
+    }
+
+    /**
+     * Lazy version of {@link #getNeedRerunDataProvider(Annotation[], ITestContext, ITestNGMethod)}.
+     * 
+     * @param annotations
+     *            test method annotations
+     * @param context
+     *            ITestContext
+     * @param m
+     *            ITestNGMethod
+     * @return Iterator of the data provider rows which should be executed
+     */
+    public static Iterator<Object[]> getNeedRerunDataProviderIterator(Annotation[] annotations, ITestContext context, ITestNGMethod m) {
+        Iterator<Object[]> dp = getDataProviderIterator(annotations, context, m);
+        Predicate<Object[]> filter = getRerunFilter(context);
+        return filter == null ? dp : new FilteringIterator(dp, filter);
+    }
+
+    /**
+     * Creates filter of the rows which should be executed. Rows are matched to the test names by the hash of their
+     * arguments, the same way as they are registered in the canonical test name args map.
+     * 
+     * @param context
+     *            ITestContext with populated args maps
+     * @return filter or null if all the rows should be executed
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object[]> getRerunFilter(ITestContext context) {
         List<String> doNotRunRowIDs = (List<String>) context.getAttribute(SpecialKeywords.DO_NOT_RUN_TESTS);
+        if (doNotRunRowIDs.isEmpty()) {
+            return null;
+        }
+        Set<String> doNotRunTests = new HashSet<String>(doNotRunRowIDs);
         Map<String, String> testNameArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.CANONICAL_TEST_NAME_ARGS_MAP);
-        if (!doNotRunRowIDs.isEmpty()) {
-            for (int i = dp.length - 1; i >= 0; i--) {
-                String testUniqueName = testNameArgsMap.get(testNameArgsMap.keySet().toArray()[i]);
-                if (testUniqueName != null) {
-                    if (doNotRunRowIDs.contains(testUniqueName)) {
-                        dp = ArrayUtils.remove(dp, i);
-                    }
+        return row -> {
+            String testUniqueName = testNameArgsMap.get(String.valueOf(Arrays.hashCode(row)));
+            return testUniqueName == null || !doNotRunTests.contains(testUniqueName);
+        };
+    }
+
+    /**
+     * Iterates over the rows of several data providers one by one.
+     */
+    private static class ChainedIterator implements Iterator<Object[]> {
+        private final Iterator<Iterator<Object[]>> providers;
+        private Iterator<Object[]> current = Collections.emptyIterator();
+
+        private ChainedIterator(Iterator<Iterator<Object[]>> providers) {
+            this.providers = providers;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && providers.hasNext()) {
+                current = providers.next();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+
+    /**
+     * Skips the rows which don't satisfy the filter.
+     */
+    private static class FilteringIterator implements Iterator<Object[]> {
+        private final Iterator<Object[]> rows;
+        private final Predicate<Object[]> filter;
+        private Object[] next;
+
+        private FilteringIterator(Iterator<Object[]> rows, Predicate<Object[]> filter) {
+            this.rows = rows;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && rows.hasNext()) {
+                Object[] row = rows.next();
+                if (filter.test(row)) {
+                    next = row;
                 }
             }
+            return next != null;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object[] row = next;
+            next = null;
+            return row;
         }
-        return dp;
     }
 
 }
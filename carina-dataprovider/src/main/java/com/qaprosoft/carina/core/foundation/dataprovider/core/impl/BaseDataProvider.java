@@ -16,14 +16,17 @@
 package com.qaprosoft.carina.core.foundation.dataprovider.core.impl;
 
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.testng.ITestContext;
 import org.testng.ITestNGMethod;
 
+import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
 import com.qaprosoft.carina.core.foundation.dataprovider.parser.DSBean;
 import com.qaprosoft.carina.core.foundation.utils.ParameterGenerator;
 
@@ -50,6 +53,39 @@ public abstract class BaseDataProvider {
 
     public abstract Object[][] getDataProvider(Annotation annotation, ITestContext context, ITestNGMethod testMethod);
 
+    /**
+     * Lazy version of {@link #getDataProvider(Annotation, ITestContext, ITestNGMethod)}: args maps are populated as soon as the row
+     * is returned by iterator. Default implementation reads the whole data provider at once.
+     * 
+     * @param annotation
+     *            data source annotation
+     * @param context
+     *            ITestContext
+     * @param testMethod
+     *            ITestNGMethod
+     * @return Iterator of the data provider rows
+     */
+    public Iterator<Object[]> getDataProviderIterator(Annotation annotation, ITestContext context, ITestNGMethod testMethod) {
+        return Arrays.asList(getDataProvider(annotation, context, testMethod)).iterator();
+    }
+
+    /**
+     * Populate args maps of the test context directly instead of own ones, so rows generated lazily are visible for listeners.
+     * 
+     * @param context
+     *            ITestContext with args maps registered by DataProviderFactory
+     */
+    @SuppressWarnings("unchecked")
+    public void shareArgsMaps(ITestContext context) {
+        testNameArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.TEST_NAME_ARGS_MAP);
+        canonicalTestNameArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.CANONICAL_TEST_NAME_ARGS_MAP);
+        testMethodNameArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.TEST_METHOD_NAME_ARGS_MAP);
+        testMethodOwnerArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.TEST_METHOD_OWNER_ARGS_MAP);
+        jiraArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.JIRA_ARGS_MAP);
+        testRailsArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.TESTRAIL_ARGS_MAP);
+        bugArgsMap = (Map<String, String>) context.getAttribute(SpecialKeywords.BUG_ARGS_MAP);
+    }
+
     protected static Object getStaticParam(String name, ITestContext context, DSBean dsBean) {
         return ParameterGenerator.process(dsBean
                 .getTestParams().get(name));
@@ -18,7 +18,13 @@ package com.qaprosoft.carina.core.foundation.dataprovider.core.impl;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.apache.log4j.Logger;
 import org.testng.ITestContext;
@@ -48,9 +54,22 @@ public class CsvDataProvider extends BaseDataProvider {
     private String testMethodOwnerColumn;
     private String bugColumn;
 
-    @SuppressWarnings("unchecked")
     @Override
     public Object[][] getDataProvider(Annotation annotation, ITestContext context, ITestNGMethod testMethod) {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        Iterator<Object[]> iterator = getDataProviderIterator(annotation, context, testMethod);
+        while (iterator.hasNext()) {
+            rows.add(iterator.next());
+        }
+        return rows.toArray(new Object[rows.size()][]);
+    }
+
+    /**
+     * Read CSV data source line by line. Only the next line which satisfies executeColumn/executeValue filter is kept in memory,
+     * parameters are generated and args maps are populated as soon as the row is returned.
+     */
+    @Override
+    public Iterator<Object[]> getDataProviderIterator(Annotation annotation, ITestContext context, ITestNGMethod testMethod) {
         CsvDataSourceParameters parameters = (CsvDataSourceParameters) annotation;
         doNotRunTestNames = Arrays.asList(parameters.doNotRunTestNames());
 
@@ -86,116 +105,33 @@ public class CsvDataProvider extends BaseDataProvider {
         if (parameters.dsArgs().isEmpty()) {
             GroupByMapper.setIsHashMapped(true);
         }
-        CSVReader reader;
-        List<String[]> list = new ArrayList<String[]>();
 
+        CSVReader reader = null;
+        String[] headerLine = null;
         try {
             String csvFile = ClassLoader.getSystemResource(dsBean.getDsFile()).getFile();
             reader = new CSVReader(new FileReader(csvFile), separator, quote);
-            list = reader.readAll();
+            headerLine = reader.readNext();
         } catch (IOException e) {
             LOGGER.error("Unable to read data from CSV DataProvider", e.getCause());
             e.printStackTrace();
         }
 
-        if (list.size() == 0) {
+        if (headerLine == null) {
+            close(reader);
             throw new RuntimeException("Unable to retrieve data from CSV DataProvider! Verify separator and quote settings.");
         }
-        List<String> headers = Arrays.asList((String[]) list.get(0));
+        List<String> headers = Arrays.asList(headerLine);
 
         // handle empty argsList inside initMapper
-        mapper = initMapper(argsList, headers);
-        list.remove(0);
-
-        // exclude those lines which don't satisfy executeColumn/executeValue filter
-        Iterator<String[]> iter = list.iterator();
-        while (iter.hasNext()) {
-            int index = mapper.get(executeColumn);
-
-            String[] line = iter.next();
-            if (!line[index].equalsIgnoreCase(executeValue)) {
-                iter.remove();
-            }
-        }
-
-        int listSize = list.size();
-
-        int width = 0;
-        if (argsList.size() == 0) {
-            // first element is dynamic HashMap<String, String>
-            width = staticArgsList.size() + 1;
-        } else {
-            width = argsList.size() + staticArgsList.size();
-        }
-
-        Object[][] args = new Object[listSize][width];
-        int rowIndex = 0;
-        for (String[] strings : list) {
-            String testName = context.getName();
-
-            int i = 0;
-            if (argsList.size() == 0) {
-                // read all csv data into the single HashMap<String, String> object
-                HashMap<String, String> dynamicAttrs = new HashMap<String, String>();
-
-                for (String header : headers) {
-                    int index = mapper.get(header);
-                    if (ParameterGenerator.process(strings[index]) != null) {
-                        dynamicAttrs.put(header, ParameterGenerator.process(strings[index]).toString());
-                    } else {
-                        dynamicAttrs.put(header, null);
-                    }
-
-                    args[rowIndex][0] = dynamicAttrs;
-                }
-
-                i++;
-            } else {
-                for (String arg : argsList) {
-                    int index = mapper.get(arg);
-                    if (ParameterGenerator.process(strings[index]) != null) {
-                        args[rowIndex][i] = ParameterGenerator.process(strings[index]).toString();
-                    } else {
-                        args[rowIndex][i] = null;
-                    }
-                    i++;
-                }
-            }
-
-            for (int j = 0; j < staticArgsList.size(); j++) {
-                args[rowIndex][i + j] = getStaticParam(staticArgsList.get(j), context, dsBean);
-            }
-
-            // update testName adding UID values from DataSource arguments if any
-            testName = dsBean.setDataSorceUUID(testName, strings, mapper); // provide whole line from data provider for UUID generation
-
-            HashMap<String, String> csvRow = (HashMap<String, String>) args[rowIndex][0];
-
-            canonicalTestNameArgsMap.put(String.valueOf(Arrays.hashCode(args[rowIndex])), TestNamingUtil.appendTestMethodName(testName, testMethod));
-            if (testMethodColumn.isEmpty()) {
-                testNameArgsMap.put(String.valueOf(Arrays.hashCode(args[rowIndex])), testName); // provide organized args to generate valid hash
-            } else {
-                // add testName value from csv datasource to special hashMap
-                addValueToSpecialMap(testNameArgsMap, testMethodColumn, String.valueOf(Arrays.hashCode(args[rowIndex])), csvRow);
-                addValueToSpecialMap(testMethodNameArgsMap, testMethodColumn, String.valueOf(Arrays.hashCode(args[rowIndex])), csvRow);
-            }
-
-            // add testMethoOwner from xls datasource to special hashMap
-            addValueToSpecialMap(testMethodOwnerArgsMap, testMethodOwnerColumn, String.valueOf(Arrays.hashCode(args[rowIndex])), csvRow);
-
-            // add jira ticket from xls datasource to special hashMap
-            addValueToSpecialMap(jiraArgsMap, jiraColumn, String.valueOf(Arrays.hashCode(args[rowIndex])), csvRow);
-
-            // add bug id from csv datasource to special hashMap
-            addValueToSpecialMap(bugArgsMap, bugColumn, String.valueOf(Arrays.hashCode(args[rowIndex])), csvRow);
-
-            // add testrails cases from xls datasource to special hashMap
-            addValueToSpecialMap(testRailsArgsMap, testRailColumn, String.valueOf(Arrays.hashCode(args[rowIndex])), csvRow);
-
-            rowIndex++;
+        try {
+            mapper = initMapper(argsList, headers);
+        } catch (RuntimeException e) {
+            close(reader);
+            throw e;
         }
 
-        return args;
+        return new CsvRowIterator(reader, headers, argsList, staticArgsList, dsBean, context, testMethod);
     }
 
     /*
@@ -243,16 +179,151 @@ public class CsvDataProvider extends BaseDataProvider {
         return index;
     }
 
-    private void addValueToSpecialMap(Map<String, String> map, String column, String hashCode, Map<String, String> csvRow) {
-        if (column != null) {
-            if (!column.isEmpty()) {
-                if (csvRow.get(column) != null) {
-                    if (!csvRow.get(column).isEmpty()) {
-                        // put into the args only non empty jira tickets
-                        map.put(hashCode, csvRow.get(column));
-                    }
+    private void addValueToSpecialMap(Map<String, String> map, String column, String hashCode, String[] line, Map<String, String> csvRow) {
+        if (column != null && !column.isEmpty()) {
+            // reuse already generated value if the whole line is read into the dynamic attributes
+            String value = csvRow != null ? csvRow.get(column) : process(line[mapper.get(column)]);
+            if (value != null && !value.isEmpty()) {
+                // put into the args only non empty values like jira tickets
+                map.put(hashCode, value);
+            }
+        }
+    }
+
+    private static String process(String value) {
+        Object param = ParameterGenerator.process(value);
+        return param != null ? param.toString() : null;
+    }
+
+    private static void close(CSVReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close CSV DataProvider", e);
+            }
+        }
+    }
+
+    /**
+     * Lazy iterator over the CSV lines with read-ahead of the single line.
+     */
+    private class CsvRowIterator implements Iterator<Object[]> {
+        private final CSVReader reader;
+        private final List<String> headers;
+        private final List<String> argsList;
+        private final List<String> staticArgsList;
+        private final DSBean dsBean;
+        private final ITestContext context;
+        private final ITestNGMethod testMethod;
+        private final int executeIndex;
+        private final int width;
+
+        private String[] nextLine;
+        private boolean finished = false;
+
+        private CsvRowIterator(CSVReader reader, List<String> headers, List<String> argsList, List<String> staticArgsList, DSBean dsBean,
+                ITestContext context, ITestNGMethod testMethod) {
+            this.reader = reader;
+            this.headers = headers;
+            this.argsList = argsList;
+            this.staticArgsList = staticArgsList;
+            this.dsBean = dsBean;
+            this.context = context;
+            this.testMethod = testMethod;
+            this.executeIndex = mapper.get(executeColumn);
+            if (argsList.size() == 0) {
+                // first element is dynamic HashMap<String, String>
+                this.width = staticArgsList.size() + 1;
+            } else {
+                this.width = argsList.size() + staticArgsList.size();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextLine == null && !finished) {
+                String[] line;
+                try {
+                    line = reader.readNext();
+                } catch (IOException e) {
+                    finished = true;
+                    close(reader);
+                    throw new RuntimeException("Unable to read data from CSV DataProvider!", e);
+                }
+                if (line == null) {
+                    finished = true;
+                    close(reader);
+                } else if (line[executeIndex].equalsIgnoreCase(executeValue)) {
+                    // exclude those lines which don't satisfy executeColumn/executeValue filter
+                    nextLine = line;
                 }
             }
+            return nextLine != null;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String[] line = nextLine;
+            nextLine = null;
+            return createRow(line);
+        }
+
+        private Object[] createRow(String[] line) {
+            Object[] row = new Object[width];
+
+            int i = 0;
+            HashMap<String, String> csvRow = null;
+            if (argsList.size() == 0) {
+                // read all csv data into the single HashMap<String, String> object
+                csvRow = new HashMap<String, String>();
+                for (String header : headers) {
+                    csvRow.put(header, process(line[mapper.get(header)]));
+                }
+                row[0] = csvRow;
+                i++;
+            } else {
+                for (String arg : argsList) {
+                    row[i] = process(line[mapper.get(arg)]);
+                    i++;
+                }
+            }
+
+            for (int j = 0; j < staticArgsList.size(); j++) {
+                row[i + j] = getStaticParam(staticArgsList.get(j), context, dsBean);
+            }
+
+            // update testName adding UID values from DataSource arguments if any
+            String testName = dsBean.setDataSorceUUID(context.getName(), line, mapper); // provide whole line from data provider for UUID generation
+
+            // provide organized args to generate valid hash
+            String hashCode = String.valueOf(Arrays.hashCode(row));
+
+            canonicalTestNameArgsMap.put(hashCode, TestNamingUtil.appendTestMethodName(testName, testMethod));
+            if (testMethodColumn.isEmpty()) {
+                testNameArgsMap.put(hashCode, testName);
+            } else {
+                // add testName value from csv datasource to special hashMap
+                addValueToSpecialMap(testNameArgsMap, testMethodColumn, hashCode, line, csvRow);
+                addValueToSpecialMap(testMethodNameArgsMap, testMethodColumn, hashCode, line, csvRow);
+            }
+
+            // add testMethoOwner from csv datasource to special hashMap
+            addValueToSpecialMap(testMethodOwnerArgsMap, testMethodOwnerColumn, hashCode, line, csvRow);
+
+            // add jira ticket from csv datasource to special hashMap
+            addValueToSpecialMap(jiraArgsMap, jiraColumn, hashCode, line, csvRow);
+
+            // add bug id from csv datasource to special hashMap
+            addValueToSpecialMap(bugArgsMap, bugColumn, hashCode, line, csvRow);
+
+            // add testrails cases from csv datasource to special hashMap
+            addValueToSpecialMap(testRailsArgsMap, testRailColumn, hashCode, line, csvRow);
+
+            return row;
         }
     }
 
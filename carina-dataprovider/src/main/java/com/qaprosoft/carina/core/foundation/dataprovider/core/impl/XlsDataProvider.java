@@ -28,6 +28,8 @@ import com.qaprosoft.carina.core.foundation.dataprovider.core.groupping.GroupByM
 import com.qaprosoft.carina.core.foundation.dataprovider.parser.DSBean;
 import com.qaprosoft.carina.core.foundation.dataprovider.parser.XLSParser;
 import com.qaprosoft.carina.core.foundation.dataprovider.parser.XLSTable;
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
 import com.qaprosoft.carina.core.foundation.utils.ParameterGenerator;
 import com.qaprosoft.carina.core.foundation.utils.naming.TestNamingUtil;
 
@@ -45,8 +47,15 @@ public class XlsDataProvider extends BaseDataProvider {
         DSBean dsBean = new DSBean(parameters, context
                 .getCurrentXmlTest().getAllParameters());
 
-        XLSTable dsData = XLSParser.parseSpreadSheet(dsBean.getDsFile(),
-                dsBean.getXlsSheet(), dsBean.getExecuteColumn(), dsBean.getExecuteValue());
+        XLSTable dsData;
+        if (Configuration.getBoolean(Parameter.XLS_STREAMING)) {
+            // rows are iterated only once here so there is no need to keep whole workbook in memory
+            dsData = XLSParser.streamSpreadSheet(dsBean.getDsFile(),
+                    dsBean.getXlsSheet(), dsBean.getExecuteColumn(), dsBean.getExecuteValue());
+        } else {
+            dsData = XLSParser.parseSpreadSheet(dsBean.getDsFile(),
+                    dsBean.getXlsSheet(), dsBean.getExecuteColumn(), dsBean.getExecuteValue());
+        }
 
         argsList = dsBean.getArgs();
         staticArgsList = dsBean.getStaticArgs();
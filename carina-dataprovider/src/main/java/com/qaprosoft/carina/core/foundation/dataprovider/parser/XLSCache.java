@@ -15,42 +15,251 @@
  *******************************************************************************/
 package com.qaprosoft.carina.core.foundation.dataprovider.parser;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.net.URL;
+import java.net.URLConnection;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.log4j.Logger;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+
+/**
+ * Workbook cache bounded by the estimated heap footprint of loaded workbooks.
+ * Entries are keyed by canonical path, reloaded when the underlying file is modified and evicted in least recently used
+ * order once the total size exceeds {@link Parameter#XLS_CACHE_SIZE} megabytes. Workbooks acquired by
+ * {@link #acquireWorkbook(String)} are not evicted until they are released.
+ */
 public class XLSCache {
-    private static Map<String, Workbook> xlsCache = new HashMap<String, Workbook>();
+    private static final Logger LOGGER = Logger.getLogger(XLSCache.class);
+
+    private static final long DEFAULT_CACHE_SIZE_MB = 256;
+
+    // DOM representation of a workbook takes several times more heap than the file itself (xlsx is also zipped)
+    private static final int XLS_EXPANSION_FACTOR = 4;
+    private static final int XLSX_EXPANSION_FACTOR = 12;
+
+    private static final Map<String, CachedWorkbook> xlsCache = new ConcurrentHashMap<String, CachedWorkbook>();
+    private static final Map<String, Source> sources = new ConcurrentHashMap<String, Source>();
+    private static final Map<Workbook, String> xlsPaths = new ConcurrentHashMap<Workbook, String>();
+    private static final Map<Workbook, AtomicInteger> inUse = new ConcurrentHashMap<Workbook, AtomicInteger>();
+
+    private static final AtomicLong accessCounter = new AtomicLong();
+    private static final AtomicLong cachedBytes = new AtomicLong();
+
+    public static Workbook getWorkbook(String xlsPath) {
+        return getWorkbook(xlsPath, false);
+    }
+
+    /**
+     * Returns cached workbook and protects it from eviction until {@link #releaseWorkbook(Workbook)} is called, e.g.
+     * while linked workbooks are loaded during parsing.
+     *
+     * @param xlsPath classpath resource or file system path
+     * @return workbook
+     */
+    public static Workbook acquireWorkbook(String xlsPath) {
+        return getWorkbook(xlsPath, true);
+    }
 
-    public static synchronized Workbook getWorkbook(String xlsPath) {
-        if (!xlsCache.keySet().contains(xlsPath)) {
-            Workbook wb;
+    public static void releaseWorkbook(Workbook book) {
+        inUse.computeIfPresent(book, (key, users) -> users.decrementAndGet() > 0 ? users : null);
+    }
+
+    private static Workbook getWorkbook(String xlsPath, boolean acquire) {
+        Source source = resolve(xlsPath);
+        long lastModified = source.lastModified();
+        CachedWorkbook cached = xlsCache.compute(source.key, (key, current) -> {
+            if (current != null && current.lastModified == lastModified) {
+                return current;
+            }
+            if (current != null) {
+                LOGGER.debug("Reloading modified workbook: " + xlsPath);
+                release(current);
+            }
+            CachedWorkbook loaded = load(xlsPath, source, lastModified);
+            cachedBytes.addAndGet(loaded.size);
+            xlsPaths.put(loaded.workbook, xlsPath);
+            return loaded;
+        });
+        cached.lastAccess = accessCounter.incrementAndGet();
+        if (acquire) {
+            inUse.computeIfAbsent(cached.workbook, key -> new AtomicInteger()).incrementAndGet();
+        }
+        evict(cached);
+        return cached.workbook;
+    }
+
+    public static String getWorkbookPath(Workbook book) {
+        return xlsPaths.get(book);
+    }
+
+    /**
+     * Opens a stream to the workbook file without caching anything, e.g. for single-pass event based parsing.
+     *
+     * @param xlsPath classpath resource or file system path
+     * @return workbook input stream
+     * @throws IOException if workbook can't be opened
+     */
+    public static InputStream openStream(String xlsPath) throws IOException {
+        return resolve(xlsPath).openStream();
+    }
+
+    /**
+     * Returns workbook file if it is located on the file system.
+     *
+     * @param xlsPath classpath resource or file system path
+     * @return file or null for resources packed into jars
+     */
+    public static File getFile(String xlsPath) {
+        return resolve(xlsPath).file;
+    }
+
+    public static boolean isCached(String xlsPath) {
+        CachedWorkbook cached = xlsCache.get(resolve(xlsPath).key);
+        return cached != null;
+    }
+
+    public static long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
+    public static void clear() {
+        for (String key : xlsCache.keySet()) {
+            CachedWorkbook removed = xlsCache.remove(key);
+            if (removed != null) {
+                release(removed);
+            }
+        }
+    }
+
+    private static CachedWorkbook load(String xlsPath, Source source, long lastModified) {
+        Workbook wb;
+        try {
+            InputStream is = source.openStream();
             try {
-                InputStream is = ClassLoader.getSystemResourceAsStream(xlsPath);
-                try {
-                    wb = WorkbookFactory.create(is);
-                } finally {
-                    if (is != null) {
-                        is.close();
-                    }
+                wb = WorkbookFactory.create(is);
+            } finally {
+                is.close();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Can't read xls: " + xlsPath, e);
+        }
+        int factor = xlsPath.toLowerCase().endsWith(".xlsx") ? XLSX_EXPANSION_FACTOR : XLS_EXPANSION_FACTOR;
+        return new CachedWorkbook(wb, lastModified, Math.max(source.length(), 0) * factor);
+    }
+
+    private static void release(CachedWorkbook cached) {
+        cachedBytes.addAndGet(-cached.size);
+        xlsPaths.remove(cached.workbook);
+    }
+
+    private static void evict(CachedWorkbook recent) {
+        long limit = NumberUtils.toLong(Configuration.get(Parameter.XLS_CACHE_SIZE), DEFAULT_CACHE_SIZE_MB) * 1024 * 1024;
+        while (cachedBytes.get() > limit) {
+            // workbooks are few and eviction is rare so the oldest entry is simply looked up
+            Map.Entry<String, CachedWorkbook> eldest = null;
+            for (Map.Entry<String, CachedWorkbook> entry : xlsCache.entrySet()) {
+                if (entry.getValue() != recent && !inUse.containsKey(entry.getValue().workbook) && (eldest == null || entry.getValue().lastAccess < eldest.getValue().lastAccess)) {
+                    eldest = entry;
                 }
-            } catch (Exception e) {
+            }
+            if (eldest == null) {
+                // never evict just requested or acquired workbooks even if they don't fit into the limit
+                return;
+            }
+            if (xlsCache.remove(eldest.getKey(), eldest.getValue())) {
+                LOGGER.debug("Evicting workbook from cache: " + xlsPaths.get(eldest.getValue().workbook));
+                release(eldest.getValue());
+            }
+        }
+    }
+
+    private static Source resolve(String xlsPath) {
+        return sources.computeIfAbsent(xlsPath, XLSCache::locate);
+    }
+
+    private static Source locate(String xlsPath) {
+        URL url = ClassLoader.getSystemResource(xlsPath);
+        File file = null;
+        if (url == null) {
+            file = new File(xlsPath);
+            if (!file.exists()) {
                 throw new RuntimeException("Can't read xls: " + xlsPath);
             }
-            xlsCache.put(xlsPath, wb);
+        } else if ("file".equals(url.getProtocol())) {
+            try {
+                file = new File(url.toURI());
+            } catch (Exception e) {
+                file = new File(url.getPath());
+            }
+        }
+
+        if (file != null) {
+            try {
+                return new Source(file.getCanonicalPath(), file, null);
+            } catch (IOException e) {
+                return new Source(file.getAbsolutePath(), file, null);
+            }
+        }
+        return new Source(url.toExternalForm(), null, url);
+    }
+
+    private static class Source {
+        private final String key;
+        private final File file;
+        private final URL url;
+
+        Source(String key, File file, URL url) {
+            this.key = key;
+            this.file = file;
+            this.url = url;
+        }
+
+        long lastModified() {
+            // resources packed into jars can't be changed while JVM is running
+            return file != null ? file.lastModified() : 0;
+        }
+
+        long length() {
+            if (file != null) {
+                return file.length();
+            }
+            try {
+                URLConnection connection = url.openConnection();
+                connection.setUseCaches(false);
+                return connection.getContentLengthLong();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to detect size of " + url, e);
+                return -1;
+            }
+        }
+
+        InputStream openStream() throws IOException {
+            return file != null ? new FileInputStream(file) : url.openStream();
         }
-        return xlsCache.get(xlsPath);
     }
 
-    public static synchronized String getWorkbookPath(Workbook book) {
-        for (Entry<String, Workbook> entry : xlsCache.entrySet()) {
-            if (entry.getValue() == book)
-                return entry.getKey();
+    private static class CachedWorkbook {
+        private final Workbook workbook;
+        private final long lastModified;
+        private final long size;
+        private volatile long lastAccess;
+
+        CachedWorkbook(Workbook workbook, long lastModified, long size) {
+            this.workbook = workbook;
+            this.lastModified = lastModified;
+            this.size = size;
         }
-        return null;
     }
 }
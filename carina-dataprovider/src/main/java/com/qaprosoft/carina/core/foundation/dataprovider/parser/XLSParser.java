@@ -16,50 +16,66 @@
 package com.qaprosoft.carina.core.foundation.dataprovider.parser;
 
 import java.io.File;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
 import org.apache.poi.xssf.model.ExternalLinksTable;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import com.qaprosoft.carina.core.foundation.exception.DataLoadingException;
 import com.qaprosoft.carina.core.foundation.exception.InvalidArgsException;
 
 public class XLSParser {
     protected static final Logger LOGGER = Logger.getLogger(XLSParser.class);
-    private static DataFormatter df;
-    private static FormulaEvaluator evaluator;
 
-    static {
-        df = new DataFormatter();
-    }
+    // neither DataFormatter nor FormulaEvaluator is thread safe so every thread uses its own instances
+    private static final ThreadLocal<DataFormatter> df = ThreadLocal.withInitial(DataFormatter::new);
+    private static final ThreadLocal<WorkbookEvaluator> evaluator = new ThreadLocal<WorkbookEvaluator>();
+
+    private static final Map<Sheet, SheetIndex> indexes = Collections.synchronizedMap(new WeakHashMap<Sheet, SheetIndex>());
 
     public static String parseValue(String locatorKey, String xlsPath, Locale locale) {
         String value = null;
 
         Workbook wb = XLSCache.getWorkbook(xlsPath);
         Sheet sheet = wb.getSheetAt(0);
+        SheetIndex index = getIndex(sheet);
 
-        List<String> locales = getLocales(sheet);
-        if (!locales.contains(locale.getCountry())) {
+        Integer cellN = index.columns.get(locale.getCountry());
+        if (cellN == null) {
             throw new RuntimeException("Can't find locale '" + locale.getCountry() + "' in xls '" + xlsPath + "'!");
         }
-        int cellN = locales.indexOf(locale.getCountry()) + 1;
 
-        List<String> locatorKeys = getLocatorKeys(sheet);
-        if (!locatorKeys.contains(locatorKey)) {
+        Integer rowN = index.rows.get(locatorKey);
+        if (rowN == null) {
             throw new RuntimeException("Can't find locatorKey '" + locatorKey + "' in xls '" + xlsPath + "'!");
         }
-        int rowN = locatorKeys.indexOf(locatorKey) + 1;
 
         try {
-            value = getCellValue(sheet.getRow(rowN).getCell(cellN));
+            value = index.getValue(sheet, rowN, cellN);
         } catch (Exception e) {
             throw new RuntimeException("Can't find value for locatorKey '" + locatorKey + "' with locale '" + locale.getCountry()
                     + "' in xls '" + xlsPath + "'!");
@@ -68,48 +84,31 @@ public class XLSParser {
         return value;
     }
 
-    private static List<String> getLocales(Sheet sheet) {
-        List<String> locales = new ArrayList<String>();
-        int lastCell = sheet.getRow(0).getLastCellNum();
-        for (int i = 1; i < lastCell; i++) {
-            locales.add(getCellValue(sheet.getRow(0).getCell(i)));
-        }
-        return locales;
-    }
-
-    private static List<String> getLocatorKeys(Sheet sheet) {
-        List<String> locatorKeys = new ArrayList<String>();
-        int lastRow = sheet.getLastRowNum();
-        for (int i = 1; i <= lastRow; i++) {
-            locatorKeys.add(getCellValue(sheet.getRow(i).getCell(0)));
-        }
-        return locatorKeys;
-    }
-
     public static String parseValue(String xls, String sheetName, String key) {
-        String value = null;
-
         Workbook wb = XLSCache.getWorkbook(xls);
 
         Sheet sheet = wb.getSheet(sheetName);
         if (sheet == null) {
             throw new InvalidArgsException(String.format("No sheet: '%s' in excel file: '%s'!", sheetName, xls));
         }
+        SheetIndex index = getIndex(sheet);
 
-        boolean isKeyFound = false;
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            if (key.equals(getCellValue(sheet.getRow(i).getCell(0)))) {
-                value = getCellValue(sheet.getRow(i).getCell(1));
-                isKeyFound = true;
-                break;
-            }
-        }
-
-        if (!isKeyFound) {
+        Integer rowN = index.rows.get(key);
+        if (rowN == null) {
             throw new InvalidArgsException(String.format("No key: '%s' on sheet '%s' in excel file: '%s'!", key, sheetName, xls));
         }
 
-        return value;
+        return index.getValue(sheet, rowN, 1);
+    }
+
+    private static SheetIndex getIndex(Sheet sheet) {
+        SheetIndex index = indexes.get(sheet);
+        if (index == null) {
+            // concurrent threads may build the same index twice which is harmless as index is immutable
+            index = new SheetIndex(sheet);
+            indexes.put(sheet, index);
+        }
+        return index;
     }
 
     public static XLSTable parseSpreadSheet(String xls, String sheetName) {
@@ -124,26 +123,84 @@ public class XLSParser {
             dataTable = new XLSTable();
         }
 
-        Workbook wb = XLSCache.getWorkbook(xls);
-        evaluator = wb.getCreationHelper().createFormulaEvaluator();
+        // workbook mustn't be evicted while linked workbooks are loaded otherwise its path can't be resolved
+        Workbook wb = XLSCache.acquireWorkbook(xls);
+        try {
+            Sheet sheet = wb.getSheet(sheetName);
+            if (sheet == null) {
+                throw new InvalidArgsException(String.format("No sheet: '%s' in excel file: '%s'!", sheetName, xls));
+            }
 
-        Sheet sheet = wb.getSheet(sheetName);
-        if (sheet == null) {
-            throw new InvalidArgsException(String.format("No sheet: '%s' in excel file: '%s'!", sheetName, xls));
+            try {
+                for (int i = 0; i <= sheet.getLastRowNum(); i++) {
+                    if (i == 0) {
+                        dataTable.setHeaders(sheet.getRow(i));
+                    } else {
+                        dataTable.addDataRow(sheet.getRow(i), wb, sheet);
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+        } finally {
+            XLSCache.releaseWorkbook(wb);
+        }
+        return dataTable;
+    }
+
+    /**
+     * Reads .xlsx sheet row by row without building workbook object model, so only resulting data rows are kept in memory.
+     * Formula cells provide values cached by Excel. Other formats, already cached workbooks and sheets with linked cells
+     * are processed by {@link #parseSpreadSheet(String, String, String, String)}.
+     *
+     * @param xls - path to workbook
+     * @param sheetName - sheet name
+     * @param executeColumn - column to filter rows by
+     * @param executeValue - value in execute column
+     * @return XLSTable
+     */
+    public static XLSTable streamSpreadSheet(String xls, String sheetName, String executeColumn, String executeValue) {
+        if (!xls.toLowerCase().endsWith(".xlsx") || XLSCache.isCached(xls)) {
+            return parseSpreadSheet(xls, sheetName, executeColumn, executeValue);
+        }
+
+        XLSTable dataTable;
+        if (executeColumn != null && executeValue != null) {
+            dataTable = new XLSTable(executeColumn, executeValue);
+        } else {
+            dataTable = new XLSTable();
         }
 
         try {
-            for (int i = 0; i <= sheet.getLastRowNum(); i++) {
-                if (i == 0) {
-                    dataTable.setHeaders(sheet.getRow(i));
-                } else {
-                    dataTable.addDataRow(sheet.getRow(i), wb, sheet);
+            File file = XLSCache.getFile(xls);
+            OPCPackage pkg = file != null ? OPCPackage.open(file, PackageAccess.READ) : OPCPackage.open(XLSCache.openStream(xls));
+            try {
+                XSSFReader reader = new XSSFReader(pkg);
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                while (sheets.hasNext()) {
+                    InputStream is = sheets.next();
+                    try {
+                        if (sheetName.equals(sheets.getSheetName())) {
+                            XMLReader parser = SAXHelper.newXMLReader();
+                            parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), new ReadOnlySharedStringsTable(pkg),
+                                    new TableContentsHandler(dataTable), df.get(), false));
+                            parser.parse(new InputSource(is));
+                            return dataTable;
+                        }
+                    } finally {
+                        is.close();
+                    }
                 }
+            } finally {
+                pkg.revert();
             }
+        } catch (LinkedCellsException e) {
+            LOGGER.debug("Sheet '" + sheetName + "' contains linked cells, loading whole workbook: " + xls);
+            return parseSpreadSheet(xls, sheetName, executeColumn, executeValue);
         } catch (Exception e) {
-            LOGGER.error(e.getMessage(), e);
+            throw new DataLoadingException(String.format("Can't read sheet '%s' from excel file: '%s'!", sheetName, xls), e);
         }
-        return dataTable;
+        throw new InvalidArgsException(String.format("No sheet: '%s' in excel file: '%s'!", sheetName, xls));
     }
 
     public static String getCellValue(Cell cell) {
@@ -152,13 +209,14 @@ public class XLSParser {
 
         switch (cell.getCellType()) {
         case Cell.CELL_TYPE_STRING:
-            return df.formatCellValue(cell).trim();
+            return df.get().formatCellValue(cell).trim();
         case Cell.CELL_TYPE_NUMERIC:
-            return df.formatCellValue(cell).trim();
+            return df.get().formatCellValue(cell).trim();
         case Cell.CELL_TYPE_BOOLEAN:
-            return df.formatCellValue(cell).trim();
+            return df.get().formatCellValue(cell).trim();
         case Cell.CELL_TYPE_FORMULA:
-            return (cell.getCellFormula().contains("[") && cell.getCellFormula().contains("]")) ? null : df.formatCellValue(cell, evaluator).trim();
+            return (cell.getCellFormula().contains("[") && cell.getCellFormula().contains("]")) ? null
+                    : df.get().formatCellValue(cell, getEvaluator(cell.getSheet().getWorkbook())).trim();
         case Cell.CELL_TYPE_BLANK:
             return "";
         default:
@@ -166,6 +224,16 @@ public class XLSParser {
         }
     }
 
+    private static FormulaEvaluator getEvaluator(Workbook wb) {
+        WorkbookEvaluator current = evaluator.get();
+        if (current == null || current.workbook != wb) {
+            // only the last used workbook is kept per thread so evicted workbooks are not retained
+            current = new WorkbookEvaluator(wb);
+            evaluator.set(current);
+        }
+        return current.evaluator;
+    }
+
     public static XLSChildTable parseCellLinks(Cell cell, Workbook wb, Sheet sheet) {
         if (cell == null)
             return null;
@@ -179,7 +247,7 @@ public class XLSParser {
                     String tableName = paths.get(1).split("\\[")[0];
                     if (wb instanceof XSSFWorkbook) {
                         ExternalLinksTable link = ((XSSFWorkbook) wb).getExternalLinksTable().get(externalLinkNumber);
-                        File file = new File(XLSCache.getWorkbookPath(wb));
+                        File file = getWorkbookFile(wb);
                         XSSFWorkbook childWb = (XSSFWorkbook) XLSCache.getWorkbook(file.getParent() + "/" + link.getLinkedFileName());
                         if (childWb == null)
                             throw new DataLoadingException(String.format("WorkBook '%s' doesn't exist!", link.getLinkedFileName()));
@@ -232,7 +300,7 @@ public class XLSParser {
                 case 3:
                     if (wb instanceof XSSFWorkbook) {
                         ExternalLinksTable link = ((XSSFWorkbook) wb).getExternalLinksTable().get(Integer.valueOf(paths.get(0)) - 1);
-                        File file = new File(XLSCache.getWorkbookPath(wb));
+                        File file = getWorkbookFile(wb);
                         XSSFWorkbook childWb = (XSSFWorkbook) XLSCache.getWorkbook(file.getParent() + "/" + link.getLinkedFileName());
 
                         if (childWb == null)
@@ -253,10 +321,118 @@ public class XLSParser {
         return null;
     }
 
+    private static File getWorkbookFile(Workbook wb) {
+        String path = XLSCache.getWorkbookPath(wb);
+        if (path == null) {
+            throw new DataLoadingException("Unable to resolve path of the workbook with external links!");
+        }
+        return new File(path);
+    }
+
     private static XLSChildTable createChildTable(Sheet sheet, int rowNumber) {
         XLSChildTable childTable = new XLSChildTable();
         childTable.setHeaders(sheet.getRow(0));
         childTable.addDataRow(sheet.getRow(rowNumber));
         return childTable;
     }
+
+    private static class TableContentsHandler implements SheetContentsHandler {
+        private final XLSTable dataTable;
+        private List<String> cells;
+
+        TableContentsHandler(XLSTable dataTable) {
+            this.dataTable = dataTable;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            this.cells = new ArrayList<String>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) {
+                dataTable.setHeaders(cells);
+                if (dataTable.hasLinks()) {
+                    throw new LinkedCellsException();
+                }
+            } else {
+                dataTable.addDataRow(cells);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // empty cells are skipped by the event model
+            int column = new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue == null ? "" : formattedValue.trim());
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            // not used in data sources
+        }
+    }
+
+    private static class LinkedCellsException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static class WorkbookEvaluator {
+        private final Workbook workbook;
+        private final FormulaEvaluator evaluator;
+
+        WorkbookEvaluator(Workbook workbook) {
+            this.workbook = workbook;
+            this.evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+    }
+
+    /**
+     * Immutable lookup index of a sheet: header values of the first row and key values of the first column mapped to
+     * their cell and row numbers. Cell values are cached on first access so formulas are evaluated only once.
+     * Index doesn't reference the sheet itself to let cached workbooks be garbage collected.
+     */
+    private static class SheetIndex {
+        private static final String NULL_VALUE = new String();
+
+        private final Map<String, Integer> columns = new HashMap<String, Integer>();
+        private final Map<String, Integer> rows = new HashMap<String, Integer>();
+        private final Map<Long, String> values = new ConcurrentHashMap<Long, String>();
+
+        SheetIndex(Sheet sheet) {
+            Row header = sheet.getRow(0);
+            if (header != null) {
+                for (int i = 1; i < header.getLastCellNum(); i++) {
+                    String value = getCellValue(header.getCell(i));
+                    if (value != null && !columns.containsKey(value)) {
+                        columns.put(value, i);
+                    }
+                }
+            }
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null) {
+                    continue;
+                }
+                String value = getCellValue(row.getCell(0));
+                if (value != null && !rows.containsKey(value)) {
+                    rows.put(value, i);
+                }
+            }
+        }
+
+        String getValue(Sheet sheet, int rowN, int cellN) {
+            long key = ((long) rowN << 32) | cellN;
+            String value = values.get(key);
+            if (value == null) {
+                value = getCellValue(sheet.getRow(rowN).getCell(cellN));
+                values.put(key, value == null ? NULL_VALUE : value);
+            }
+            return value == NULL_VALUE ? null : value;
+        }
+    }
 }
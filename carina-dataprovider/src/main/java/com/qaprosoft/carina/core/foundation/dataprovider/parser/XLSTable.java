@@ -50,6 +50,35 @@ public class XLSTable {
         }
     }
 
+    void setHeaders(List<String> cells) {
+        headers.clear();
+        headers.addAll(cells);
+    }
+
+    boolean hasLinks() {
+        for (String header : headers) {
+            if (header != null && header.startsWith(FK_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void addDataRow(List<String> cells) {
+        if (executeColumn != null && executeValue != null && headers.contains(executeColumn)) {
+            int index = headers.indexOf(executeColumn);
+            if (!executeValue.equalsIgnoreCase(index < cells.size() ? cells.get(index) : "")) {
+                return;
+            }
+        }
+
+        Map<String, String> dataMap = new HashMap<String, String>();
+        for (int i = 0; i < headers.size(); i++) {
+            dataMap.put(headers.get(i), i < cells.size() ? cells.get(i) : "");
+        }
+        dataRows.add(dataMap);
+    }
+
     public void addDataRow(Row row, Workbook wb, Sheet sheet) {
         if (row == null) {
             // don't add any data row if it is null. It seems like there is empty row in xls file
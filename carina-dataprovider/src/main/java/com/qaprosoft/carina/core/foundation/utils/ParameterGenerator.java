@@ -31,97 +31,81 @@ public class ParameterGenerator {
 
     private static final Logger LOGGER = Logger.getLogger(ParameterGenerator.class);
 
-    private static Pattern GENERATE_UUID_PATTERN = Pattern.compile(SpecialKeywords.GENERATE_UUID);
-    private static Pattern GENERATE_PATTERN = Pattern.compile(SpecialKeywords.GENERATE);
-    private static Pattern GENERATEAN_PATTERN = Pattern.compile(SpecialKeywords.GENERATEAN);
-    private static Pattern GENERATEN_PATTERN = Pattern.compile(SpecialKeywords.GENERATEN);
-    private static Pattern TESTDATA_PATTERN = Pattern.compile(SpecialKeywords.TESTDATA);
-    private static Pattern ENV_PATTERN = Pattern.compile(SpecialKeywords.ENV);
-    private static Pattern L10N_PATTERN = Pattern.compile(SpecialKeywords.L10N_PATTERN);
-    private static Pattern I18N_PATTERN = Pattern.compile(SpecialKeywords.I18N_PATTERN);
-    private static Pattern EXCEL_PATTERN = Pattern.compile(SpecialKeywords.EXCEL);
-
-    private static Matcher matcher;
-
-    private static String UUID;
+    private static volatile String UUID;
+
+    /**
+     * Supported wildcards in order of their priority. Every wildcard is recognized by its prefix so only rules which
+     * prefixes are found in the value are matched against their patterns.
+     */
+    private enum Wildcard {
+        GENERATE_UUID("{generate_uuid}", SpecialKeywords.GENERATE_UUID),
+        GENERATE("{generate:", SpecialKeywords.GENERATE),
+        GENERATEAN("{generatean:", SpecialKeywords.GENERATEAN),
+        GENERATEN("{generaten:", SpecialKeywords.GENERATEN),
+        ENV("{env:", SpecialKeywords.ENV),
+        TESTDATA("{testdata:", SpecialKeywords.TESTDATA),
+        EXCEL("{excel:", SpecialKeywords.EXCEL),
+        I18N("{" + SpecialKeywords.I18N + ":", SpecialKeywords.I18N_PATTERN),
+        L10N("{" + SpecialKeywords.L10N + ":", SpecialKeywords.L10N_PATTERN);
+
+        private static final Wildcard[] WILDCARDS = values();
+
+        private final String prefix;
+        private final Pattern pattern;
+
+        Wildcard(String prefix, String regex) {
+            this.prefix = prefix;
+            this.pattern = Pattern.compile(regex);
+        }
+    }
 
     public static Object process(String param) {
         try {
-            if (param == null || param.toLowerCase().equals("nil")) {
+            if (param == null || param.equalsIgnoreCase("nil")) {
                 return null;
             }
 
-            matcher = GENERATE_UUID_PATTERN.matcher(param);
-            if (matcher.find()) {
-                return StringUtils.replace(param, matcher.group(), UUID);
-            }
-            matcher = GENERATE_PATTERN.matcher(param);
-            if (matcher.find()) {
-                int start = param.indexOf(":") + 1;
-                int end = param.indexOf("}");
-                int size = Integer.valueOf(param.substring(start, end));
-                return StringUtils.replace(param, matcher.group(), StringGenerator.generateWord(size));
-            }
-
-            matcher = GENERATEAN_PATTERN.matcher(param);
-            if (matcher.find()) {
-                int start = param.indexOf(":") + 1;
-                int end = param.indexOf("}");
-                int size = Integer.valueOf(param.substring(start, end));
-                return StringUtils.replace(param, matcher.group(), StringGenerator.generateWordAN(size));
-            }
-
-            matcher = GENERATEN_PATTERN.matcher(param);
-            if (matcher.find()) {
-                int start = param.indexOf(":") + 1;
-                int end = param.indexOf("}");
-                int size = Integer.valueOf(param.substring(start, end));
-                return StringUtils.replace(param, matcher.group(), StringGenerator.generateNumeric(size));
-            }
-
-            matcher = ENV_PATTERN.matcher(param);
-            if (matcher.find()) {
-                int start = param.indexOf(":") + 1;
-                int end = param.indexOf("}");
-                String key = param.substring(start, end);
-                return StringUtils.replace(param, matcher.group(), Configuration.getEnvArg(key));
-            }
-
-            matcher = TESTDATA_PATTERN.matcher(param);
-            if (matcher.find()) {
-                int start = param.indexOf(":") + 1;
-                int end = param.indexOf("}");
-                String key = param.substring(start, end);
-                return StringUtils.replace(param, matcher.group(), R.TESTDATA.get(key));
-            }
-
-            matcher = EXCEL_PATTERN.matcher(param);
-            if (matcher.find()) {
-                int start = param.indexOf(":") + 1;
-                int end = param.indexOf("}");
-                String key = param.substring(start, end);
-                return StringUtils.replace(param, matcher.group(), getValueFromXLS(key));
+            int index = param.indexOf('{');
+            if (index < 0) {
+                // there are no wildcards in the value
+                return param;
             }
 
-            matcher = I18N_PATTERN.matcher(param);
-            if (matcher.find()) {
-                int start = param.indexOf(SpecialKeywords.I18N + ":") + 5;
-                int end = param.indexOf("}");
-                String key = param.substring(start, end);
-                return StringUtils.replace(param, matcher.group(), I18N.getText(key));
+            boolean[] found = new boolean[Wildcard.WILDCARDS.length];
+            while (index >= 0) {
+                for (Wildcard wildcard : Wildcard.WILDCARDS) {
+                    if (param.startsWith(wildcard.prefix, index)) {
+                        found[wildcard.ordinal()] = true;
+                        break;
+                    }
+                }
+                index = param.indexOf('{', index + 1);
             }
 
-            matcher = L10N_PATTERN.matcher(param);
-            String initStrL10N = param;
-            while (matcher.find()) {
-                int start = param.indexOf(SpecialKeywords.L10N + ":") + 5;
-                int end = param.indexOf("}");
-                String key = param.substring(start, end);
-                param = StringUtils.replace(param, matcher.group(), L10N.getText(key));
-            }
-            // in case if L10N pattern was applied
-            if (!initStrL10N.equalsIgnoreCase(param)) {
-                return param;
+            for (Wildcard wildcard : Wildcard.WILDCARDS) {
+                if (!found[wildcard.ordinal()]) {
+                    continue;
+                }
+
+                Matcher matcher = wildcard.pattern.matcher(param);
+                if (wildcard == Wildcard.L10N) {
+                    String initStrL10N = param;
+                    while (matcher.find()) {
+                        int start = param.indexOf(SpecialKeywords.L10N + ":") + 5;
+                        int end = param.indexOf("}");
+                        String key = param.substring(start, end);
+                        param = StringUtils.replace(param, matcher.group(), L10N.getText(key));
+                    }
+                    // in case if L10N pattern was applied
+                    if (!initStrL10N.equalsIgnoreCase(param)) {
+                        return param;
+                    }
+                    continue;
+                }
+
+                if (matcher.find()) {
+                    return StringUtils.replace(param, matcher.group(), generate(wildcard, param));
+                }
             }
         } catch (Exception e) {
             LOGGER.error(e.getMessage());
@@ -129,6 +113,35 @@ public class ParameterGenerator {
         return param;
     }
 
+    private static String generate(Wildcard wildcard, String param) {
+        if (wildcard == Wildcard.GENERATE_UUID) {
+            return UUID;
+        }
+
+        int start = wildcard == Wildcard.I18N ? param.indexOf(SpecialKeywords.I18N + ":") + 5 : param.indexOf(":") + 1;
+        int end = param.indexOf("}");
+        String key = param.substring(start, end);
+
+        switch (wildcard) {
+        case GENERATE:
+            return StringGenerator.generateWord(Integer.valueOf(key));
+        case GENERATEAN:
+            return StringGenerator.generateWordAN(Integer.valueOf(key));
+        case GENERATEN:
+            return StringGenerator.generateNumeric(Integer.valueOf(key));
+        case ENV:
+            return Configuration.getEnvArg(key);
+        case TESTDATA:
+            return R.TESTDATA.get(key);
+        case EXCEL:
+            return getValueFromXLS(key);
+        case I18N:
+            return I18N.getText(key);
+        default:
+            throw new IllegalArgumentException("Unsupported wildcard: " + wildcard);
+        }
+    }
+
     private static String getValueFromXLS(String xlsSheetKey) {
         if (StringUtils.isEmpty(xlsSheetKey)) {
             throw new InvalidArgsException("Invalid excel key, should be 'xls_file#sheet#key'.");
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.dataprovider;
+
+import java.lang.annotation.Annotation;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
+import com.qaprosoft.carina.core.foundation.dataprovider.annotations.CsvDataSourceParameters;
+import com.qaprosoft.carina.core.foundation.dataprovider.core.DataProviderFactory;
+import com.qaprosoft.carina.core.foundation.dataprovider.core.impl.CsvDataProvider;
+
+public class CsvDataProviderTest {
+
+    @CsvDataSourceParameters(path = "csv_data/Stream.csv", dsUid = "TUID", jiraColumn = "jira")
+    public void dynamicArgs() {
+        // data source of the tests
+    }
+
+    @CsvDataSourceParameters(path = "csv_data/Stream.csv", dsArgs = "name,value", dsUid = "TUID", jiraColumn = "jira")
+    public void namedArgs() {
+        // data source of the tests
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLazyIterator(ITestContext context) throws NoSuchMethodException {
+        CsvDataProvider provider = new CsvDataProvider();
+        Iterator<Object[]> rows = provider.getDataProviderIterator(getAnnotation("dynamicArgs"), context, getTestMethod(context));
+        Assert.assertTrue(provider.getCanonicalTestNameArgsMap().isEmpty(), "Rows are read before iteration!");
+
+        Assert.assertTrue(rows.hasNext());
+        Map<String, String> row = (Map<String, String>) rows.next()[0];
+        Assert.assertEquals(row.get("name"), "first");
+        Assert.assertEquals(provider.getCanonicalTestNameArgsMap().size(), 1);
+        Assert.assertEquals(provider.getJiraArgsMap().values().iterator().next(), "JIRA-1");
+
+        // executeValue is case insensitive and filtered rows are skipped
+        Assert.assertEquals(((Map<String, String>) rows.next()[0]).get("name"), "third");
+        Assert.assertEquals(((Map<String, String>) rows.next()[0]).get("name"), "fifth");
+        Assert.assertFalse(rows.hasNext());
+
+        Assert.assertEquals(provider.getCanonicalTestNameArgsMap().size(), 3);
+        // empty jira values are not registered
+        Assert.assertEquals(provider.getJiraArgsMap().size(), 2);
+    }
+
+    @Test
+    public void testNamedArgs(ITestContext context) throws NoSuchMethodException {
+        CsvDataProvider provider = new CsvDataProvider();
+        Object[][] rows = provider.getDataProvider(getAnnotation("namedArgs"), context, getTestMethod(context));
+        Assert.assertEquals(rows.length, 3);
+        Assert.assertEquals(rows[1], new Object[] { "third", "3" });
+        Assert.assertEquals(provider.getJiraArgsMap().size(), 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFactoryIterator(ITestContext context) throws NoSuchMethodException {
+        Annotation[] annotations = { getAnnotation("namedArgs") };
+        Iterator<Object[]> rows = DataProviderFactory.getNeedRerunDataProviderIterator(annotations, context, getTestMethod(context));
+
+        Map<String, String> testNames = (Map<String, String>) context.getAttribute(SpecialKeywords.CANONICAL_TEST_NAME_ARGS_MAP);
+        Assert.assertTrue(testNames.isEmpty(), "Rows are read before iteration!");
+
+        int count = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            count++;
+            Assert.assertEquals(testNames.size(), count, "Test names are not registered for the returned row!");
+        }
+        Assert.assertEquals(count, 3);
+    }
+
+    private Annotation getAnnotation(String method) throws NoSuchMethodException {
+        return getClass().getMethod(method).getAnnotation(CsvDataSourceParameters.class);
+    }
+
+    private ITestNGMethod getTestMethod(ITestContext context) {
+        return context.getAllTestMethods()[0];
+    }
+}
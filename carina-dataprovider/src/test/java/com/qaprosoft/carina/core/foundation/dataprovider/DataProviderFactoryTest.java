@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.dataprovider;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.dataprovider.annotations.CsvDataSourceParameters;
+import com.qaprosoft.carina.core.foundation.dataprovider.core.DataProviderFactory;
+import com.qaprosoft.carina.core.foundation.dataprovider.core.impl.BaseDataProvider;
+
+public class DataProviderFactoryTest {
+    private static final int ROWS = 100;
+    private static final String PROVIDER = "com.qaprosoft.carina.core.foundation.dataprovider.DataProviderFactoryTest$RowsDataProvider";
+
+    /**
+     * Generates rows named by the annotation path, e.g. first_0, first_1 etc.
+     */
+    public static class RowsDataProvider extends BaseDataProvider {
+        @Override
+        public Object[][] getDataProvider(Annotation annotation, ITestContext context, ITestNGMethod testMethod) {
+            CsvDataSourceParameters parameters = (CsvDataSourceParameters) annotation;
+            doNotRunTestNames = Arrays.asList(parameters.doNotRunTestNames());
+
+            Object[][] rows = new Object[ROWS][];
+            for (int i = 0; i < ROWS; i++) {
+                rows[i] = new Object[] { parameters.path() + "_" + i };
+                canonicalTestNameArgsMap.put(String.valueOf(Arrays.hashCode(rows[i])), parameters.path() + "_" + i);
+            }
+            return rows;
+        }
+    }
+
+    @CsvDataSourceParameters(className = PROVIDER, path = "first", doNotRunTestNames = { "first_3", "first_50" })
+    public void rerun() {
+        // data source of the tests
+    }
+
+    @CsvDataSourceParameters(className = PROVIDER, path = "second")
+    public void all() {
+        // data source of the tests
+    }
+
+    @Test
+    public void testRowsOfSeveralProvidersAreJoined(ITestContext context) throws NoSuchMethodException {
+        Annotation[] annotations = { getAnnotation("rerun"), getAnnotation("all") };
+        Object[][] rows = DataProviderFactory.getDataProvider(annotations, context, context.getAllTestMethods()[0]);
+        Assert.assertEquals(rows.length, ROWS * 2);
+        Assert.assertEquals(rows[0][0], "first_0");
+        Assert.assertEquals(rows[ROWS][0], "second_0");
+        Assert.assertEquals(rows[ROWS * 2 - 1][0], "second_" + (ROWS - 1));
+    }
+
+    @Test
+    public void testDoNotRunRowsAreSkipped(ITestContext context) throws NoSuchMethodException {
+        Annotation[] annotations = { getAnnotation("rerun"), getAnnotation("all") };
+        Object[][] rows = DataProviderFactory.getNeedRerunDataProvider(annotations, context, context.getAllTestMethods()[0]);
+        Assert.assertEquals(getNames(Arrays.asList(rows).iterator()), getExpectedRerunNames());
+    }
+
+    @Test
+    public void testDoNotRunRowsAreSkippedByIterator(ITestContext context) throws NoSuchMethodException {
+        Annotation[] annotations = { getAnnotation("rerun"), getAnnotation("all") };
+        Iterator<Object[]> rows = DataProviderFactory.getNeedRerunDataProviderIterator(annotations, context, context.getAllTestMethods()[0]);
+        Assert.assertEquals(getNames(rows), getExpectedRerunNames());
+    }
+
+    private List<String> getExpectedRerunNames() {
+        List<String> names = new ArrayList<String>();
+        for (String path : new String[] { "first", "second" }) {
+            for (int i = 0; i < ROWS; i++) {
+                names.add(path + "_" + i);
+            }
+        }
+        names.remove("first_3");
+        names.remove("first_50");
+        return names;
+    }
+
+    private List<String> getNames(Iterator<Object[]> rows) {
+        List<String> names = new ArrayList<String>();
+        while (rows.hasNext()) {
+            names.add((String) rows.next()[0]);
+        }
+        return names;
+    }
+
+    private Annotation getAnnotation(String method) throws NoSuchMethodException {
+        return getClass().getMethod(method).getAnnotation(CsvDataSourceParameters.class);
+    }
+}
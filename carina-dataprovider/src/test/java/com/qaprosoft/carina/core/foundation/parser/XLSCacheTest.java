@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.parser;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.dataprovider.parser.XLSCache;
+import com.qaprosoft.carina.core.foundation.dataprovider.parser.XLSParser;
+import com.qaprosoft.carina.core.foundation.dataprovider.parser.XLSTable;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+import com.qaprosoft.carina.core.foundation.utils.R;
+
+public class XLSCacheTest {
+    private static final String CHILD_XLS = "xlsx_data/ChildTest.xlsx";
+    private static final String PARENT_XLS = "xlsx_data/ParentTest.xlsx";
+
+    @AfterMethod
+    public void cleanUp() {
+        R.CONFIG.put(Parameter.XLS_CACHE_SIZE.getKey(), "256");
+        XLSCache.clear();
+    }
+
+    @Test
+    public void testWorkbookIsCached() {
+        Workbook wb = XLSCache.getWorkbook(CHILD_XLS);
+        Assert.assertSame(XLSCache.getWorkbook(CHILD_XLS), wb);
+        Assert.assertEquals(XLSCache.getWorkbookPath(wb), CHILD_XLS);
+        Assert.assertTrue(XLSCache.getCachedBytes() > 0);
+    }
+
+    @Test
+    public void testModifiedWorkbookIsReloaded() throws Exception {
+        File copy = File.createTempFile("carina", ".xlsx");
+        copy.deleteOnExit();
+        Files.copy(new File(ClassLoader.getSystemResource(CHILD_XLS).toURI()).toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        Workbook wb = XLSCache.getWorkbook(copy.getAbsolutePath());
+        Assert.assertSame(XLSCache.getWorkbook(copy.getAbsolutePath()), wb);
+
+        Assert.assertTrue(copy.setLastModified(copy.lastModified() - 60000));
+        Workbook reloaded = XLSCache.getWorkbook(copy.getAbsolutePath());
+        Assert.assertNotSame(reloaded, wb);
+        Assert.assertNull(XLSCache.getWorkbookPath(wb));
+        Assert.assertEquals(XLSCache.getWorkbookPath(reloaded), copy.getAbsolutePath());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedWorkbookIsEvicted() {
+        R.CONFIG.put(Parameter.XLS_CACHE_SIZE.getKey(), "0");
+
+        XLSCache.getWorkbook(CHILD_XLS);
+        Assert.assertTrue(XLSCache.isCached(CHILD_XLS));
+
+        XLSCache.getWorkbook(PARENT_XLS);
+        Assert.assertTrue(XLSCache.isCached(PARENT_XLS));
+        Assert.assertFalse(XLSCache.isCached(CHILD_XLS), "Least recently used workbook wasn't evicted!");
+    }
+
+    @Test
+    public void testStreamedSheetMatchesParsedSheet() {
+        XLSTable streamed = XLSParser.streamSpreadSheet(CHILD_XLS, "Sheet1", null, null);
+        Assert.assertFalse(XLSCache.isCached(CHILD_XLS), "Streamed workbook shouldn't be cached!");
+
+        XLSTable parsed = XLSParser.parseSpreadSheet(CHILD_XLS, "Sheet1");
+        Assert.assertEquals(streamed.getHeaders(), parsed.getHeaders());
+        Assert.assertEquals(streamed.getDataRows(), parsed.getDataRows());
+    }
+
+    @Test
+    public void testStreamedSheetIsFiltered() {
+        XLSTable parsed = XLSParser.parseSpreadSheet(CHILD_XLS, "Sheet1");
+        String column = parsed.getHeaders().get(0);
+        String value = parsed.getDataRows().get(1).get(column);
+        XLSCache.clear();
+
+        XLSTable streamed = XLSParser.streamSpreadSheet(CHILD_XLS, "Sheet1", column, value);
+        Assert.assertEquals(streamed.getDataRows().size(), 1);
+        Assert.assertEquals(streamed.getDataRows().get(0), parsed.getDataRows().get(1));
+    }
+
+    @Test
+    public void testSheetWithLinksIsParsed() {
+        XLSTable streamed = XLSParser.streamSpreadSheet(PARENT_XLS, "Sheet1", null, null);
+        XLSTable parsed = XLSParser.parseSpreadSheet(PARENT_XLS, "Sheet1");
+        Assert.assertEquals(streamed.getHeaders(), parsed.getHeaders());
+        Assert.assertEquals(streamed.getDataRows(), parsed.getDataRows());
+    }
+
+    @Test
+    public void testAcquiredWorkbookIsNotEvicted() {
+        XLSTable expected = XLSParser.parseSpreadSheet(PARENT_XLS, "Sheet1");
+        XLSCache.clear();
+
+        // parent and linked child workbooks don't fit into the cache together
+        R.CONFIG.put(Parameter.XLS_CACHE_SIZE.getKey(), "0");
+        XLSTable parsed = XLSParser.parseSpreadSheet(PARENT_XLS, "Sheet1");
+        Assert.assertEquals(parsed.getDataRows().size(), expected.getDataRows().size());
+        Assert.assertEquals(parsed.getDataRows(), expected.getDataRows());
+
+        Workbook wb = XLSCache.acquireWorkbook(PARENT_XLS);
+        XLSCache.getWorkbook(CHILD_XLS);
+        Assert.assertTrue(XLSCache.isCached(PARENT_XLS), "Acquired workbook was evicted!");
+        Assert.assertEquals(XLSCache.getWorkbookPath(wb), PARENT_XLS);
+
+        XLSCache.releaseWorkbook(wb);
+        XLSCache.getWorkbook(CHILD_XLS);
+        Assert.assertFalse(XLSCache.isCached(PARENT_XLS), "Released workbook wasn't evicted!");
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.dataprovider.parser.XLSParser;
+import com.qaprosoft.carina.core.foundation.exception.InvalidArgsException;
+
+public class XLSParserTest {
+    private static final int ROWS = 100;
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    private String xls;
+    // not parsed by other tests so that sheets are loaded and indexed by concurrent invocations
+    private String concurrentXls;
+
+    @BeforeClass
+    public void createWorkbook() throws Exception {
+        File file = File.createTempFile("carina-parser", ".xlsx");
+        file.deleteOnExit();
+        xls = file.getAbsolutePath();
+
+        Workbook wb = new XSSFWorkbook();
+        Sheet l10n = wb.createSheet("l10n");
+        Row header = l10n.createRow(0);
+        header.createCell(0).setCellValue("key");
+        header.createCell(1).setCellValue("US");
+        header.createCell(2).setCellValue("FR");
+        for (int i = 1; i <= ROWS; i++) {
+            Row row = l10n.createRow(i);
+            row.createCell(0).setCellValue("locator_" + i);
+            row.createCell(1).setCellValue("us_" + i);
+            row.createCell(2).setCellValue("fr_" + i);
+        }
+
+        Sheet data = wb.createSheet("data");
+        data.createRow(0).createCell(0).setCellValue("key");
+        Row number = data.createRow(1);
+        number.createCell(0).setCellValue("number");
+        number.createCell(1).setCellValue(21);
+        Row formula = data.createRow(2);
+        formula.createCell(0).setCellValue("formula");
+        formula.createCell(1).setCellFormula("B2*2");
+        // rows without data are skipped by index
+        Row duplicate = data.createRow(4);
+        duplicate.createCell(0).setCellValue("number");
+        duplicate.createCell(1).setCellValue(0);
+
+        OutputStream os = new FileOutputStream(file);
+        try {
+            wb.write(os);
+        } finally {
+            os.close();
+        }
+
+        File copy = File.createTempFile("carina-parser", ".xlsx");
+        copy.deleteOnExit();
+        Files.copy(file.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        concurrentXls = copy.getAbsolutePath();
+    }
+
+    @Test
+    public void testParseLocalizedValue() {
+        Assert.assertEquals(XLSParser.parseValue("locator_1", xls, Locale.US), "us_1");
+        Assert.assertEquals(XLSParser.parseValue("locator_" + ROWS, xls, Locale.FRANCE), "fr_" + ROWS);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class, expectedExceptionsMessageRegExp = "Can't find locale 'DE'.*")
+    public void testParseUnknownLocale() {
+        XLSParser.parseValue("locator_1", xls, Locale.GERMANY);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class, expectedExceptionsMessageRegExp = "Can't find locatorKey 'unknown'.*")
+    public void testParseUnknownLocatorKey() {
+        XLSParser.parseValue("unknown", xls, Locale.US);
+    }
+
+    @Test
+    public void testParseSheetValue() {
+        Assert.assertEquals(XLSParser.parseValue(xls, "data", "number"), "21", "First row with the key should be used!");
+        Assert.assertEquals(XLSParser.parseValue(xls, "data", "formula"), "42");
+        Assert.assertEquals(XLSParser.parseValue(xls, "data", "formula"), "42");
+    }
+
+    @Test(expectedExceptions = InvalidArgsException.class)
+    public void testParseUnknownSheetKey() {
+        XLSParser.parseValue(xls, "data", "unknown");
+    }
+
+    @Test(expectedExceptions = InvalidArgsException.class)
+    public void testParseUnknownSheet() {
+        XLSParser.parseValue(xls, "unknown", "number");
+    }
+
+    @Test(threadPoolSize = 4, invocationCount = 8)
+    public void testParseValueFromThreads() {
+        // every invocation starts from its own row so that the same cells are not read in the same order
+        int offset = invocations.getAndIncrement() * ROWS / 8;
+        for (int i = 0; i < ROWS; i++) {
+            int row = (offset + i) % ROWS + 1;
+            Assert.assertEquals(XLSParser.parseValue("locator_" + row, concurrentXls, Locale.US), "us_" + row,
+                    "Value of another row is parsed from the shared sheet index!");
+            Assert.assertEquals(XLSParser.parseValue(concurrentXls, "data", "formula"), "42",
+                    "Formula is evaluated wrong on the shared workbook!");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ParameterGeneratorTest {
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    public void testPlainValue() {
+        Assert.assertEquals(ParameterGenerator.process("plain value"), "plain value");
+        Assert.assertEquals(ParameterGenerator.process("{not a wildcard}"), "{not a wildcard}");
+        Assert.assertNull(ParameterGenerator.process(null));
+        Assert.assertNull(ParameterGenerator.process("NIL"));
+    }
+
+    @Test
+    public void testGenerateUUID() {
+        ParameterGenerator.setUUID("12345");
+        Assert.assertEquals(ParameterGenerator.process("user_{generate_uuid}"), "user_12345");
+    }
+
+    @Test
+    public void testGenerateValues() {
+        String word = (String) ParameterGenerator.process("{generate:8}");
+        Assert.assertEquals(word.length(), 8);
+
+        String number = (String) ParameterGenerator.process("id_{generaten:5}");
+        Assert.assertTrue(number.matches("id_\\d{5}"), "Unexpected number: " + number);
+
+        String alphanumeric = (String) ParameterGenerator.process("{generatean:6}@test.com");
+        Assert.assertTrue(alphanumeric.matches("\\w{6}@test\\.com"), "Unexpected value: " + alphanumeric);
+    }
+
+    @Test
+    public void testWildcardPriority() {
+        ParameterGenerator.setUUID("uuid");
+        // only the wildcard with highest priority is processed
+        Assert.assertEquals(ParameterGenerator.process("{generaten:3}_{generate_uuid}"), "{generaten:3}_uuid");
+    }
+
+    @Test
+    public void testInvalidWildcardIsSkipped() {
+        Assert.assertEquals(ParameterGenerator.process("{generate:abc}"), "{generate:abc}");
+    }
+
+    @Test(threadPoolSize = 4, invocationCount = 8)
+    public void testProcessFromThreads() {
+        // values differ per invocation so that a matcher shared with another thread produces a foreign value
+        int size = invocations.incrementAndGet();
+        String prefix = "value" + size + "_";
+        for (int i = 0; i < 1000; i++) {
+            String number = (String) ParameterGenerator.process(prefix + "{generaten:" + size + "}");
+            Assert.assertTrue(number.matches(prefix + "\\d{" + size + "}"),
+                    "Value of another thread is generated: " + number);
+            String word = (String) ParameterGenerator.process(prefix + "{generate:" + size + "}");
+            Assert.assertEquals(word.length(), prefix.length() + size, "Value of another thread is generated: " + word);
+            Assert.assertTrue(word.startsWith(prefix), "Value of another thread is generated: " + word);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.qaprosoft.carina.grid.MobileCapabilityMatcher.RequestMatcher;
+
+/**
+ * Inverted index of free slots keyed by platform name, major platform version and device type. Lookup walks distinct
+ * keys whose number depends on the variety of devices rather than on their count. Candidates are a live view of the
+ * matching buckets, so membership check is a couple of hash lookups and iteration visits the matching free slots only.
+ * 
+ * @param <T>
+ *            slot type
+ */
+public class FreeSlotIndex<T> {
+    private static final String PLATFORM_NAME = "platformName";
+    private static final String PLATFORM_VERSION = "platformVersion";
+    private static final String DEVICE_TYPE = "deviceType";
+
+    private static final Pattern MAJOR_VERSION = Pattern.compile("^(\\d+)(\\.\\d+)*$");
+
+    private final Map<SlotKey, Set<T>> freeSlots = new ConcurrentHashMap<SlotKey, Set<T>>();
+    private final Map<T, SlotKey> slotKeys = new ConcurrentHashMap<T, SlotKey>();
+
+    // incremented when a new key appears so matching keys computed for a request are reused until then
+    private final AtomicLong version = new AtomicLong();
+    private final ThreadLocal<Lookup<T>> lastLookup = new ThreadLocal<Lookup<T>>();
+
+    /**
+     * Registers free slot or returns it to the index when session is finished.
+     * 
+     * @param slot
+     *            - slot
+     * @param capabilities
+     *            - slot capabilities
+     */
+    public void add(T slot, Map<String, Object> capabilities) {
+        SlotKey key = slotKeys.computeIfAbsent(slot, s -> SlotKey.of(capabilities));
+        freeSlots.computeIfAbsent(key, k -> {
+            version.incrementAndGet();
+            return ConcurrentHashMap.newKeySet();
+        }).add(slot);
+    }
+
+    /**
+     * Removes slot from the free ones when session is started.
+     * 
+     * @param slot
+     *            - slot
+     */
+    public void remove(T slot) {
+        SlotKey key = slotKeys.get(slot);
+        if (key != null) {
+            Set<T> slots = freeSlots.get(key);
+            if (slots != null) {
+                slots.remove(slot);
+            }
+        }
+    }
+
+    /**
+     * Forgets slot of unregistered proxy.
+     * 
+     * @param slot
+     *            - slot
+     */
+    public void unregister(T slot) {
+        remove(slot);
+        slotKeys.remove(slot);
+    }
+
+    /**
+     * Returns free slots which can possibly match requested capabilities. Returned set is a superset of matching slots,
+     * the slots still have to be verified by capability matcher. The set is a read-only view which reflects slots taken
+     * or released after the call.
+     * 
+     * @param requestedCapability
+     *            - capabilities requested by Selenium client
+     * @return candidate slots or null if request is not a mobile one and can't be narrowed
+     */
+    public Set<T> getCandidates(Map<String, Object> requestedCapability) {
+        RequestMatcher matcher = MobileCapabilityMatcher.getRequestMatcher(requestedCapability);
+        if (!matcher.isMobile()) {
+            return null;
+        }
+
+        long current = version.get();
+        Lookup<T> lookup = lastLookup.get();
+        if (lookup != null && lookup.matcher == matcher && lookup.version == current) {
+            return lookup.candidates;
+        }
+
+        Set<SlotKey> keys = new HashSet<SlotKey>();
+        List<Set<T>> buckets = new ArrayList<Set<T>>();
+        for (Map.Entry<SlotKey, Set<T>> entry : freeSlots.entrySet()) {
+            SlotKey key = entry.getKey();
+            if (matcher.mayMatch(key.platformName, key.majorVersion, key.deviceType)) {
+                keys.add(key);
+                buckets.add(entry.getValue());
+            }
+        }
+        Set<T> candidates = new Candidates(keys, buckets);
+        lastLookup.set(new Lookup<T>(matcher, current, candidates));
+        return candidates;
+    }
+
+    /**
+     * Free slots of the matching buckets without copying them.
+     */
+    private class Candidates extends AbstractSet<T> {
+        private final Set<SlotKey> keys;
+        private final List<Set<T>> buckets;
+
+        Candidates(Set<SlotKey> keys, List<Set<T>> buckets) {
+            this.keys = keys;
+            this.buckets = buckets;
+        }
+
+        @Override
+        public boolean contains(Object slot) {
+            SlotKey key = slotKeys.get(slot);
+            return key != null && keys.contains(key) && freeSlots.get(key).contains(slot);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            final Iterator<Set<T>> bucketIterator = buckets.iterator();
+            return new Iterator<T>() {
+                private Iterator<T> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && bucketIterator.hasNext()) {
+                        current = bucketIterator.next().iterator();
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    hasNext();
+                    return current.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Set<T> bucket : buckets) {
+                size += bucket.size();
+            }
+            return size;
+        }
+    }
+
+    private static class SlotKey {
+        private final String platformName;
+        private final Integer majorVersion;
+        private final String deviceType;
+
+        SlotKey(String platformName, Integer majorVersion, String deviceType) {
+            this.platformName = platformName;
+            this.majorVersion = majorVersion;
+            this.deviceType = deviceType;
+        }
+
+        static SlotKey of(Map<String, Object> capabilities) {
+            Object platformName = capabilities.get(PLATFORM_NAME);
+            Object platformVersion = capabilities.get(PLATFORM_VERSION);
+            Object deviceType = capabilities.get(DEVICE_TYPE);
+
+            // versions which can't be parsed are compared as equal to any requested version
+            Integer majorVersion = null;
+            if (platformVersion != null) {
+                Matcher matcher = MAJOR_VERSION.matcher(platformVersion.toString());
+                if (matcher.matches()) {
+                    majorVersion = Integer.valueOf(matcher.group(1));
+                }
+            }
+            return new SlotKey(platformName != null ? platformName.toString().toLowerCase() : null, majorVersion,
+                    deviceType != null ? deviceType.toString().toLowerCase() : null);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SlotKey)) {
+                return false;
+            }
+            SlotKey key = (SlotKey) obj;
+            return Objects.equals(platformName, key.platformName) && Objects.equals(majorVersion, key.majorVersion)
+                    && Objects.equals(deviceType, key.deviceType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(platformName, majorVersion, deviceType);
+        }
+    }
+
+    private static class Lookup<T> {
+        private final RequestMatcher matcher;
+        private final long version;
+        private final Set<T> candidates;
+
+        Lookup(RequestMatcher matcher, long version, Set<T> candidates) {
+            this.matcher = matcher;
+            this.version = version;
+            this.candidates = candidates;
+        }
+    }
+}
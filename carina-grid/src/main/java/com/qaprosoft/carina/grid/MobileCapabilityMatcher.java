@@ -15,8 +15,14 @@
  *******************************************************************************/
 package com.qaprosoft.carina.grid;
 
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.grid.internal.utils.DefaultCapabilityMatcher;
@@ -35,124 +41,257 @@ public class MobileCapabilityMatcher extends DefaultCapabilityMatcher {
     private static final String DEVICE_POOL = "devicePool";
     private static final String UDID = "udid";
 
+    // capabilities which affect mobile matching
+    private static final String[] MOBILE_KEYS = { PLATFORM_NAME, PLATFORM_VERSION, DEVICE_NAME, DEVICE_TYPE, DEVICE_POOL, UDID };
+
+    // Limited interval: 6.1.1-7.0
+    private static final Pattern VERSION_RANGE = Pattern.compile("((\\d+\\.){0,}(\\d+))-((\\d+\\.){0,}(\\d+))$");
+    // Unlimited interval: 6.0+
+    private static final Pattern VERSION_MIN = Pattern.compile("((\\d+\\.){0,}(\\d+))\\+$");
+    // Multiple versions: 6.1,7.0
+    private static final Pattern VERSION_LIST = Pattern.compile("(\\d+\\.){0,}(\\d+,)+(\\d+\\.){0,}(\\d+)$");
+    // Exact version: 7.0
+    private static final Pattern VERSION = Pattern.compile("(\\d+\\.){0,}(\\d+)$");
+
+    // hub matches the same request against all the slots in a row so the last compiled request is reused
+    private static final ThreadLocal<RequestMatcher> LAST_REQUEST = new ThreadLocal<RequestMatcher>();
+
     @Override
     public boolean matches(Map<String, Object> nodeCapability, Map<String, Object> requestedCapability) {
-        if (requestedCapability.containsKey(PLATFORM_NAME) || requestedCapability.containsKey(PLATFORM_VERSION)
-                || requestedCapability.containsKey(DEVICE_NAME) || requestedCapability.containsKey(UDID)
-                || requestedCapability.containsKey(DEVICE_POOL)) {
+        RequestMatcher matcher = getRequestMatcher(requestedCapability);
+        if (matcher.isMobile()) {
             // Mobile-based capabilities
-            return extensionCapabilityCheck(nodeCapability, requestedCapability);
+            return matcher.matches(nodeCapability);
         } else {
             // Browser-based capabilities
             return super.matches(nodeCapability, requestedCapability);
         }
     }
 
+    static RequestMatcher getRequestMatcher(Map<String, Object> requestedCapability) {
+        RequestMatcher matcher = LAST_REQUEST.get();
+        if (matcher == null || !matcher.isCompiledFrom(requestedCapability)) {
+            matcher = compile(requestedCapability);
+            LAST_REQUEST.set(matcher);
+        }
+        return matcher;
+    }
+
     /**
-     * Verifies matching between requested and actual node capabilities.
+     * Parses requested capabilities into immutable matcher. Requested capabilities are not modified.
      * 
-     * @param nodeCapability
-     *            - Selenium node capabilities
      * @param requestedCapability
      *            - capabilities requested by Selenium client
-     * @return match results
+     * @return matcher
      */
-    private boolean extensionCapabilityCheck(Map<String, Object> nodeCapability,
-            Map<String, Object> requestedCapability) {
-    	
-    		// If devicePool is found in requested capabilities then more likely deviceName=ANY for QPS_GGR usage
-    		if(requestedCapability.containsKey(DEVICE_POOL)) {
-    			requestedCapability.put(DEVICE_NAME, requestedCapability.get(DEVICE_POOL));
-		}
-    	
-        for (String key : requestedCapability.keySet()) {
-            String expectedValue = requestedCapability.get(key) != null ? requestedCapability.get(key).toString()
-                    : null;
-
-            String actualValue = (nodeCapability.containsKey(key) && nodeCapability.get(key) != null)
-                    ? nodeCapability.get(key).toString()
-                    : null;
-
-            if (!("ANY".equalsIgnoreCase(expectedValue) || "".equals(expectedValue) || "*".equals(expectedValue))) {
-                switch (key) {
-                case PLATFORM_NAME:
-                    if (actualValue != null && !StringUtils.equalsIgnoreCase(actualValue, expectedValue)) {
-                        return false;
-                    }
-                    break;
-                case PLATFORM_VERSION:
-                    if (actualValue != null) {
-                        // Limited interval: 6.1.1-7.0
-                        if (expectedValue.matches("(\\d+\\.){0,}(\\d+)-(\\d+\\.){0,}(\\d+)$")) {
-                            PlatformVersion actPV = new PlatformVersion(actualValue);
-                            PlatformVersion minPV = new PlatformVersion(expectedValue.split("-")[0]);
-                            PlatformVersion maxPV = new PlatformVersion(expectedValue.split("-")[1]);
-
-                            if (actPV.compareTo(minPV) < 0 || actPV.compareTo(maxPV) > 0) {
-                                return false;
-                            }
-                        }
-                        // Unlimited interval: 6.0+
-                        else if (expectedValue.matches("(\\d+\\.){0,}(\\d+)\\+$")) {
-                            PlatformVersion actPV = new PlatformVersion(actualValue);
-                            PlatformVersion minPV = new PlatformVersion(expectedValue.replace("+", ""));
-
-                            if (actPV.compareTo(minPV) < 0) {
-                                return false;
-                            }
-                        }
-                        // Multiple versions: 6.1,7.0
-                        else if (expectedValue.matches("(\\d+\\.){0,}(\\d+,)+(\\d+\\.){0,}(\\d+)$")) {
-                            boolean matches = false;
-                            for (String version : expectedValue.split(",")) {
-                                if (new PlatformVersion(version).compareTo(new PlatformVersion(actualValue)) == 0) {
-                                    matches = true;
-                                    break;
-                                }
-                            }
-                            if (!matches) {
-                                return false;
-                            }
-                        }
-                        // Exact version: 7.0
-                        else if (expectedValue.matches("(\\d+\\.){0,}(\\d+)$")) {
-                            if (new PlatformVersion(expectedValue).compareTo(new PlatformVersion(actualValue)) != 0) {
-                                return false;
-                            }
-                        } else {
-                            return false;
-                        }
-                    }
-                    break;
-                case DEVICE_NAME:
-                    if (actualValue != null && !Arrays.asList(expectedValue.split(",")).contains(actualValue)) {
-                        return false;
-                    }
-                    break;
-                case DEVICE_TYPE:
-                    if (actualValue != null && !StringUtils.equalsIgnoreCase(actualValue, expectedValue)) {
-                        return false;
-                    }
-                    break;
-                case UDID:
-                    if (actualValue != null && !Arrays.asList(expectedValue.split(",")).contains(actualValue)) {
-                        return false;
+    public static RequestMatcher compile(Map<String, Object> requestedCapability) {
+        return new RequestMatcher(requestedCapability);
+    }
+
+    /**
+     * Requested mobile capabilities compiled once per request: version ranges are parsed, device names and udids are
+     * collected into sets.
+     */
+    public static final class RequestMatcher {
+        private final WeakReference<Map<String, Object>> source;
+        private final Object[] sourceValues = new Object[MOBILE_KEYS.length];
+
+        private final boolean mobile;
+        private final boolean platformNameRequested;
+        private final String platformName;
+        private final boolean platformVersionRequested;
+        private final VersionRange[] versions;
+        private final boolean deviceNameRequested;
+        private final Set<String> deviceNames;
+        private final boolean deviceTypeRequested;
+        private final String deviceType;
+        private final boolean udidRequested;
+        private final Set<String> udids;
+
+        private RequestMatcher(Map<String, Object> requestedCapability) {
+            this.source = new WeakReference<Map<String, Object>>(requestedCapability);
+            for (int i = 0; i < MOBILE_KEYS.length; i++) {
+                sourceValues[i] = requestedCapability.get(MOBILE_KEYS[i]);
+            }
+
+            this.mobile = requestedCapability.containsKey(PLATFORM_NAME) || requestedCapability.containsKey(PLATFORM_VERSION)
+                    || requestedCapability.containsKey(DEVICE_NAME) || requestedCapability.containsKey(UDID)
+                    || requestedCapability.containsKey(DEVICE_POOL);
+
+            // If devicePool is found in requested capabilities then more likely deviceName=ANY for QPS_GGR usage
+            String deviceNameKey = requestedCapability.containsKey(DEVICE_POOL) ? DEVICE_POOL : DEVICE_NAME;
+
+            this.platformNameRequested = isRequested(requestedCapability, PLATFORM_NAME);
+            this.platformName = getValue(requestedCapability, PLATFORM_NAME);
+            this.platformVersionRequested = isRequested(requestedCapability, PLATFORM_VERSION);
+            this.versions = platformVersionRequested ? parseVersions(getValue(requestedCapability, PLATFORM_VERSION)) : null;
+            this.deviceNameRequested = isRequested(requestedCapability, deviceNameKey);
+            this.deviceNames = toSet(getValue(requestedCapability, deviceNameKey));
+            this.deviceTypeRequested = isRequested(requestedCapability, DEVICE_TYPE);
+            this.deviceType = getValue(requestedCapability, DEVICE_TYPE);
+            this.udidRequested = isRequested(requestedCapability, UDID);
+            this.udids = toSet(getValue(requestedCapability, UDID));
+        }
+
+        boolean isCompiledFrom(Map<String, Object> requestedCapability) {
+            if (source.get() != requestedCapability) {
+                return false;
+            }
+            // request might be modified after compilation
+            for (int i = 0; i < MOBILE_KEYS.length; i++) {
+                if (requestedCapability.get(MOBILE_KEYS[i]) != sourceValues[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public boolean isMobile() {
+            return mobile;
+        }
+
+        /**
+         * Verifies matching between requested and actual node capabilities.
+         * 
+         * @param nodeCapability
+         *            - Selenium node capabilities
+         * @return match results
+         */
+        public boolean matches(Map<String, Object> nodeCapability) {
+            String actualValue = getValue(nodeCapability, PLATFORM_NAME);
+            if (platformNameRequested && actualValue != null && !StringUtils.equalsIgnoreCase(actualValue, platformName)) {
+                return false;
+            }
+
+            actualValue = getValue(nodeCapability, PLATFORM_VERSION);
+            if (platformVersionRequested && actualValue != null && !matchesVersion(new PlatformVersion(actualValue))) {
+                return false;
+            }
+
+            actualValue = getValue(nodeCapability, DEVICE_NAME);
+            if (deviceNameRequested && actualValue != null && !deviceNames.contains(actualValue)) {
+                return false;
+            }
+
+            actualValue = getValue(nodeCapability, DEVICE_TYPE);
+            if (deviceTypeRequested && actualValue != null && !StringUtils.equalsIgnoreCase(actualValue, deviceType)) {
+                return false;
+            }
+
+            actualValue = getValue(nodeCapability, UDID);
+            if (udidRequested && actualValue != null && !udids.contains(actualValue)) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Checks whether node with given platform name, major platform version and device type could match the request.
+         * Null values stand for capabilities absent on the node, such node matches any requested value.
+         */
+        boolean mayMatch(String actualPlatformName, Integer actualMajorVersion, String actualDeviceType) {
+            if (platformNameRequested && actualPlatformName != null && !StringUtils.equalsIgnoreCase(actualPlatformName, platformName)) {
+                return false;
+            }
+            if (deviceTypeRequested && actualDeviceType != null && !StringUtils.equalsIgnoreCase(actualDeviceType, deviceType)) {
+                return false;
+            }
+            if (platformVersionRequested && actualMajorVersion != null) {
+                if (versions == null) {
+                    return false;
+                }
+                for (VersionRange version : versions) {
+                    if (version.containsMajor(actualMajorVersion)) {
+                        return true;
                     }
-                    break;
-                default:
-                    break;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        private boolean matchesVersion(PlatformVersion actual) {
+            if (versions == null) {
+                // unsupported version format
+                return false;
+            }
+            for (VersionRange version : versions) {
+                if (version.contains(actual)) {
+                    return true;
                 }
             }
+            return false;
+        }
+
+        private static boolean isRequested(Map<String, Object> requestedCapability, String key) {
+            if (!requestedCapability.containsKey(key)) {
+                return false;
+            }
+            String expectedValue = getValue(requestedCapability, key);
+            return !("ANY".equalsIgnoreCase(expectedValue) || "".equals(expectedValue) || "*".equals(expectedValue));
+        }
+
+        private static String getValue(Map<String, Object> capability, String key) {
+            Object value = capability.get(key);
+            return value != null ? value.toString() : null;
         }
 
-        return true;
+        private static Set<String> toSet(String value) {
+            if (value == null) {
+                return Collections.emptySet();
+            }
+            return new HashSet<String>(Arrays.asList(value.split(",")));
+        }
+
+        private static VersionRange[] parseVersions(String expectedValue) {
+            if (expectedValue == null) {
+                return null;
+            }
+            Matcher matcher = VERSION_RANGE.matcher(expectedValue);
+            if (matcher.matches()) {
+                return new VersionRange[] {
+                        new VersionRange(new PlatformVersion(matcher.group(1)), new PlatformVersion(matcher.group(4))) };
+            }
+            matcher = VERSION_MIN.matcher(expectedValue);
+            if (matcher.matches()) {
+                return new VersionRange[] { new VersionRange(new PlatformVersion(matcher.group(1)), null) };
+            }
+            if (VERSION_LIST.matcher(expectedValue).matches() || VERSION.matcher(expectedValue).matches()) {
+                String[] list = expectedValue.split(",");
+                VersionRange[] versions = new VersionRange[list.length];
+                for (int i = 0; i < list.length; i++) {
+                    PlatformVersion version = new PlatformVersion(list[i]);
+                    versions[i] = new VersionRange(version, version);
+                }
+                return versions;
+            }
+            return null;
+        }
+    }
+
+    private static final class VersionRange {
+        private final PlatformVersion min;
+        private final PlatformVersion max;
+
+        VersionRange(PlatformVersion min, PlatformVersion max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        boolean contains(PlatformVersion version) {
+            return version.compareTo(min) >= 0 && (max == null || version.compareTo(max) <= 0);
+        }
+
+        boolean containsMajor(int major) {
+            return major >= min.getVersion()[0] && (max == null || major <= max.getVersion()[0]);
+        }
     }
 
-    public class PlatformVersion implements Comparable<PlatformVersion> {
+    public static class PlatformVersion implements Comparable<PlatformVersion> {
         private int[] version;
 
         public PlatformVersion(String v) {
-            if (v != null && v.matches("(\\d+\\.){0,}(\\d+)$")) {
+            if (v != null && VERSION.matcher(v).matches()) {
                 String[] digits = v.split("\\.");
                 this.version = new int[digits.length];
                 for (int i = 0; i < digits.length; i++) {
@@ -15,8 +15,10 @@
  *******************************************************************************/
 package com.qaprosoft.carina.grid;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang3.StringUtils;
@@ -38,8 +40,17 @@ public class MobileRemoteProxy extends DefaultRemoteProxy {
 
     private static final Logger LOGGER = Logger.getLogger(MobileRemoteProxy.class.getName());
 
+    private static final String DEVICE_NAME = "deviceName";
+    private static final String DEVICE_POOL = "devicePool";
+
+    // free slots of all the mobile proxies registered in hub
+    private static final FreeSlotIndex<TestSlot> FREE_SLOTS = new FreeSlotIndex<TestSlot>();
+
     public MobileRemoteProxy(RegistrationRequest request, GridRegistry registry) {
         super(request, registry);
+        for (TestSlot testslot : getTestSlots()) {
+            FREE_SLOTS.add(testslot, testslot.getCapabilities());
+        }
     }
 
     @Override
@@ -51,6 +62,13 @@ public class MobileRemoteProxy extends DefaultRemoteProxy {
             return null;
         }
 
+        // free slots which can't match requested platform, version and device type are not verified at all
+        Set<TestSlot> candidates = FREE_SLOTS.getCandidates(requestedCapability);
+        if (candidates != null && Collections.disjoint(getTestSlots(), candidates)) {
+            LOGGER.fine("Node " + this + " has no free slots for requested capabilities");
+            return null;
+        }
+
         if (!hasCapability(requestedCapability)) {
             LOGGER.fine("Node " + this + " has no matching capability");
             return null;
@@ -64,16 +82,23 @@ public class MobileRemoteProxy extends DefaultRemoteProxy {
 
         // any slot left for the given app ?
         for (TestSlot testslot : getTestSlots()) {
+            if (candidates != null && !candidates.contains(testslot)) {
+                continue;
+            }
 
 			// Check if device is busy in STF
-			if (STF.isSTFRequired(testslot.getCapabilities(), requestedCapability)
-					&& !STF.isDeviceAvailable((String) testslot.getCapabilities().get("udid"))) {
+			boolean stfRequired = STF.isSTFRequired(testslot.getCapabilities(), requestedCapability);
+			if (stfRequired && !STF.isDeviceAvailable((String) testslot.getCapabilities().get("udid"))) {
 				return null;
 			}
             
             TestSession session = testslot.getNewSession(requestedCapability);
 
 			if (session != null) {
+				if (stfRequired) {
+					// reservation is started right away and awaited in beforeSession outside of hub matching
+					STF.reserveDeviceAsync((String) testslot.getCapabilities().get("udid"));
+				}
 				return session;
 			}
         }
@@ -83,10 +108,19 @@ public class MobileRemoteProxy extends DefaultRemoteProxy {
     @Override
     public void beforeSession(TestSession session) {
         super.beforeSession(session);
+        FREE_SLOTS.remove(session.getSlot());
+
+        // If devicePool is found in requested capabilities then more likely deviceName=ANY for QPS_GGR usage
+        Map<String, Object> requestedCapability = session.getRequestedCapabilities();
+        if (requestedCapability.containsKey(DEVICE_POOL)) {
+            requestedCapability.put(DEVICE_NAME, requestedCapability.get(DEVICE_POOL));
+        }
         
         String udid = String.valueOf(session.getSlot().getCapabilities().get("udid"));
         if (STF.isSTFRequired(session.getSlot().getCapabilities(), session.getRequestedCapabilities())) {
-            STF.reserveDevice(udid);
+            if (!STF.reserveDevice(udid)) {
+                LOGGER.info("STF device is not reserved: " + udid);
+            }
             //session.getRequestedCapabilities().put("slotCapabilities", getSlotCapabilities(session, udid));
         }
         
@@ -99,11 +133,20 @@ public class MobileRemoteProxy extends DefaultRemoteProxy {
     @Override
     public void afterSession(TestSession session) {
         super.afterSession(session);
+        FREE_SLOTS.add(session.getSlot(), session.getSlot().getCapabilities());
         if (STF.isSTFRequired(session.getSlot().getCapabilities(), session.getRequestedCapabilities())) {
             STF.returnDevice(String.valueOf(session.getSlot().getCapabilities().get("udid")));
         }
     }
-    
+
+    @Override
+    public void teardown() {
+        super.teardown();
+        for (TestSlot testslot : getTestSlots()) {
+            FREE_SLOTS.unregister(testslot);
+        }
+    }
+
 	private Map<String, Object> getSlotCapabilities(TestSession session, String udid) {
 		//obligatory create new map as original object is UnmodifiableMap
 		Map<String, Object> slotCapabilities = new HashMap<String, Object>();
@@ -20,11 +20,11 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
 import com.qaprosoft.carina.grid.Platform;
 import com.qaprosoft.zafira.client.STFClient;
-import com.qaprosoft.zafira.models.stf.Devices;
 import com.qaprosoft.zafira.models.stf.Response;
 import com.qaprosoft.zafira.models.stf.STFDevice;
 
@@ -38,10 +38,24 @@ public class STF {
 
     private static final Long STF_TIMEOUT = 3600L;
 
+    private static final long DEFAULT_DEVICES_MAX_AGE = 5000L;
+
+    // STF calls are executed asynchronously with limited concurrency, timeouts and retries
+    private static final int STF_THREADS = 10;
+    private static final long STF_CALL_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final int STF_ATTEMPTS = 3;
+    private static final long STF_RETRY_DELAY = TimeUnit.SECONDS.toMillis(1);
+    private static final long STF_RESERVATION_WAIT = TimeUnit.SECONDS.toMillis(120);
+    private static final long STF_RECONCILIATION_PERIOD = TimeUnit.MINUTES.toMillis(1);
+
     private static boolean running = false;
 
     private STFClient client;
 
+    private STFDevices devices;
+
+    private STFReservations reservations;
+
     public final static STF INSTANCE = new STF();
 
     private STF() {
@@ -54,6 +68,13 @@ public class STF {
             if (this.client.getAllDevices().getStatus() == 200) {
                 running = true;
                 LOGGER.info("STF connection established");
+                long maxAge = NumberUtils.toLong(System.getProperty(SpecialKeywords.STF_DEVICES_MAX_AGE), DEFAULT_DEVICES_MAX_AGE);
+                this.devices = new STFDevices(client, maxAge);
+                this.devices.refresh();
+                this.devices.start();
+                this.reservations = new STFReservations(client, devices, TimeUnit.SECONDS.toMillis(STF_TIMEOUT), STF_THREADS,
+                        STF_CALL_TIMEOUT, STF_ATTEMPTS, STF_RETRY_DELAY);
+                this.reservations.start(STF_RECONCILIATION_PERIOD);
             } else {
                 LOGGER.info("STF connection error");
             }
@@ -68,37 +89,18 @@ public class STF {
     }
 
     /**
-     * Checks availability status in STF.
+     * Checks availability status using the latest STF devices snapshot refreshed in background.
      * 
      * @param udid
      *            - device UDID
      * @return returns availability status
      */
     public static boolean isDeviceAvailable(String udid) {
-        boolean available = false;
-        if (isRunning()) {
-            try {
-                Response<Devices> rs = INSTANCE.client.getAllDevices();
-                if (rs.getStatus() == 200) {
-                    for (STFDevice device : rs.getObject().getDevices()) {
-                        if (udid.equals(device.getSerial())) {
-                            available = device.getPresent() && device.getReady() && !device.getUsing()
-                                    && device.getOwner() == null;
-                            break;
-                        }
-                    }
-                } else {
-                    LOGGER.info("Unable to get devices status HTTP status: " + rs.getStatus());
-                }
-            } catch (Exception e) {
-                LOGGER.info("Unable to get devices status HTTP status via udid: " + udid);
-            }
-        }
-        return available;
+        return isRunning() && INSTANCE.devices.isDeviceAvailable(udid);
     }
 
     /**
-     * Gets STF device info.
+     * Gets STF device info. Info of reserved devices is cached.
      * 
      * @param udid
      *            - device UDID
@@ -107,6 +109,10 @@ public class STF {
     public static STFDevice getDevice(String udid) {
         STFDevice device = null;
         if (isRunning()) {
+            device = INSTANCE.reservations.getReservedDevice(udid);
+            if (device != null) {
+                return device;
+            }
             try {
                 Response<STFDevice> rs = INSTANCE.client.getDevice(udid);
                 if (rs.getStatus() == 200) {
@@ -120,31 +126,34 @@ public class STF {
     }
 
     /**
-     * Connects to remote device.
+     * Starts device reservation and remote connection in background.
+     * 
+     * @param udid
+     *            - device UDID
+     */
+    public static void reserveDeviceAsync(String udid) {
+        INSTANCE.reservations.reserve(udid);
+    }
+
+    /**
+     * Connects to remote device waiting for reservation no longer than reservation timeout.
      * 
      * @param udid
      *            - device UDID
      * @return status of connected device
      */
     public static boolean reserveDevice(String udid) {
-        boolean status = INSTANCE.client.reserveDevice(udid, TimeUnit.SECONDS.toMillis(STF_TIMEOUT));
-        if (status) {
-            status = INSTANCE.client.remoteConnectDevice(udid).getStatus() == 200;
-        }
-        return status;
+        return INSTANCE.reservations.awaitReservation(udid, STF_RESERVATION_WAIT);
     }
 
     /**
-     * Disconnects STF device.
+     * Disconnects STF device in background if it was reserved. Devices which failed to be returned are returned later.
      * 
      * @param udid
      *            - device UDID
-     * @return status of returned device
      */
-    public static boolean returnDevice(String udid) {
-        // it seems like return and remote disconnect guarantee that device becomes free
-        // asap
-        return INSTANCE.client.remoteDisconnectDevice(udid) && INSTANCE.client.returnDevice(udid);
+    public static void returnDevice(String udid) {
+        INSTANCE.reservations.release(udid);
     }
 
     /**
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid.integration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.qaprosoft.zafira.client.STFClient;
+import com.qaprosoft.zafira.models.stf.Devices;
+import com.qaprosoft.zafira.models.stf.Response;
+import com.qaprosoft.zafira.models.stf.STFDevice;
+
+/**
+ * Udid-indexed snapshot of STF devices refreshed in background, so that slot matching never waits for STF.
+ * Snapshot older than max age is not trusted and all devices are treated as busy until the next refresh succeeds.
+ */
+public class STFDevices {
+    private static Logger LOGGER = Logger.getLogger(STFDevices.class.getName());
+
+    private final STFClient client;
+    private final long maxAge;
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.<String, STFDevice> emptyMap(), 0);
+
+    // devices reserved or returned after snapshot request was sent, value is invalidation sequence number
+    private final Map<String, Long> invalidated = new ConcurrentHashMap<String, Long>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // refresh requested by matching thread but not started yet
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stf-devices");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param client
+     *            - STF client
+     * @param maxAge
+     *            - max age of snapshot in milliseconds
+     */
+    public STFDevices(STFClient client, long maxAge) {
+        this.client = client;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Starts background refresh of the snapshot twice per max age.
+     */
+    public void start() {
+        long period = Math.max(maxAge / 2, 1);
+        executor.scheduleWithFixedDelay(this::refresh, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks availability status using the latest snapshot. Never calls STF in the current thread.
+     * 
+     * @param udid
+     *            - device UDID
+     * @return returns availability status
+     */
+    public boolean isDeviceAvailable(String udid) {
+        if (invalidated.containsKey(udid)) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        if (System.currentTimeMillis() - current.time > maxAge) {
+            requestRefresh();
+            return false;
+        }
+        STFDevice device = current.devices.get(udid);
+        return device != null && Boolean.TRUE.equals(device.getPresent()) && Boolean.TRUE.equals(device.getReady())
+                && !Boolean.TRUE.equals(device.getUsing()) && device.getOwner() == null;
+    }
+
+    /**
+     * Marks device as busy when it is reserved or returned until STF reports its new state. The snapshot itself is
+     * never modified here, so concurrent invalidations can't overwrite each other.
+     * 
+     * @param udid
+     *            - device UDID
+     */
+    public void invalidate(String udid) {
+        invalidated.put(udid, invalidations.incrementAndGet());
+        requestRefresh();
+    }
+
+    /**
+     * Loads devices from STF in the current thread. Background refresh is executed in a single thread so requests
+     * to STF never overlap.
+     */
+    public void refresh() {
+        long started = System.currentTimeMillis();
+        long sequence = invalidations.get();
+        try {
+            Response<Devices> rs = client.getAllDevices();
+            if (rs == null || rs.getStatus() != 200) {
+                LOGGER.info("Unable to get devices status HTTP status: " + (rs != null ? rs.getStatus() : null));
+                return;
+            }
+            Map<String, STFDevice> devices = new HashMap<String, STFDevice>();
+            for (STFDevice device : rs.getObject().getDevices()) {
+                if (device.getSerial() != null) {
+                    devices.put(device.getSerial(), device);
+                }
+            }
+            snapshot = new Snapshot(devices, started);
+            // snapshot is published first so that devices are never seen free between the two updates; state of
+            // devices invalidated while request was in progress is unknown yet
+            invalidated.values().removeIf(invalidation -> invalidation <= sequence);
+        } catch (Exception e) {
+            LOGGER.info("Unable to get devices status: " + e.getMessage());
+        }
+    }
+
+    private void requestRefresh() {
+        if (pending.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    pending.set(false);
+                    refresh();
+                });
+            } catch (Exception e) {
+                pending.set(false);
+                LOGGER.fine("Devices refresh is not scheduled: " + e.getMessage());
+            }
+        }
+    }
+
+    private static class Snapshot {
+        private final Map<String, STFDevice> devices;
+        private final long time;
+
+        Snapshot(Map<String, STFDevice> devices, long time) {
+            this.devices = devices;
+            this.time = time;
+        }
+    }
+}
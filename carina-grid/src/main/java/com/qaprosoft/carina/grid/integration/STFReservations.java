@@ -0,0 +1,408 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid.integration;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import com.qaprosoft.zafira.client.STFClient;
+import com.qaprosoft.zafira.models.stf.Response;
+import com.qaprosoft.zafira.models.stf.STFDevice;
+
+/**
+ * Reserves and returns STF devices in a bounded thread pool so that hub threads never wait for STF longer than the
+ * given timeout. Every STF call has its own timeout and is retried with exponential backoff and random jitter, calls
+ * which change device state are not retried after timeout because they may still succeed in STF.
+ * Reservations are cached per udid. Only devices reserved in STF are returned, devices which failed to be returned are
+ * returned by reconciliation loop until {@link #MAX_RETURN_ATTEMPTS} attempts are made, after that STF releases them
+ * itself when reservation time expires.
+ */
+public class STFReservations {
+    private static Logger LOGGER = Logger.getLogger(STFReservations.class.getName());
+
+    // max number of returns of the same device including the ones done by reconciliation loop
+    static final int MAX_RETURN_ATTEMPTS = 5;
+
+    private final STFClient client;
+    private final STFDevices devices;
+
+    private final long reservationTime;
+    private final long callTimeout;
+    private final int attempts;
+    private final long retryDelay;
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, CompletableFuture<STFDevice>> reservations = new ConcurrentHashMap<String, CompletableFuture<STFDevice>>();
+    private final Map<String, CompletableFuture<Boolean>> returns = new ConcurrentHashMap<String, CompletableFuture<Boolean>>();
+    // udid -> number of failed returns
+    private final Map<String, Integer> unreturned = new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * @param client
+     *            - STF client
+     * @param devices
+     *            - devices snapshot to invalidate on reservation and return, may be null
+     * @param reservationTime
+     *            - reservation time in milliseconds
+     * @param threads
+     *            - max number of concurrent STF calls
+     * @param callTimeout
+     *            - timeout of a single STF call in milliseconds
+     * @param attempts
+     *            - max number of attempts for every STF call
+     * @param retryDelay
+     *            - base delay between attempts in milliseconds
+     */
+    public STFReservations(STFClient client, STFDevices devices, long reservationTime, int threads, long callTimeout,
+            int attempts, long retryDelay) {
+        this.client = client;
+        this.devices = devices;
+        this.reservationTime = reservationTime;
+        this.callTimeout = callTimeout;
+        this.attempts = attempts;
+        this.retryDelay = retryDelay;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "stf-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stf-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts reconciliation loop which returns devices failed to be returned.
+     * 
+     * @param period
+     *            - reconciliation period in milliseconds
+     */
+    public void start(long period) {
+        scheduler.scheduleWithFixedDelay(this::reconcile, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts reservation and remote connection of device unless it is already reserved. Reservation waits for
+     * previous return of the same device.
+     * 
+     * @param udid
+     *            - device UDID
+     * @return reserved device info, device is null if STF doesn't provide it
+     */
+    public CompletableFuture<STFDevice> reserve(String udid) {
+        CompletableFuture<STFDevice> reservation = new CompletableFuture<STFDevice>();
+        CompletableFuture<STFDevice> existing = reservations.putIfAbsent(udid, reservation);
+        if (existing != null) {
+            return existing;
+        }
+        invalidate(udid);
+        unreturned.remove(udid);
+
+        CompletableFuture<Boolean> previous = returns.get(udid);
+        CompletableFuture<?> returned = previous != null ? previous : CompletableFuture.completedFuture(true);
+        AtomicBoolean reserved = new AtomicBoolean();
+        returned.handle((status, e) -> null)
+                .thenCompose(x -> call("reserve " + udid, () -> reserveDevice(udid), false))
+                .thenCompose(x -> {
+                    reserved.set(true);
+                    return call("connect " + udid, () -> connectDevice(udid), false);
+                })
+                .thenCompose(x -> call("get " + udid, () -> getDevice(udid), true))
+                .whenComplete((device, e) -> {
+                    if (e != null) {
+                        // failed reservation is not cached so the next session tries again
+                        if (reserved.get()) {
+                            // device is reserved in STF but can't be used, return is registered before reservation
+                            // is forgotten so that the next reservation waits for it
+                            registerReturn(udid, tryReturn(udid, 0));
+                        } else if (unwrap(e) instanceof CallTimeoutException) {
+                            // timed out reservation may still succeed in STF
+                            registerReturn(udid, returnAfter(udid, ((CallTimeoutException) unwrap(e)).call));
+                        }
+                        reservations.remove(udid, reservation);
+                        invalidate(udid);
+                        reservation.completeExceptionally(unwrap(e));
+                    } else {
+                        reservation.complete(device);
+                    }
+                });
+        return reservation;
+    }
+
+    /**
+     * Waits for device reservation.
+     * 
+     * @param udid
+     *            - device UDID
+     * @param timeout
+     *            - max time to wait in milliseconds
+     * @return reservation status
+     */
+    public boolean awaitReservation(String udid, long timeout) {
+        try {
+            reserve(udid).get(timeout, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            LOGGER.info("STF device is not reserved in " + timeout + " ms: " + udid);
+        } catch (ExecutionException e) {
+            LOGGER.info("Unable to reserve STF device " + udid + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Returns cached info of reserved device.
+     * 
+     * @param udid
+     *            - device UDID
+     * @return device or null if device is not reserved yet
+     */
+    public STFDevice getReservedDevice(String udid) {
+        CompletableFuture<STFDevice> reservation = reservations.get(udid);
+        if (reservation == null || !reservation.isDone() || reservation.isCompletedExceptionally()) {
+            return null;
+        }
+        return reservation.join();
+    }
+
+    public boolean isReserved(String udid) {
+        return reservations.containsKey(udid);
+    }
+
+    /**
+     * Disconnects and returns device without waiting for STF. Return waits for reservation in progress and is skipped
+     * if device was not reserved. Devices which failed to be returned are returned later by reconciliation loop.
+     * 
+     * @param udid
+     *            - device UDID
+     * @return return status, false if device was not reserved or was not returned
+     */
+    public CompletableFuture<Boolean> release(String udid) {
+        CompletableFuture<STFDevice> reservation = reservations.get(udid);
+        if (reservation == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        // device reserved in STF by failed reservation is returned by reserve() itself
+        CompletableFuture<Boolean> released = reservation.handle((device, e) -> e == null)
+                .thenCompose(reserved -> reserved ? tryReturn(udid, 0) : CompletableFuture.completedFuture(false));
+        // return is registered before reservation is forgotten so that the next reservation waits for it
+        registerReturn(udid, released);
+        reservations.remove(udid, reservation);
+        return released;
+    }
+
+    /**
+     * Returns devices which failed to be returned and were not reserved again since then.
+     */
+    public void reconcile() {
+        for (Map.Entry<String, Integer> entry : unreturned.entrySet()) {
+            String udid = entry.getKey();
+            if (reservations.containsKey(udid) || returns.containsKey(udid)) {
+                continue;
+            }
+            LOGGER.info("Returning STF device: " + udid);
+            registerReturn(udid, tryReturn(udid, entry.getValue()));
+        }
+    }
+
+    public Set<String> getUnreturned() {
+        return unreturned.keySet();
+    }
+
+    private void registerReturn(String udid, CompletableFuture<Boolean> released) {
+        returns.put(udid, released);
+        released.whenComplete((status, e) -> {
+            returns.remove(udid, released);
+            invalidate(udid);
+        });
+    }
+
+    /**
+     * Returns device once timed out reservation call finishes unless it failed. If the call is still blocked after
+     * one more call timeout the device is returned anyway.
+     */
+    private CompletableFuture<Boolean> returnAfter(String udid, CompletableFuture<?> call) {
+        CompletableFuture<Boolean> possiblyReserved = new CompletableFuture<Boolean>();
+        call.whenComplete((status, e) -> possiblyReserved.complete(e == null));
+        try {
+            scheduler.schedule(() -> possiblyReserved.complete(true), callTimeout, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            possiblyReserved.complete(true);
+        }
+        return possiblyReserved.thenCompose(
+                reserved -> reserved ? tryReturn(udid, 0) : CompletableFuture.completedFuture(false));
+    }
+
+    private CompletableFuture<Boolean> tryReturn(String udid, int failures) {
+        return call("return " + udid, () -> returnDevice(udid), true).handle((status, e) -> {
+            if (e == null) {
+                unreturned.remove(udid);
+                return true;
+            }
+            if (failures + 1 >= MAX_RETURN_ATTEMPTS) {
+                LOGGER.warning("STF device is not returned after " + MAX_RETURN_ATTEMPTS + " attempts: " + udid
+                        + ", it is released by STF when reservation expires");
+                unreturned.remove(udid);
+            } else {
+                LOGGER.info("Unable to return STF device " + udid + ": " + unwrap(e).getMessage());
+                unreturned.put(udid, failures + 1);
+            }
+            return false;
+        });
+    }
+
+    private Boolean reserveDevice(String udid) {
+        if (!client.reserveDevice(udid, reservationTime)) {
+            throw new RuntimeException("STF device is not reserved");
+        }
+        return true;
+    }
+
+    private Boolean connectDevice(String udid) {
+        Response<Void> rs = client.remoteConnectDevice(udid);
+        if (rs == null || rs.getStatus() != 200) {
+            throw new RuntimeException("STF device is not connected, HTTP status: " + (rs != null ? rs.getStatus() : null));
+        }
+        return true;
+    }
+
+    private STFDevice getDevice(String udid) {
+        Response<STFDevice> rs = client.getDevice(udid);
+        if (rs == null) {
+            throw new RuntimeException("STF device info is not received");
+        }
+        return rs.getStatus() == 200 ? rs.getObject() : null;
+    }
+
+    private Boolean returnDevice(String udid) {
+        // it seems like return and remote disconnect guarantee that device becomes free asap
+        client.remoteDisconnectDevice(udid);
+        if (!client.returnDevice(udid)) {
+            throw new RuntimeException("STF device is not returned");
+        }
+        return true;
+    }
+
+    private void invalidate(String udid) {
+        if (devices != null) {
+            devices.invalidate(udid);
+        }
+    }
+
+    /**
+     * @param operation
+     *            - operation name for logging
+     * @param call
+     *            - STF call
+     * @param idempotent
+     *            - whether call may be retried after timeout while the previous attempt is still in progress
+     * @return call result
+     */
+    private <T> CompletableFuture<T> call(String operation, Supplier<T> call, boolean idempotent) {
+        CompletableFuture<T> result = new CompletableFuture<T>();
+        attempt(operation, call, idempotent, 1, result);
+        return result;
+    }
+
+    private <T> void attempt(String operation, Supplier<T> call, boolean idempotent, int attempt,
+            CompletableFuture<T> result) {
+        CompletableFuture<T> task;
+        try {
+            task = CompletableFuture.supplyAsync(call, executor);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        // STF client has no HTTP timeouts, so blocked call keeps its thread but the caller doesn't wait for it
+        CompletableFuture<T> current = new CompletableFuture<T>();
+        task.whenComplete((value, e) -> {
+            if (e == null) {
+                current.complete(value);
+            } else {
+                current.completeExceptionally(unwrap(e));
+            }
+        });
+        ScheduledFuture<?> timer = scheduler.schedule(
+                () -> current.completeExceptionally(new CallTimeoutException(callTimeout, task)),
+                callTimeout, TimeUnit.MILLISECONDS);
+        current.whenComplete((value, e) -> {
+            timer.cancel(false);
+            if (e == null) {
+                result.complete(value);
+            } else if (attempt >= attempts || scheduler.isShutdown()
+                    || (!idempotent && e instanceof TimeoutException)) {
+                result.completeExceptionally(unwrap(e));
+            } else {
+                // exponential backoff with full jitter spreads retries of many devices after STF failure
+                long delay = 1 + ThreadLocalRandom.current().nextLong(retryDelay << (attempt - 1));
+                LOGGER.fine("STF " + operation + " failed (attempt " + attempt + "): " + unwrap(e).getMessage()
+                        + ", retrying in " + delay + " ms");
+                try {
+                    scheduler.schedule(() -> attempt(operation, call, idempotent, attempt + 1, result), delay,
+                            TimeUnit.MILLISECONDS);
+                } catch (Exception ex) {
+                    result.completeExceptionally(unwrap(e));
+                }
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * Timeout of STF call which is still in progress.
+     */
+    private static class CallTimeoutException extends TimeoutException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CompletableFuture<?> call;
+
+        CallTimeoutException(long timeout, CompletableFuture<?> call) {
+            super("STF call timed out in " + timeout + " ms");
+            this.call = call;
+        }
+    }
+}
@@ -16,7 +16,9 @@
 package com.qaprosoft.carina.grid.servlets;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -28,9 +30,9 @@ import org.openqa.grid.internal.GridRegistry;
 import org.openqa.grid.internal.TestSession;
 import org.openqa.grid.web.servlet.RegistryBasedServlet;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.qaprosoft.carina.commons.models.RemoteDevice;
 import com.qaprosoft.carina.grid.integration.STF;
+import com.qaprosoft.carina.grid.servlets.JsonResponseCache.CachedResponse;
 import com.qaprosoft.zafira.models.stf.STFDevice;
 
 /**
@@ -41,6 +43,11 @@ import com.qaprosoft.zafira.models.stf.STFDevice;
 public class DeviceInfo extends RegistryBasedServlet {
     private static final long serialVersionUID = -4451997550655113756L;
 
+    private static final long DEVICE_INFO_TTL = TimeUnit.SECONDS.toMillis(5);
+
+    // device info is polled by dashboards so it is cached per udid
+    private static final JsonResponseCache DEVICES = new JsonResponseCache(DEVICE_INFO_TTL);
+
     public DeviceInfo() {
         this(null);
     }
@@ -71,29 +78,32 @@ public class DeviceInfo extends RegistryBasedServlet {
             if (session != null) {
                 Map<String, Object> cap = session.getSlot().getCapabilities();
                 if (cap.containsKey("udid")) {
-                    RemoteDevice device = new RemoteDevice();
-                    device.setName((String) cap.get("deviceName"));
-                    device.setOs((String) cap.get("platformName"));
-                    device.setOsVersion((String) cap.get("platformVersion"));
-                    device.setType((String) cap.get("deviceType"));
-                    device.setUdid((String) cap.get("udid"));
-                    if(cap.containsKey("vnc")) {
-                    		device.setVnc((String) cap.get("vnc"));
-                    }
-                    if(cap.containsKey("proxy_port")) {
-                    		device.setProxyPort(String.valueOf(cap.get("proxy_port")));
-                    }
-
-                    STFDevice stfDevice = STF.getDevice(device.getUdid());
-                    if (stfDevice != null) {
-                        device.setRemoteURL((String) stfDevice.getRemoteConnectUrl());
-                    }
-
-                    response.setStatus(HttpStatus.SC_OK);
-                    response.getWriter().print(new ObjectMapper().writeValueAsString(device));
-                    response.getWriter().close();
+                    String udid = (String) cap.get("udid");
+                    // STF is asked for the remote URL only when cached info is expired
+                    CachedResponse device = DEVICES.get(udid, () -> {
+                        STFDevice stfDevice = STF.getDevice(udid);
+                        return Arrays.asList(cap, stfDevice != null ? stfDevice.getRemoteConnectUrl() : null);
+                    }, source -> getDevice(cap, (String) source.get(1)));
+                    device.write(request, response);
                 }
             }
         }
     }
-}
\ No newline at end of file
+
+    private RemoteDevice getDevice(Map<String, Object> cap, String remoteURL) {
+        RemoteDevice device = new RemoteDevice();
+        device.setName((String) cap.get("deviceName"));
+        device.setOs((String) cap.get("platformName"));
+        device.setOsVersion((String) cap.get("platformVersion"));
+        device.setType((String) cap.get("deviceType"));
+        device.setUdid((String) cap.get("udid"));
+        if(cap.containsKey("vnc")) {
+        		device.setVnc((String) cap.get("vnc"));
+        }
+        if(cap.containsKey("proxy_port")) {
+        		device.setProxyPort(String.valueOf(cap.get("proxy_port")));
+        }
+        device.setRemoteURL(remoteURL);
+        return device;
+    }
+}
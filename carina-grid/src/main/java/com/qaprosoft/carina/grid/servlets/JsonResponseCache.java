@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid.servlets;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Short-lived cache of serialized JSON responses with ETag support. Responses are rebuilt when TTL is expired, but
+ * serialized again only if their source data is changed, so clients polling unchanged data always get the same ETag.
+ */
+public class JsonResponseCache {
+    private static final ObjectWriter WRITER = new ObjectMapper().writer();
+
+    private final long ttl;
+    private final Map<String, CachedResponse> responses = new ConcurrentHashMap<String, CachedResponse>();
+
+    /**
+     * @param ttl
+     *            - time to live of cached responses in milliseconds
+     */
+    public JsonResponseCache(long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns cached response or builds a new one.
+     * 
+     * @param key
+     *            - response key
+     * @param source
+     *            - loads source data, it is not called while cached response is alive
+     * @param model
+     *            - converts source data into JSON model, it is not called if source data is not changed
+     * @return response or null if model is null
+     * @throws IOException
+     *             if model can't be serialized
+     */
+    public <S> CachedResponse get(String key, Supplier<S> source, Function<S, Object> model) throws IOException {
+        long now = System.currentTimeMillis();
+        CachedResponse cached = responses.get(key);
+        if (cached != null && now - cached.created < ttl) {
+            return cached;
+        }
+
+        S data = source.get();
+        if (cached != null && Objects.equals(cached.source, data)) {
+            cached = new CachedResponse(data, cached.content, cached.etag, now);
+            responses.put(key, cached);
+            return cached;
+        }
+
+        Object value = model.apply(data);
+        if (value == null) {
+            responses.remove(key);
+            return null;
+        }
+        byte[] content = WRITER.writeValueAsBytes(value);
+        cached = new CachedResponse(data, content, etag(content), now);
+        responses.put(key, cached);
+        return cached;
+    }
+
+    public void invalidate(String key) {
+        responses.remove(key);
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(content);
+            return "\"" + new BigInteger(1, digest).toString(16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Serialized JSON response.
+     */
+    public static class CachedResponse {
+        private final Object source;
+        private final byte[] content;
+        private final String etag;
+        private final long created;
+
+        CachedResponse(Object source, byte[] content, String etag, long created) {
+            this.source = source;
+            this.content = content;
+            this.etag = etag;
+            this.created = created;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Checks whether client already has this response.
+         * 
+         * @param ifNoneMatch
+         *            - value of If-None-Match header
+         * @return true if response is not modified
+         */
+        public boolean isNotModified(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if ("*".equals(tag) || etag.equals(tag) || etag.equals(tag.replaceFirst("^W/", ""))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Writes response body or 304 status if client has the same version of response.
+         * 
+         * @param request
+         *            - HTTP request
+         * @param response
+         *            - HTTP response
+         * @throws IOException
+         *             if response can't be written
+         */
+        public void write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setHeader("ETag", etag);
+            if (isNotModified(request.getHeader("If-None-Match"))) {
+                response.setStatus(HttpStatus.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setStatus(HttpStatus.SC_OK);
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
+            response.getOutputStream().close();
+        }
+    }
+}
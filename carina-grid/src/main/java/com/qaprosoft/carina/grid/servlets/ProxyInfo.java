@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -30,7 +31,6 @@ import org.openqa.grid.internal.GridRegistry;
 import org.openqa.grid.internal.RemoteProxy;
 import org.openqa.grid.web.servlet.RegistryBasedServlet;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Servlet that retrieves information about connected nodes.
@@ -40,7 +40,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class ProxyInfo extends RegistryBasedServlet {
 	private static final long serialVersionUID = 1224921425278259572L;
 	
-	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final long PROXY_INFO_TTL = TimeUnit.SECONDS.toMillis(5);
+
+	private static final String PROXIES = "proxies";
+
+	private static final JsonResponseCache cache = new JsonResponseCache(PROXY_INFO_TTL);
 
 	public ProxyInfo() {
         this(null);
@@ -62,23 +66,22 @@ public class ProxyInfo extends RegistryBasedServlet {
     }
 
     protected void process(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        List<RegistrationRequest> proxies = new ArrayList<>();
-        Iterator<RemoteProxy> itr = this.getRegistry().getAllProxies().iterator();
-        while(itr.hasNext()) {
-        		RemoteProxy proxy = itr.next();
-        		proxies.add(proxy.getOriginalRegistrationRequest());
-        }
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         try {
-        		mapper.writeValue(response.getWriter(), proxies);
-        		response.setStatus(HttpStatus.SC_OK);
+        		// registration requests are not changed while proxy is registered, so the same list is not serialized again
+        		cache.get(PROXIES, () -> {
+        			List<RegistrationRequest> proxies = new ArrayList<>();
+        			Iterator<RemoteProxy> itr = this.getRegistry().getAllProxies().iterator();
+        			while(itr.hasNext()) {
+        				RemoteProxy proxy = itr.next();
+        				proxies.add(proxy.getOriginalRegistrationRequest());
+        			}
+        			return proxies;
+        		}, proxies -> proxies).write(request, response);
         }
         catch (Exception e) {
         		response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
 		}
-        finally {
-        		response.getWriter().close();
-		}
     }
-}
\ No newline at end of file
+}
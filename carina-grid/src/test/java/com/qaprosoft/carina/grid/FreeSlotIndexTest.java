@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FreeSlotIndexTest {
+    private static final String PLATFORM_NAME = "platformName";
+    private static final String PLATFORM_VERSION = "platformVersion";
+    private static final String DEVICE_NAME = "deviceName";
+    private static final String DEVICE_TYPE = "deviceType";
+    private static final String UDID = "udid";
+
+    private MobileCapabilityMatcher matcher = new MobileCapabilityMatcher();
+
+    @Test
+    public void testCandidatesContainAllMatches() {
+        Hub hub = new Hub(1000);
+        String[] requests = { "Android", "iOS", "ANY" };
+        String[] versions = { "12", "6.0+", "7.1-9", "8.0,11.1", "*", "beta" };
+        for (String platform : requests) {
+            for (String version : versions) {
+                Map<String, Object> requestedCapability = new HashMap<>();
+                requestedCapability.put(PLATFORM_NAME, platform);
+                requestedCapability.put(PLATFORM_VERSION, version);
+
+                Set<FakeSlot> candidates = hub.index.getCandidates(requestedCapability);
+                for (FakeSlot slot : hub.slots) {
+                    if (matcher.matches(slot.capabilities, requestedCapability)) {
+                        Assert.assertTrue(candidates.contains(slot), "Matching slot is not a candidate: " + slot.capabilities
+                                + " for " + requestedCapability);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSessionStartAndEnd() {
+        FreeSlotIndex<FakeSlot> index = new FreeSlotIndex<>();
+        FakeSlot slot = new FakeSlot(capabilities("Android", "9.0", "phone", "Pixel_3", "udid1"));
+        index.add(slot, slot.capabilities);
+
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put(PLATFORM_NAME, "ANDROID");
+        requestedCapability.put(PLATFORM_VERSION, "9");
+        Assert.assertTrue(index.getCandidates(requestedCapability).contains(slot));
+
+        index.remove(slot);
+        Assert.assertTrue(index.getCandidates(requestedCapability).isEmpty(), "Busy slot is a candidate");
+
+        index.add(slot, slot.capabilities);
+        Assert.assertTrue(index.getCandidates(requestedCapability).contains(slot), "Released slot is not a candidate");
+
+        index.unregister(slot);
+        Assert.assertTrue(index.getCandidates(requestedCapability).isEmpty(), "Unregistered slot is a candidate");
+    }
+
+    @Test
+    public void testBrowserRequest() {
+        FreeSlotIndex<FakeSlot> index = new FreeSlotIndex<>();
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put("browserName", "chrome");
+        Assert.assertNull(index.getCandidates(requestedCapability));
+    }
+
+    @Test
+    public void testMatcherEvaluationsDoNotGrowWithPool() {
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put(PLATFORM_NAME, "Android");
+        requestedCapability.put(PLATFORM_VERSION, "12+");
+        requestedCapability.put(DEVICE_TYPE, "tablet");
+
+        Hub small = new Hub(100);
+        Hub large = new Hub(10000);
+        Assert.assertEquals(small.match(requestedCapability), 5);
+        Assert.assertEquals(large.match(requestedCapability), 5, "Matcher is evaluated for slots which can't match");
+        Assert.assertEquals(large.index.getCandidates(requestedCapability).size(), 5);
+    }
+
+    @Test
+    public void testCandidatesReflectSlotChanges() {
+        Hub hub = new Hub(100);
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put(PLATFORM_NAME, "Android");
+        requestedCapability.put(PLATFORM_VERSION, "12+");
+        requestedCapability.put(DEVICE_TYPE, "tablet");
+
+        Set<FakeSlot> candidates = hub.index.getCandidates(requestedCapability);
+        FakeSlot tablet = hub.slots.get(0);
+        FakeSlot phone = hub.slots.get(6);
+        Assert.assertTrue(candidates.contains(tablet));
+        Assert.assertFalse(candidates.contains(phone), "Android 10 phone is a candidate for 12+ tablet request");
+
+        hub.index.remove(tablet);
+        Assert.assertFalse(candidates.contains(tablet), "Busy slot is a candidate");
+        Assert.assertEquals(candidates.size(), 4);
+        Assert.assertSame(hub.index.getCandidates(requestedCapability), candidates, "Candidates are computed again");
+
+        hub.index.add(tablet, tablet.capabilities);
+        Assert.assertTrue(candidates.contains(tablet), "Released slot is not a candidate");
+
+        FakeSlot newTablet = new FakeSlot(capabilities("Android", "13.0", "tablet", "Tab_13", "udid13"));
+        hub.index.add(newTablet, newTablet.capabilities);
+        Assert.assertTrue(hub.index.getCandidates(requestedCapability).contains(newTablet), "Slot with new key is not a candidate");
+    }
+
+    private static Map<String, Object> capabilities(String platformName, String platformVersion, String deviceType,
+            String deviceName, String udid) {
+        Map<String, Object> capabilities = new HashMap<>();
+        capabilities.put(PLATFORM_NAME, platformName);
+        capabilities.put(PLATFORM_VERSION, platformVersion);
+        capabilities.put(DEVICE_TYPE, deviceType);
+        capabilities.put(DEVICE_NAME, deviceName);
+        capabilities.put(UDID, udid);
+        return capabilities;
+    }
+
+    /**
+     * In-process hub with one slot per fake device. Only few Android 12+ tablets are registered whatever the pool size
+     * is, the rest are phones and iOS devices of different versions.
+     */
+    private class Hub {
+        private final FreeSlotIndex<FakeSlot> index = new FreeSlotIndex<>();
+        private final List<FakeSlot> slots = new ArrayList<>();
+
+        Hub(int devices) {
+            for (int i = 0; i < devices; i++) {
+                Map<String, Object> capabilities;
+                if (i < 5) {
+                    capabilities = capabilities("Android", "12.0." + i, "tablet", "Tab_" + i, "udid" + i);
+                } else if (i % 2 == 0) {
+                    capabilities = capabilities("Android", (4 + i % 9) + ".1", "phone", "Phone_" + i, "udid" + i);
+                } else {
+                    capabilities = capabilities("iOS", (9 + i % 5) + ".3", i % 3 == 0 ? "tablet" : "phone", "iPhone_" + i,
+                            "udid" + i);
+                }
+                FakeSlot slot = new FakeSlot(capabilities);
+                slots.add(slot);
+                index.add(slot, capabilities);
+            }
+        }
+
+        /**
+         * Walks through all the slots like the hub does and returns number of full capability matcher evaluations.
+         */
+        int match(Map<String, Object> requestedCapability) {
+            int evaluations = 0;
+            Set<FakeSlot> candidates = index.getCandidates(requestedCapability);
+            for (FakeSlot slot : slots) {
+                if (candidates.contains(slot)) {
+                    evaluations++;
+                    Assert.assertTrue(matcher.matches(slot.capabilities, requestedCapability));
+                }
+            }
+            return evaluations;
+        }
+    }
+
+    private static class FakeSlot {
+        private final Map<String, Object> capabilities;
+
+        FakeSlot(Map<String, Object> capabilities) {
+            this.capabilities = capabilities;
+        }
+    }
+}
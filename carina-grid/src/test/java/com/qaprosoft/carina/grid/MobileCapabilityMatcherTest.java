@@ -28,6 +28,7 @@ public class MobileCapabilityMatcherTest {
     private static final String PLATFORM_VERSION = "platformVersion";
     private static final String DEVICE_NAME = "deviceName";
     private static final String UDID = "udid";
+    private static final String DEVICE_POOL = "devicePool";
 
     @Test
     public void testPlatformName() {
@@ -156,4 +157,60 @@ public class MobileCapabilityMatcherTest {
 
         Assert.assertTrue(matcher.matches(nodeCapability, requestedCapability));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDevicePool() {
+        Map<String, Object> nodeCapability = new HashMap<>();
+        nodeCapability.put(DEVICE_NAME, "Samsung_Galaxy_S6");
+
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put(DEVICE_NAME, "ANY");
+        requestedCapability.put(DEVICE_POOL, "Samsung_Galaxy_S6,Samsung_Galaxy_S7");
+
+        Assert.assertTrue(matcher.matches(nodeCapability, requestedCapability));
+        Assert.assertEquals(requestedCapability.get(DEVICE_NAME), "ANY", "Requested capabilities are modified");
+        nodeCapability.put(DEVICE_NAME, "Nexus_5");
+        Assert.assertFalse(matcher.matches(nodeCapability, requestedCapability));
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        Map<String, Object> nodeCapability = new HashMap<>();
+        nodeCapability.put(PLATFORM_VERSION, "7.0");
+
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put(PLATFORM_VERSION, "seven");
+
+        Assert.assertFalse(matcher.matches(nodeCapability, requestedCapability));
+        requestedCapability.put(PLATFORM_VERSION, "*");
+        Assert.assertTrue(matcher.matches(nodeCapability, requestedCapability));
+    }
+
+    @Test
+    public void testModifiedRequest() {
+        Map<String, Object> nodeCapability = new HashMap<>();
+        nodeCapability.put(UDID, "sdf44242ggsd");
+
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put(UDID, "sdf44242ggsd");
+
+        Assert.assertTrue(matcher.matches(nodeCapability, requestedCapability));
+        // the same request object is compiled again when its capabilities are changed
+        requestedCapability.put(UDID, "tt64fdfdfgdf");
+        Assert.assertFalse(matcher.matches(nodeCapability, requestedCapability));
+    }
+
+    @Test
+    public void testBrowserCapabilities() {
+        Map<String, Object> nodeCapability = new HashMap<>();
+        nodeCapability.put("browserName", "chrome");
+
+        Map<String, Object> requestedCapability = new HashMap<>();
+        requestedCapability.put("browserName", "chrome");
+
+        Assert.assertFalse(MobileCapabilityMatcher.compile(requestedCapability).isMobile());
+        Assert.assertTrue(matcher.matches(nodeCapability, requestedCapability));
+        requestedCapability.put("browserName", "firefox");
+        Assert.assertFalse(matcher.matches(nodeCapability, requestedCapability));
+    }
+}
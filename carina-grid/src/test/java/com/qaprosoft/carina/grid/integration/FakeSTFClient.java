@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.qaprosoft.zafira.client.STFClient;
+import com.qaprosoft.zafira.models.stf.Devices;
+import com.qaprosoft.zafira.models.stf.Response;
+import com.qaprosoft.zafira.models.stf.STFDevice;
+
+/**
+ * In-memory STF which records calls and can simulate slow and failing responses.
+ */
+public class FakeSTFClient extends STFClient {
+    final Map<String, STFDevice> devices = new ConcurrentHashMap<>();
+    final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    final AtomicInteger requests = new AtomicInteger();
+    final AtomicInteger reserveFailures = new AtomicInteger();
+    final AtomicInteger connectFailures = new AtomicInteger();
+    final AtomicInteger returnFailures = new AtomicInteger();
+    volatile long delay;
+    volatile CountDownLatch block;
+
+    public FakeSTFClient() {
+        super("http://localhost", "token");
+    }
+
+    void addDevice(String serial, boolean using) {
+        STFDevice device = new STFDevice();
+        device.setSerial(serial);
+        device.setPresent(true);
+        device.setReady(true);
+        device.setUsing(using);
+        device.setRemoteConnectUrl("localhost:" + (7400 + devices.size()));
+        devices.put(serial, device);
+    }
+
+    int count(String call) {
+        synchronized (calls) {
+            return (int) calls.stream().filter(call::equals).count();
+        }
+    }
+
+    @Override
+    public Response<Devices> getAllDevices() {
+        requests.incrementAndGet();
+        CountDownLatch latch = block;
+        if (latch != null) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Devices devices = new Devices();
+        devices.setDevices(new ArrayList<>(this.devices.values()));
+        return new Response<Devices>(200, devices);
+    }
+
+    @Override
+    public Response<STFDevice> getDevice(String udid) {
+        STFDevice device = devices.get(udid);
+        return new Response<STFDevice>(device != null ? 200 : 404, device);
+    }
+
+    @Override
+    public boolean reserveDevice(String udid, long timeout) {
+        sleep();
+        calls.add("reserve " + udid);
+        if (reserveFailures.getAndDecrement() > 0) {
+            throw new RuntimeException("STF is not available");
+        }
+        STFDevice device = devices.get(udid);
+        if (device == null || Boolean.TRUE.equals(device.getUsing())) {
+            return false;
+        }
+        device.setUsing(true);
+        return true;
+    }
+
+    @Override
+    public Response<Void> remoteConnectDevice(String udid) {
+        calls.add("connect " + udid);
+        return new Response<Void>(connectFailures.getAndDecrement() > 0 ? 500 : 200, null);
+    }
+
+    @Override
+    public boolean remoteDisconnectDevice(String udid) {
+        calls.add("disconnect " + udid);
+        return true;
+    }
+
+    @Override
+    public boolean returnDevice(String udid) {
+        sleep();
+        calls.add("return " + udid);
+        if (returnFailures.getAndDecrement() > 0) {
+            return false;
+        }
+        STFDevice device = devices.get(udid);
+        if (device != null) {
+            device.setUsing(false);
+        }
+        return true;
+    }
+
+    private void sleep() {
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
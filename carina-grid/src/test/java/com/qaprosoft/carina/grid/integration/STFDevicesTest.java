@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid.integration;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class STFDevicesTest {
+    private STFDevices devices;
+
+    @AfterMethod(alwaysRun = true)
+    public void shutdown() {
+        if (devices != null) {
+            devices.shutdown();
+        }
+    }
+
+    @Test
+    public void testAvailabilityIsReadFromSnapshot() {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice("device1", false);
+        stf.addDevice("device2", true);
+        devices = new STFDevices(stf, TimeUnit.MINUTES.toMillis(1));
+        devices.refresh();
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(devices.isDeviceAvailable("device1"));
+            Assert.assertFalse(devices.isDeviceAvailable("device2"));
+            Assert.assertFalse(devices.isDeviceAvailable("unknown"));
+        }
+        Assert.assertEquals(stf.requests.get(), 1, "STF devices are requested for every check");
+    }
+
+    @Test
+    public void testStaleSnapshotDoesNotBlock() throws InterruptedException {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice("device1", false);
+        devices = new STFDevices(stf, 200);
+        devices.refresh();
+        Assert.assertTrue(devices.isDeviceAvailable("device1"));
+
+        stf.block = new CountDownLatch(1);
+        Thread.sleep(300);
+        long start = System.currentTimeMillis();
+        Assert.assertFalse(devices.isDeviceAvailable("device1"), "Stale snapshot is trusted");
+        Assert.assertTrue(System.currentTimeMillis() - start < 100, "Availability check waits for STF");
+
+        stf.block.countDown();
+        Assert.assertTrue(waitForAvailability("device1", true), "Snapshot is not refreshed in background");
+    }
+
+    @Test
+    public void testInvalidateOnReservation() throws InterruptedException {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice("device1", false);
+        devices = new STFDevices(stf, TimeUnit.MINUTES.toMillis(1));
+        devices.refresh();
+
+        // device is reserved while STF still reports it as free
+        stf.block = new CountDownLatch(1);
+        devices.invalidate("device1");
+        Assert.assertFalse(devices.isDeviceAvailable("device1"), "Reserved device is available");
+
+        stf.addDevice("device1", true);
+        stf.block.countDown();
+        Assert.assertFalse(waitForAvailability("device1", true), "Reserved device is available");
+
+        // device is returned
+        stf.addDevice("device1", false);
+        devices.invalidate("device1");
+        Assert.assertTrue(waitForAvailability("device1", true), "Returned device is not available");
+    }
+
+    @Test
+    public void testConcurrentInvalidate() throws InterruptedException {
+        FakeSTFClient stf = new FakeSTFClient();
+        for (int i = 0; i < 100; i++) {
+            stf.addDevice("device" + i, false);
+        }
+        devices = new STFDevices(stf, TimeUnit.MINUTES.toMillis(1));
+        devices.refresh();
+
+        // devices are reserved from different threads while STF still reports them as free
+        stf.block = new CountDownLatch(1);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = offset; i < 100; i += threads.length) {
+                    devices.invalidate("device" + i);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertFalse(devices.isDeviceAvailable("device" + i), "Reserved device device" + i + " is available");
+        }
+        stf.block.countDown();
+    }
+
+    @Test
+    public void testBackgroundRefresh() throws InterruptedException {
+        FakeSTFClient stf = new FakeSTFClient();
+        devices = new STFDevices(stf, 200);
+        devices.start();
+
+        stf.addDevice("device1", false);
+        Assert.assertTrue(waitForAvailability("device1", true), "New device is not found");
+        stf.addDevice("device1", true);
+        Assert.assertTrue(waitForAvailability("device1", false), "Device state is not refreshed");
+    }
+
+    private boolean waitForAvailability(String udid, boolean available) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            if (devices.isDeviceAvailable(udid) == available) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
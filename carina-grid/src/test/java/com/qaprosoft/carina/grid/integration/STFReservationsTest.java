@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid.integration;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.zafira.models.stf.STFDevice;
+
+public class STFReservationsTest {
+    private static final String UDID = "device1";
+
+    private STFReservations reservations;
+
+    @AfterMethod(alwaysRun = true)
+    public void shutdown() {
+        if (reservations != null) {
+            reservations.shutdown();
+        }
+    }
+
+    @Test
+    public void testReservationIsCached() {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        reservations = create(stf, 1000, 3);
+
+        Assert.assertTrue(reservations.awaitReservation(UDID, 5000));
+        Assert.assertTrue(reservations.awaitReservation(UDID, 5000));
+        Assert.assertEquals(stf.count("reserve " + UDID), 1, "Reserved device is reserved again");
+        Assert.assertEquals(stf.count("connect " + UDID), 1, "Reserved device is connected again");
+
+        STFDevice device = reservations.getReservedDevice(UDID);
+        Assert.assertNotNull(device, "Reserved device info is not cached");
+        Assert.assertEquals(device.getRemoteConnectUrl(), stf.devices.get(UDID).getRemoteConnectUrl());
+    }
+
+    @Test
+    public void testReservationIsRetried() {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.reserveFailures.set(2);
+        reservations = create(stf, 1000, 3);
+
+        Assert.assertTrue(reservations.awaitReservation(UDID, 5000), "Device is not reserved after retries");
+        Assert.assertEquals(stf.count("reserve " + UDID), 3);
+    }
+
+    @Test
+    public void testFailedReservationIsNotCached() {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.reserveFailures.set(3);
+        reservations = create(stf, 1000, 3);
+
+        Assert.assertFalse(reservations.awaitReservation(UDID, 5000), "Device is reserved");
+        Assert.assertFalse(reservations.isReserved(UDID), "Failed reservation is cached");
+        Assert.assertTrue(reservations.awaitReservation(UDID, 5000), "Device is not reserved on the next attempt");
+    }
+
+    @Test
+    public void testSlowSTFDoesNotBlock() {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.delay = 1000;
+        reservations = create(stf, 200, 1);
+
+        long start = System.currentTimeMillis();
+        Assert.assertFalse(reservations.awaitReservation(UDID, 100), "Device is reserved");
+        reservations.release(UDID);
+        Assert.assertTrue(System.currentTimeMillis() - start < 500, "Hub thread waits for STF");
+    }
+
+    @Test
+    public void testTimedOutReservationIsReturned() throws Exception {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.delay = 150;
+        reservations = create(stf, 100, 3);
+
+        // reservation succeeds in STF after timeout but before the return deadline
+        Assert.assertFalse(reservations.awaitReservation(UDID, 5000), "Timed out device is reserved");
+        stf.delay = 0;
+        Assert.assertNotNull(reservations.reserve(UDID).get(5, TimeUnit.SECONDS), "Device is not reserved again");
+        Assert.assertEquals(stf.calls, Arrays.asList("reserve " + UDID, "disconnect " + UDID, "return " + UDID,
+                "reserve " + UDID, "connect " + UDID), "Timed out reservation is retried or not returned");
+    }
+
+    @Test
+    public void testReturnIsOrderedWithReservations() throws Exception {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.delay = 100;
+        reservations = create(stf, 1000, 3);
+
+        reservations.reserve(UDID);
+        reservations.release(UDID);
+        reservations.reserve(UDID).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(stf.calls, Arrays.asList("reserve " + UDID, "connect " + UDID, "disconnect " + UDID,
+                "return " + UDID, "reserve " + UDID, "connect " + UDID));
+    }
+
+    @Test
+    public void testReconciliation() throws Exception {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.returnFailures.set(3);
+        reservations = create(stf, 1000, 3);
+
+        Assert.assertTrue(reservations.awaitReservation(UDID, 5000));
+        Assert.assertFalse(reservations.release(UDID).get(5, TimeUnit.SECONDS), "Device is returned");
+        Assert.assertTrue(reservations.getUnreturned().contains(UDID), "Device is not scheduled for reconciliation");
+
+        reservations.reconcile();
+        for (int i = 0; i < 50 && !reservations.getUnreturned().isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(reservations.getUnreturned().isEmpty(), "Device is not returned by reconciliation");
+        Assert.assertFalse(stf.devices.get(UDID).getUsing(), "Device is not returned by reconciliation");
+    }
+
+    @Test
+    public void testNotReservedDeviceIsNotReturned() throws Exception {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, true);
+        reservations = create(stf, 1000, 1);
+
+        Assert.assertFalse(reservations.awaitReservation(UDID, 5000), "Device used by somebody else is reserved");
+        Assert.assertFalse(reservations.release(UDID).get(5, TimeUnit.SECONDS), "Not reserved device is returned");
+        Assert.assertEquals(stf.count("return " + UDID), 0, "Return is called for not reserved device");
+        Assert.assertTrue(reservations.getUnreturned().isEmpty(), "Not reserved device is scheduled for reconciliation");
+        Assert.assertTrue(stf.devices.get(UDID).getUsing(), "Device of somebody else is returned");
+    }
+
+    @Test
+    public void testReleaseAfterFailedReservation() throws Exception {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.delay = 100;
+        stf.reserveFailures.set(1);
+        reservations = create(stf, 1000, 1);
+
+        // session is finished while reservation is still in progress
+        reservations.reserve(UDID);
+        Assert.assertFalse(reservations.release(UDID).get(5, TimeUnit.SECONDS), "Not reserved device is returned");
+        Assert.assertEquals(stf.count("return " + UDID), 0, "Return is called for not reserved device");
+    }
+
+    @Test
+    public void testNotConnectedDeviceIsReturned() throws Exception {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.connectFailures.set(1);
+        reservations = create(stf, 1000, 1);
+
+        Assert.assertFalse(reservations.awaitReservation(UDID, 5000), "Not connected device is reserved");
+        // the next reservation waits for return of the device reserved by the failed one
+        Assert.assertNotNull(reservations.reserve(UDID).get(5, TimeUnit.SECONDS), "Device is not reserved again");
+        Assert.assertEquals(stf.count("return " + UDID), 1, "Reserved but not connected device is not returned");
+        Assert.assertTrue(reservations.release(UDID).get(5, TimeUnit.SECONDS), "Reserved device is not returned");
+        Assert.assertFalse(stf.devices.get(UDID).getUsing(), "Device is not returned");
+    }
+
+    @Test
+    public void testReconciliationIsLimited() throws Exception {
+        FakeSTFClient stf = new FakeSTFClient();
+        stf.addDevice(UDID, false);
+        stf.returnFailures.set(Integer.MAX_VALUE);
+        reservations = create(stf, 1000, 1);
+
+        Assert.assertTrue(reservations.awaitReservation(UDID, 5000));
+        Assert.assertFalse(reservations.release(UDID).get(5, TimeUnit.SECONDS), "Device is returned");
+        for (int i = 0; i < STFReservations.MAX_RETURN_ATTEMPTS * 10 && !reservations.getUnreturned().isEmpty(); i++) {
+            reservations.reconcile();
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(reservations.getUnreturned().isEmpty(), "Device is reconciled forever");
+        Assert.assertEquals(stf.count("return " + UDID), STFReservations.MAX_RETURN_ATTEMPTS);
+    }
+
+    private static STFReservations create(FakeSTFClient stf, long callTimeout, int attempts) {
+        return new STFReservations(stf, null, TimeUnit.HOURS.toMillis(1), 4, callTimeout, attempts, 10);
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.grid.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.grid.servlets.JsonResponseCache.CachedResponse;
+
+public class JsonResponseCacheTest {
+
+    @Test
+    public void testSourceIsNotLoadedWhileAlive() throws IOException {
+        JsonResponseCache cache = new JsonResponseCache(60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        CachedResponse first = cache.get("device", () -> loads.incrementAndGet(), source -> source);
+        CachedResponse second = cache.get("device", () -> loads.incrementAndGet(), source -> source);
+        Assert.assertSame(second, first);
+        Assert.assertEquals(loads.get(), 1, "Source is loaded for cached response");
+
+        cache.invalidate("device");
+        Assert.assertNotEquals(cache.get("device", () -> loads.incrementAndGet(), source -> source).getEtag(), first.getEtag());
+    }
+
+    @Test
+    public void testUnchangedSourceIsNotSerialized() throws IOException, InterruptedException {
+        JsonResponseCache cache = new JsonResponseCache(1);
+        AtomicInteger models = new AtomicInteger();
+
+        String etag = cache.get("device", () -> "url", source -> model(models, source)).getEtag();
+        Thread.sleep(5);
+        Assert.assertEquals(cache.get("device", () -> "url", source -> model(models, source)).getEtag(), etag);
+        Assert.assertEquals(models.get(), 1, "Unchanged source is serialized again");
+
+        Thread.sleep(5);
+        Assert.assertNotEquals(cache.get("device", () -> "new url", source -> model(models, source)).getEtag(), etag);
+        Assert.assertEquals(models.get(), 2, "Changed source is not serialized");
+    }
+
+    @Test
+    public void testNullModelIsNotCached() throws IOException {
+        JsonResponseCache cache = new JsonResponseCache(60000);
+        Assert.assertNull(cache.get("device", () -> "url", source -> null));
+        Assert.assertNotNull(cache.get("device", () -> "url", source -> source));
+    }
+
+    @Test
+    public void testNotModified() throws IOException {
+        JsonResponseCache cache = new JsonResponseCache(60000);
+        CachedResponse cached = cache.get("device", () -> "url", source -> Collections.singletonMap("remoteURL", source));
+
+        Map<String, Object> response = new HashMap<>();
+        cached.write(request(null), response(response));
+        Assert.assertEquals(response.get("status"), 200);
+        Assert.assertEquals(response.get("ETag"), cached.getEtag());
+        Assert.assertEquals(response.get("body"), "{\"remoteURL\":\"url\"}");
+
+        response.clear();
+        cached.write(request("\"other\", " + cached.getEtag()), response(response));
+        Assert.assertEquals(response.get("status"), 304);
+        Assert.assertNull(response.get("body"), "Body is sent for not modified response");
+
+        Assert.assertTrue(cached.isNotModified("W/" + cached.getEtag()));
+        Assert.assertTrue(cached.isNotModified("*"));
+        Assert.assertFalse(cached.isNotModified("\"other\""));
+    }
+
+    private static Object model(AtomicInteger models, String source) {
+        models.incrementAndGet();
+        return Collections.singletonMap("remoteURL", source);
+    }
+
+    private static HttpServletRequest request(String ifNoneMatch) {
+        return (HttpServletRequest) Proxy.newProxyInstance(JsonResponseCacheTest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+                    if ("getHeader".equals(method.getName()) && "If-None-Match".equals(args[0])) {
+                        return ifNoneMatch;
+                    }
+                    return null;
+                });
+    }
+
+    private static HttpServletResponse response(Map<String, Object> response) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ServletOutputStream os = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void close() {
+                response.put("body", new String(body.toByteArray(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+        return (HttpServletResponse) Proxy.newProxyInstance(JsonResponseCacheTest.class.getClassLoader(),
+                new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "setStatus":
+                        response.put("status", args[0]);
+                        break;
+                    case "setHeader":
+                        response.put((String) args[0], args[1]);
+                        break;
+                    case "getOutputStream":
+                        return os;
+                    default:
+                        break;
+                    }
+                    return null;
+                });
+    }
+}
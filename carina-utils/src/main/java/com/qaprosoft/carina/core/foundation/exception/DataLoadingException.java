@@ -30,4 +30,8 @@ public class DataLoadingException extends RuntimeException {
     public DataLoadingException(String msg) {
         super("Can't load data: " + msg);
     }
+
+    public DataLoadingException(String msg, Throwable cause) {
+        super("Can't load data: " + msg, cause);
+    }
 }
\ No newline at end of file
@@ -54,7 +54,7 @@ public class Jira {
 
     static {
         try {
-            cryptoTool = new CryptoTool(Configuration.get(Parameter.CRYPTO_KEY_PATH));
+            cryptoTool = CryptoTool.getInstance(Configuration.get(Parameter.CRYPTO_KEY_PATH));
             updater = (IJiraUpdater) Class.forName(Configuration.get(Parameter.JIRA_UPDATER)).newInstance();
             BasicCredentials creds = new BasicCredentials(cryptoTool.decryptByPattern(Configuration.get(Parameter.JIRA_USER), CRYPTO_PATTERN),
                     (cryptoTool.decryptByPattern(Configuration.get(Parameter.JIRA_PASSWORD), CRYPTO_PATTERN)));
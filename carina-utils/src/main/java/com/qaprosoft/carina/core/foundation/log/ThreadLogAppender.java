@@ -19,8 +19,17 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.FastDateFormat;
 import org.apache.log4j.AppenderSkeleton;
 import org.apache.log4j.MDC;
 import org.apache.log4j.spi.LoggingEvent;
@@ -31,11 +40,34 @@ import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
 
 /*
  * This appender log groups test outputs by test method/test thread so they don't mess up each other even they runs in parallel.
+ * 
+ * In async mode (log4j.appender.ThreadLogAppender.Async=true) messages are passed through the bounded queue to the single
+ * writer thread which flushes test.log files as soon as the queue is drained.
+ * Location info (file name) is calculated only when LocationInfo=true, otherwise logger simple name is written.
  */
 public class ThreadLogAppender extends AppenderSkeleton {
-    // single buffer for each thread test.log file
-    private final ThreadLocal<BufferedWriter> testLogBuffer = new ThreadLocal<BufferedWriter>();
-    private long bytesWritten;
+    private static final FastDateFormat DATE_FORMAT = FastDateFormat.getInstance("yyyy-MM-dd hh:mm:ss"); // 2016-05-26 04:39:16
+
+    private static final int QUEUE_CAPACITY = 10000;
+
+    // max time to wait for the writer on close/flush
+    private static final long WAIT_TIMEOUT = 10;
+
+    // single test.log file for each thread
+    private final ThreadLocal<TestLog> testLogBuffer = new ThreadLocal<TestLog>();
+
+    private boolean async = false;
+
+    private boolean locationInfo = true;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<Entry>();
+
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    private volatile Thread writer;
+
+    private volatile boolean writerSleeping;
+
     @Override
     public void append(LoggingEvent event) {
         // TODO: [VD] OBLIGATORY double check and create separate unit test for this case
@@ -48,43 +80,38 @@ public class ThreadLogAppender extends AppenderSkeleton {
 
         try {
 
-            BufferedWriter fw = testLogBuffer.get();
-            if (fw == null) {
+            TestLog testLog = testLogBuffer.get();
+            if (testLog == null) {
                 // 1st request to log something for this thread/test
-                File testLogFile = new File(ReportContext.getTestDir() + "/test.log");
-                if (!testLogFile.exists()){
-                    testLogFile.createNewFile();
-                    bytesWritten = 0;
-                }
-
-                fw = new BufferedWriter(new FileWriter(testLogFile, true));
-                testLogBuffer.set(fw);
-
+                testLog = new TestLog(new File(ReportContext.getTestDir() + "/test.log"));
+                testLogBuffer.set(testLog);
             }
 
+            String message;
             if (event != null) {
                 // append time, thread, class name and device name if any
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd hh:mm:ss"); // 2016-05-26 04:39:16
-                String time = dateFormat.format(event.getTimeStamp());
-                // System.out.println("time: " + time);
-
                 long threadId = Thread.currentThread().getId();
                 MDC.put("threadId", "-" + String.valueOf(threadId));
-                // System.out.println("thread: " + threadId);
-                String fileName = event.getLocationInformation().getFileName();
-                // System.out.println("fileName: " + fileName);
 
-                String logLevel = event.getLevel().toString();
+                message = new StringBuilder(128)
+                        .append('[').append(DATE_FORMAT.format(event.getTimeStamp())).append("] [")
+                        .append(getFileName(event)).append("] [")
+                        .append(threadId).append("] [")
+                        .append(event.getLevel()).append("] ")
+                        .append(event.getRenderedMessage()).toString();
+                if (!testLog.ensureCapacity(message.length())) {
+                    return;
+                }
+            } else {
+                message = "null";
+            }
 
-                String message = "[%s] [%s] [%s] [%s] %s";
-                message = String.format(message, time, fileName, threadId, logLevel, event.getMessage().toString());
-                ensureCapacity(message.length());
-                fw.write(message);
+            if (async) {
+                enqueue(new Entry(testLog, message + "\n", null, false));
             } else {
-                fw.write("null");
+                testLog.write(message + "\n");
+                testLog.flush();
             }
-            fw.write("\n");
-            fw.flush();
         } catch (IOException e) {
             e.printStackTrace();
         } catch (Exception e) {
@@ -93,29 +120,217 @@ public class ThreadLogAppender extends AppenderSkeleton {
 
     }
 
+    /**
+     * Close test.log of the current thread. In async mode all already queued messages are written before close.
+     */
     @Override
     public void close() {
         try {
-            BufferedWriter fw = testLogBuffer.get();
-            if (fw != null) {
-                fw.close();
+            TestLog testLog = testLogBuffer.get();
+            if (testLog != null) {
                 testLogBuffer.remove();
+                if (async && writer != null) {
+                    await(new Entry(testLog, null, new CountDownLatch(1), true));
+                } else {
+                    testLog.close();
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Wait until all queued messages are written to the files.
+     */
+    public void flush() {
+        if (async && writer != null) {
+            await(new Entry(null, null, new CountDownLatch(1), false));
+        }
+    }
+
     @Override
     public boolean requiresLayout() {
         return false;
     }
 
-    private void ensureCapacity(int len) throws IOException {
-        long newBytesWritten = this.bytesWritten + len;
-		long maxMegaBytes = Configuration.getLong(Parameter.MAX_LOG_FILE_SIZE) * 1024 * 1024;
-        if (newBytesWritten > maxMegaBytes)
-            throw new IOException("test Log file size exceeded core limit: " + newBytesWritten + " > " + maxMegaBytes);
-        this.bytesWritten = newBytesWritten;
+    public boolean getAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public boolean getLocationInfo() {
+        return locationInfo;
+    }
+
+    public void setLocationInfo(boolean locationInfo) {
+        this.locationInfo = locationInfo;
+    }
+
+    private String getFileName(LoggingEvent event) {
+        if (locationInfo) {
+            // full stack walk is done by log4j here
+            return event.getLocationInformation().getFileName();
+        }
+        String loggerName = event.getLoggerName();
+        return loggerName.contains(".") ? StringUtils.substringAfterLast(loggerName, ".") : loggerName;
+    }
+
+    private void await(Entry entry) {
+        enqueue(entry);
+        try {
+            if (!entry.latch.await(WAIT_TIMEOUT, TimeUnit.SECONDS)) {
+                System.err.println("ThreadLogAppender: log messages were not written in " + WAIT_TIMEOUT + " seconds!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        startWriter();
+        // wait for free space as queue is bounded
+        while (queueSize.get() >= QUEUE_CAPACITY) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        queueSize.incrementAndGet();
+        queue.offer(entry);
+        if (writerSleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void startWriter() {
+        if (writer == null) {
+            synchronized (queue) {
+                if (writer == null) {
+                    Thread thread = new Thread(this::writeLoop, "thread-log-appender");
+                    thread.setDaemon(true);
+                    thread.start();
+                    // write queued messages on exit
+                    Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+                    writer = thread;
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        // files written since the last flush
+        Set<TestLog> dirty = new HashSet<TestLog>();
+        while (true) {
+            Entry entry = queue.poll();
+            if (entry == null) {
+                // queue is drained so it's time to flush written batch
+                flush(dirty);
+                writerSleeping = true;
+                if (queue.isEmpty()) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+                }
+                writerSleeping = false;
+                continue;
+            }
+            queueSize.decrementAndGet();
+
+            try {
+                if (entry.latch == null) {
+                    entry.testLog.write(entry.message);
+                    dirty.add(entry.testLog);
+                } else if (entry.close) {
+                    dirty.remove(entry.testLog);
+                    entry.testLog.close();
+                } else {
+                    flush(dirty);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                if (entry.latch != null) {
+                    entry.latch.countDown();
+                }
+            }
+        }
+    }
+
+    private static void flush(Set<TestLog> testLogs) {
+        for (TestLog testLog : testLogs) {
+            try {
+                testLog.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        testLogs.clear();
+    }
+
+    /**
+     * test.log of the single thread. Size is controlled by the owner thread, writer is used by the owner thread in sync
+     * mode and by the writer thread in async mode.
+     */
+    private static class TestLog {
+        private final File file;
+        private long bytesWritten;
+        private boolean limitReported;
+        private BufferedWriter writer;
+
+        private TestLog(File file) throws IOException {
+            this.file = file;
+            if (!file.exists()) {
+                file.createNewFile();
+            }
+            this.bytesWritten = file.length();
+        }
+
+        private boolean ensureCapacity(int len) {
+            long newBytesWritten = this.bytesWritten + len;
+            long maxMegaBytes = Configuration.getLong(Parameter.MAX_LOG_FILE_SIZE) * 1024 * 1024;
+            if (newBytesWritten > maxMegaBytes) {
+                if (!limitReported) {
+                    limitReported = true;
+                    new IOException("test Log file size exceeded core limit: " + newBytesWritten + " > " + maxMegaBytes).printStackTrace();
+                }
+                return false;
+            }
+            this.bytesWritten = newBytesWritten;
+            return true;
+        }
+
+        private void write(String message) throws IOException {
+            if (writer == null) {
+                writer = new BufferedWriter(new FileWriter(file, true));
+            }
+            writer.write(message);
+        }
+
+        private void flush() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        private void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+
+    private static class Entry {
+        private final TestLog testLog;
+        private final String message;
+        private final CountDownLatch latch;
+        private final boolean close;
+
+        private Entry(TestLog testLog, String message, CountDownLatch latch, boolean close) {
+            this.testLog = testLog;
+            this.message = message;
+            this.latch = latch;
+            this.close = close;
+        }
     }
 }
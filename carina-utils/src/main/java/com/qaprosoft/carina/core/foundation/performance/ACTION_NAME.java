@@ -32,6 +32,7 @@ public enum ACTION_NAME implements IPerformanceOperation {
     GET_ATTRIBUTE("get_attribute"),
     PAUSE("pause"),
     WAIT("wait"),
+    WAIT_POLLS("wait_polls"),
     CHECK("check"),
     UNCHECK("uncheck"),
     IS_CHECKED("is_checked"),
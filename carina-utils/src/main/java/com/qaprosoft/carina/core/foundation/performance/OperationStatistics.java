@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.performance;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.AbstractHistogram;
+
+/**
+ * OperationStatistics - latency percentiles of the operation. All times are in nanoseconds.
+ */
+public class OperationStatistics {
+    private final String operation;
+    private final long count;
+    private final long min;
+    private final long max;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p95;
+    private final long p99;
+
+    public OperationStatistics(String operation, AbstractHistogram histogram) {
+        this.operation = operation;
+        this.count = histogram.getTotalCount();
+        this.min = histogram.getMinValue();
+        this.max = histogram.getMaxValue();
+        this.mean = histogram.getMean();
+        this.p50 = histogram.getValueAtPercentile(50);
+        this.p90 = histogram.getValueAtPercentile(90);
+        this.p95 = histogram.getValueAtPercentile(95);
+        this.p99 = histogram.getValueAtPercentile(99);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP95() {
+        return p95;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d, mean=%.3fms, p50=%.3fms, p90=%.3fms, p95=%.3fms, p99=%.3fms, max=%.3fms", operation, count,
+                toMillis(mean), toMillis(p50), toMillis(p90), toMillis(p95), toMillis(p99), toMillis(max));
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -15,20 +15,34 @@
  *******************************************************************************/
 package com.qaprosoft.carina.core.foundation.performance;
 
-import java.util.Calendar;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import org.HdrHistogram.Histogram;
 import org.apache.log4j.Logger;
 
+/**
+ * Timer - collects performance metrics of the operations.
+ * 
+ * Data is collected per thread without any synchronization: summarized time of the operation and the latency
+ * histogram with nanosecond resolution. Histograms of the thread are merged into the suite level ones on
+ * {@link #readAndClear()} so percentiles are available both per test and per suite. Test statistics are saved into
+ * the test report folder by {@link com.qaprosoft.carina.core.foundation.report.ReportContext#savePerformanceStatistics()}.
+ */
 public class Timer {
     private static final Logger LOGGER = Logger.getLogger(Timer.class);
 
-    //data structure to collect summarized/combined datetime  
-    private static ThreadLocal<ConcurrentHashMap<String, Long>> metrics = new ThreadLocal<ConcurrentHashMap<String, Long>>();
-    
-    //data structure for current timer only
-    private static ThreadLocal<ConcurrentHashMap<String, Long>> timer = new ThreadLocal<ConcurrentHashMap<String, Long>>();
+    // number of significant digits kept by histograms
+    private static final int HISTOGRAM_PRECISION = 3;
+
+    private static final ThreadLocal<TimerData> data = ThreadLocal.withInitial(TimerData::new);
+
+    // suite level histograms: operation -> histogram
+    private static final ConcurrentMap<String, Histogram> suiteHistograms = new ConcurrentHashMap<String, Histogram>();
 
     /**
      * Start timer to track IPerformanceOperation action.
@@ -36,12 +50,12 @@ public class Timer {
      * @param operation
      *            IPerformanceOperation.
      */
-    public static synchronized void start(IPerformanceOperation operation) {
-        Map<String, Long> testTimer = getTimer();
+    public static void start(IPerformanceOperation operation) {
+        Map<String, Long> testTimer = data.get().timer;
         if (testTimer.containsKey(operation.getKey())) {
             throw new RuntimeException("Operation already started: " + operation.getKey());
         }
-        testTimer.put(operation.getKey(), Calendar.getInstance().getTimeInMillis());
+        testTimer.put(operation.getKey(), System.nanoTime());
     }
 
     /**
@@ -49,75 +63,181 @@ public class Timer {
      * 
      * @param operation
      *            IPerformanceOperation.
-     * @return long elapsedTime from last start/stop.
+     * @return long elapsedTime in ms from last start/stop.
      */
-    public static synchronized long stop(IPerformanceOperation operation) {
-        Map<String, Long> testTimer = getTimer();
-        if (!testTimer.containsKey(operation.getKey())) {
+    public static long stop(IPerformanceOperation operation) {
+        TimerData testData = data.get();
+        Long startTime = testData.timer.remove(operation.getKey());
+        if (startTime == null) {
 			// TODO: current exception could stop tests execution which is
 			// inappropriate. Think about error'ing only
 //            Disabled due to socket issue
 //            throw new RuntimeException("Operation not started: " + operation.getKey());
             LOGGER.error("Operation not started: " + operation.getKey());
-            testTimer.remove(operation.getKey());
             return 0;
         }
-        
-        Map<String, Long> testMertrics = getMetrics();
-        long capturedTime = 0;
-        if (testMertrics.get(operation.getKey()) != null) {
-            	//summarize operation time
-            	capturedTime = testMertrics.get(operation.getKey());
-        }
-        
-        long elapsedTime = testTimer.get(operation.getKey());
-        testMertrics.put(operation.getKey(), capturedTime + Calendar.getInstance().getTimeInMillis() - elapsedTime);
-        //remove stopped timer data
-        testTimer.remove(operation.getKey());
-        
-        return elapsedTime;
+
+        long elapsedTime = System.nanoTime() - startTime;
+        //summarize operation time
+        testData.durations.merge(operation.getKey(), elapsedTime, Long::sum);
+        testData.getHistogram(operation.getKey()).recordValue(elapsedTime);
+        return TimeUnit.NANOSECONDS.toMillis(elapsedTime);
     }
 
+    /**
+     * Add value to the summarized counter of the action, e.g. number of polls done by waits. Counters are not time
+     * metrics so they are read separately via {@link #getTestCounters()}.
+     * 
+     * @param operation
+     *            IPerformanceOperation.
+     * @param value
+     *            long value to add.
+     */
+    public static void add(IPerformanceOperation operation, long value) {
+        data.get().counters.merge(operation.getKey(), value, Long::sum);
+    }
 
+    /**
+     * Read summarized time in ms of the timed operations of the current thread and clear all the metrics.
+     * Latency histograms are converted into test statistics and merged into the suite ones, counters are available
+     * via {@link #getTestCounters()}.
+     * 
+     * @return Map of operation keys and time in ms.
+     */
     //TODO: investigate if this caal from ZafiraConfigurator could remove "ACTION_NAME.RUN_SUITE" data 
-    public static synchronized Map<String, Long> readAndClear() {
-        Map<String, Long> testTimer = getTimer();
-        for (String key : testTimer.keySet()) {
+    public static Map<String, Long> readAndClear() {
+        TimerData testData = data.get();
+        for (String key : testData.timer.keySet()) {
             // timer not stopped
             LOGGER.error("Timer not stopped for operation: " + key);
         }
 
-        Map<String, Long> testMertrics = getMetrics();
-        Map<String, Long> returnMetrics = new ConcurrentHashMap<>(testMertrics);
+        Map<String, Long> returnMetrics = new ConcurrentHashMap<>();
+        for (Map.Entry<String, Long> entry : testData.durations.entrySet()) {
+            returnMetrics.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+        }
+
+        Map<String, OperationStatistics> testStatistics = testData.getStatistics();
+        for (Map.Entry<String, Histogram> entry : testData.histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Histogram suiteHistogram = suiteHistograms.computeIfAbsent(entry.getKey(), k -> new Histogram(HISTOGRAM_PRECISION));
+            synchronized (suiteHistogram) {
+                suiteHistogram.add(histogram);
+            }
+        }
+        if (!testStatistics.isEmpty()) {
+            LOGGER.debug("Performance statistics: " + testStatistics.values());
+        }
+        testData.testStatistics = testStatistics;
+        testData.testCounters = new TreeMap<String, Long>(testData.counters);
+
         // clear
-        testTimer.clear();
-        testMertrics.clear();
+        testData.timer.clear();
+        testData.clear();
         return returnMetrics;
     }
 
-    private static Map<String, Long> getTimer() {
-        ConcurrentHashMap<String, Long> testTimer = timer.get();
-        if (testTimer == null) {
-        	testTimer = new ConcurrentHashMap<>();
-            timer.set(testTimer);
-        }
-        return testTimer;
+    public static void clear() {
+        data.get().clear();
     }
-    
-    public static synchronized void clear() {
-        getMetrics().clear();
+
+    /**
+     * Start collecting metrics of the next test in current thread. Not read metrics of the previous test are merged
+     * into the suite statistics, test statistics and counters are reset.
+     */
+    public static void startTest() {
+        readAndClear();
+        TimerData testData = data.get();
+        testData.testStatistics = new TreeMap<String, OperationStatistics>();
+        testData.testCounters = new TreeMap<String, Long>();
     }
 
-    private static Map<String, Long> getMetrics() {
-        ConcurrentHashMap<String, Long> testMetrics = metrics.get();
-        if (testMetrics == null) {
-            testMetrics = new ConcurrentHashMap<>();
-            metrics.set(testMetrics);
+    /**
+     * Get latency statistics of the current test: collected since the last {@link #readAndClear()} call in current
+     * thread or, if nothing was collected since then, the ones read by that call.
+     * 
+     * @return Map of operation keys and statistics.
+     */
+    public static Map<String, OperationStatistics> getTestStatistics() {
+        TimerData testData = data.get();
+        Map<String, OperationStatistics> statistics = testData.getStatistics();
+        return statistics.isEmpty() ? testData.testStatistics : statistics;
+    }
+
+    /**
+     * Get counters of the current test: collected since the last {@link #readAndClear()} call in current thread or,
+     * if nothing was collected since then, the ones read by that call.
+     * 
+     * @return Map of operation keys and summarized values.
+     */
+    public static Map<String, Long> getTestCounters() {
+        TimerData testData = data.get();
+        return testData.counters.isEmpty() ? testData.testCounters : new TreeMap<String, Long>(testData.counters);
+    }
+
+    /**
+     * Get latency statistics of the operations merged from all threads on {@link #readAndClear()} calls.
+     * 
+     * @return Map of operation keys and statistics.
+     */
+    public static Map<String, OperationStatistics> getSuiteStatistics() {
+        Map<String, OperationStatistics> statistics = new TreeMap<String, OperationStatistics>();
+        for (Map.Entry<String, Histogram> entry : suiteHistograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            synchronized (histogram) {
+                statistics.put(entry.getKey(), new OperationStatistics(entry.getKey(), histogram));
+            }
         }
-        return testMetrics;
+        return statistics;
     }
 
     public interface IPerformanceOperation {
         String getKey();
     }
+
+    /**
+     * Metrics of the single thread.
+     */
+    private static class TimerData {
+        // start time in ns of the current timers
+        private final Map<String, Long> timer = new HashMap<String, Long>();
+        // summarized time in ns
+        private final Map<String, Long> durations = new HashMap<String, Long>();
+        // summarized values added via add()
+        private final Map<String, Long> counters = new HashMap<String, Long>();
+        // histograms are reset instead of recreation to avoid allocations
+        private final Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        private Map<String, OperationStatistics> testStatistics = new TreeMap<String, OperationStatistics>();
+        private Map<String, Long> testCounters = new TreeMap<String, Long>();
+
+        private Histogram getHistogram(String key) {
+            Histogram histogram = histograms.get(key);
+            if (histogram == null) {
+                histogram = new Histogram(HISTOGRAM_PRECISION);
+                histograms.put(key, histogram);
+            }
+            return histogram;
+        }
+
+        private Map<String, OperationStatistics> getStatistics() {
+            Map<String, OperationStatistics> statistics = new TreeMap<String, OperationStatistics>();
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                if (entry.getValue().getTotalCount() > 0) {
+                    statistics.put(entry.getKey(), new OperationStatistics(entry.getKey(), entry.getValue()));
+                }
+            }
+            return statistics;
+        }
+
+        private void clear() {
+            durations.clear();
+            counters.clear();
+            for (Histogram histogram : histograms.values()) {
+                histogram.reset();
+            }
+        }
+    }
 }
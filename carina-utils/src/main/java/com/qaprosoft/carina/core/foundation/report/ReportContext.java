@@ -46,6 +46,8 @@ import org.imgscalr.Scalr;
 
 import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
 import com.qaprosoft.carina.core.foundation.log.ThreadLogAppender;
+import com.qaprosoft.carina.core.foundation.performance.OperationStatistics;
+import com.qaprosoft.carina.core.foundation.performance.Timer;
 import com.qaprosoft.carina.core.foundation.utils.Configuration;
 import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
 import com.qaprosoft.carina.core.foundation.utils.FileManager;
@@ -68,6 +70,8 @@ public class ReportContext {
 
     public static final String TEMP_FOLDER = "temp";
 
+    public static final String PERFORMANCE_LOG = "performance.log";
+
     private static File baseDirectory = null;
 
     private static File tempDirectory;
@@ -491,6 +495,53 @@ public class ReportContext {
         return link;
     }
     
+    /**
+     * Saves latency statistics and counters of the current test operations into performance.log of the test folder.
+     * 
+     * @return saved file or null if no operations were tracked by the test
+     */
+    public static File savePerformanceStatistics() {
+        Map<String, OperationStatistics> statistics = Timer.getTestStatistics();
+        Map<String, Long> counters = Timer.getTestCounters();
+        if (statistics.isEmpty() && counters.isEmpty()) {
+            return null;
+        }
+
+        List<String> lines = new ArrayList<String>();
+        for (OperationStatistics operation : statistics.values()) {
+            lines.add(operation.toString());
+        }
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            lines.add(counter.getKey() + ": " + counter.getValue());
+        }
+
+        File file = new File(getTestDir(), PERFORMANCE_LOG);
+        try {
+            FileUtils.writeLines(file, "UTF-8", lines);
+        } catch (IOException e) {
+            LOGGER.error("Unable to save performance statistics: " + e.getMessage(), e);
+            return null;
+        }
+        return file;
+    }
+
+    // TODO: refactor as soon as getLogLink will be updated
+    public static String getPerformanceStatisticsLink(String test) {
+        String link = "";
+        File performanceLog = new File(ReportContext.getTestDir() + "/" + PERFORMANCE_LOG);
+        if (!performanceLog.exists()) {
+            return link;
+        }
+
+        if (!Configuration.get(Parameter.REPORT_URL).isEmpty()) {
+            link = String.format("%s/%d/%s/%s", Configuration.get(Parameter.REPORT_URL), rootID, test.replaceAll("[^a-zA-Z0-9.-]", "_"),
+                    PERFORMANCE_LOG);
+        } else {
+            link = String.format("file://%s/%s/%s", baseDirectory, test.replaceAll("[^a-zA-Z0-9.-]", "_"), PERFORMANCE_LOG);
+        }
+        return link;
+    }
+
     // TODO: refactor as soon as getLogLink will be updated
     public static String getUIxLink(String test, String uixFileName) {
         String link = "";
@@ -36,6 +36,9 @@ public class Configuration {
     private static final Logger LOGGER = Logger.getLogger(Configuration.class);
     private static IEnvArgResolver envArgResolver;
 
+    // parameter values of the current R.CONFIG version indexed by parameter ordinal
+    private static volatile Snapshot snapshot = new Snapshot(-1);
+
     static {
         String envArgResolverClass = Configuration.get(Parameter.ENV_ARG_RESOLVER);
         if (envArgResolverClass.isEmpty()) {
@@ -123,6 +126,8 @@ public class Configuration {
 
         RETRY_INTERVAL("retry_interval"),
 
+        RETRY_BACKOFF("retry_backoff"),
+
         PROJECT_REPORT_DIRECTORY("project_report_directory"),
 
         MAX_SCREENSHOOT_HISTORY("max_screen_history"),
@@ -143,6 +148,12 @@ public class Configuration {
 
         INIT_RETRY_INTERVAL("init_retry_interval"),
 
+        DRIVER_WARM_POOL_SIZE("driver_warm_pool_size"),
+
+        DRIVER_WARM_POOL_IDLE_TIMEOUT("driver_warm_pool_idle_timeout"),
+
+        DRIVER_QUIT_TIMEOUT("driver_quit_timeout"),
+
         RETRY_COUNT("retry_count"),
 
         ENABLE_L10N("enable_l10n"),
@@ -159,6 +170,10 @@ public class Configuration {
 
         DATA_PROVIDER_THREAD_COUNT("data_provider_thread_count"),
 
+        XLS_CACHE_SIZE("xls_cache_size"),
+
+        XLS_STREAMING("xls_streaming"),
+
         CORE_LOG_LEVEL("core_log_level"),
         
         CORE_LOG_PACKAGES("core_log_packages"),
@@ -262,24 +277,65 @@ public class Configuration {
      * @return parameter value if it is found by key or default value if not.
      */
     public static String get(Parameter param) {
-        String value = R.CONFIG.get(param.getKey());
-        return !(value == null || value.equalsIgnoreCase(SpecialKeywords.NULL)) ? value : StringUtils.EMPTY;
+        Snapshot current = getSnapshot();
+        String value = current.values[param.ordinal()];
+        if (value == null) {
+            value = R.CONFIG.get(param.getKey());
+            value = !(value == null || value.equalsIgnoreCase(SpecialKeywords.NULL)) ? value : StringUtils.EMPTY;
+            current.values[param.ordinal()] = value;
+        }
+        return value;
     }
 
     public static int getInt(Parameter param) {
-        return Integer.valueOf(get(param).trim());
+        Snapshot current = getSnapshot();
+        Object value = current.typedValues[param.ordinal()];
+        if (!(value instanceof Integer)) {
+            value = Integer.valueOf(get(param).trim());
+            current.typedValues[param.ordinal()] = value;
+        }
+        return (Integer) value;
     }
 
     public static long getLong(Parameter param) {
-        return Long.valueOf(get(param).trim());
+        Snapshot current = getSnapshot();
+        Object value = current.typedValues[param.ordinal()];
+        if (!(value instanceof Long)) {
+            value = Long.valueOf(get(param).trim());
+            current.typedValues[param.ordinal()] = value;
+        }
+        return (Long) value;
     }
 
     public static double getDouble(Parameter param) {
-        return Double.valueOf(get(param).trim());
+        Snapshot current = getSnapshot();
+        Object value = current.typedValues[param.ordinal()];
+        if (!(value instanceof Double)) {
+            value = Double.valueOf(get(param).trim());
+            current.typedValues[param.ordinal()] = value;
+        }
+        return (Double) value;
     }
 
     public static boolean getBoolean(Parameter param) {
-        return Boolean.valueOf(get(param).trim());
+        Snapshot current = getSnapshot();
+        Object value = current.typedValues[param.ordinal()];
+        if (!(value instanceof Boolean)) {
+            value = Boolean.valueOf(get(param).trim());
+            current.typedValues[param.ordinal()] = value;
+        }
+        return (Boolean) value;
+    }
+
+    private static Snapshot getSnapshot() {
+        // snapshot is rebuilt as soon as R.CONFIG is modified
+        int version = R.CONFIG.getVersion();
+        Snapshot current = snapshot;
+        if (current.version != version) {
+            current = new Snapshot(version);
+            snapshot = current;
+        }
+        return current;
     }
 
     @Deprecated
@@ -422,4 +478,14 @@ public class Configuration {
     public static Object getCapability(String name) {
     		return R.CONFIG.get("capabilities." + name);
     }
+
+    private static class Snapshot {
+        private final int version;
+        private final String[] values = new String[Parameter.values().length];
+        private final Object[] typedValues = new Object[Parameter.values().length];
+
+        private Snapshot(int version) {
+            this.version = version;
+        }
+    }
 }
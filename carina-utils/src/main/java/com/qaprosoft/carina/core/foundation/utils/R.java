@@ -19,6 +19,8 @@ import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
@@ -54,12 +56,17 @@ public enum R {
 
     private String resourceFile;
 
+    private TrackedProperties properties;
+
+    // resolved values of the current properties version
+    private volatile Snapshot snapshot = new Snapshot(-1);
+
     private static Map<String, Properties> propertiesHolder = new HashMap<String, Properties>();
 
     static {
         for (R resource : values()) {
             try {
-                Properties properties = new Properties();
+                TrackedProperties properties = new TrackedProperties();
 
                 URL baseResource = ClassLoader.getSystemResource(resource.resourceFile);
                 if (baseResource != null) {
@@ -106,6 +113,7 @@ public enum R {
                     }
                 }
                 propertiesHolder.put(resource.resourceFile, properties);
+                resource.properties = properties;
             } catch (Exception e) {
                 throw new InvalidConfigurationException("Invalid config in '" + resource + "': " + e.getMessage());
             }
@@ -138,11 +146,43 @@ public enum R {
      * @return config value
      */
     public String get(String key) {
-        String value = CONFIG.resourceFile.equals(resourceFile) ? PlaceholderResolver.resolve(propertiesHolder.get(resourceFile), key)
-                : propertiesHolder.get(resourceFile).getProperty(key);
-        // TODO: why we return empty instead of null?
-        // [VD] as designed empty MUST be returned
-        return value != null ? value : StringUtils.EMPTY;
+        Properties properties = propertiesHolder.get(resourceFile);
+        if (!CONFIG.resourceFile.equals(resourceFile)) {
+            String value = properties.getProperty(key);
+            // TODO: why we return empty instead of null?
+            // [VD] as designed empty MUST be returned
+            return value != null ? value : StringUtils.EMPTY;
+        }
+
+        // placeholders are resolved once per key until properties are changed
+        Snapshot current = getSnapshot();
+        String value = current.values.get(key);
+        if (value == null) {
+            value = PlaceholderResolver.resolve(properties, key);
+            value = value != null ? value : StringUtils.EMPTY;
+            current.values.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns version of the properties which is changed on every modification.
+     * 
+     * @return int
+     */
+    int getVersion() {
+        return properties.version;
+    }
+
+    private Snapshot getSnapshot() {
+        // version is read before resolving so values resolved in parallel with modification are dropped on the next call
+        int version = getVersion();
+        Snapshot current = snapshot;
+        if (current.version != version) {
+            current = new Snapshot(version);
+            snapshot = current;
+        }
+        return current;
     }
 
     public int getInt(String key) {
@@ -172,4 +212,48 @@ public enum R {
         return propertiesHolder.get(resourceFile);
     }
 
+    private static class Snapshot {
+        private final int version;
+        private final ConcurrentMap<String, String> values = new ConcurrentHashMap<String, String>();
+
+        private Snapshot(int version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * Properties which track modifications to invalidate resolved values.
+     */
+    private static class TrackedProperties extends Properties {
+        private static final long serialVersionUID = 1L;
+
+        private volatile int version;
+
+        @Override
+        public synchronized Object put(Object key, Object value) {
+            Object previous = super.put(key, value);
+            version++;
+            return previous;
+        }
+
+        @Override
+        public synchronized void putAll(Map<? extends Object, ? extends Object> t) {
+            super.putAll(t);
+            version++;
+        }
+
+        @Override
+        public synchronized Object remove(Object key) {
+            Object previous = super.remove(key);
+            version++;
+            return previous;
+        }
+
+        @Override
+        public synchronized void clear() {
+            super.clear();
+            version++;
+        }
+    }
+
 }
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.report.ReportContext;
+
+/**
+ * Tests for {@link ThreadLogAppender}
+ */
+public class ThreadLogAppenderTest {
+    private static final Logger LOGGER = Logger.getLogger(ThreadLogAppenderTest.class);
+
+    @Test
+    public void testAsyncAppend() throws IOException, InterruptedException {
+        final ThreadLogAppender appender = new ThreadLogAppender();
+        appender.setAsync(true);
+        appender.setLocationInfo(false);
+
+        final File[] otherLog = new File[1];
+        Thread other = new Thread(() -> {
+            appender.append(createEvent("other thread message"));
+            otherLog[0] = new File(ReportContext.getTestDir(), "test.log");
+            appender.close();
+        });
+        other.start();
+
+        for (int i = 0; i < 100; i++) {
+            appender.append(createEvent("message " + i));
+        }
+        File testLog = new File(ReportContext.getTestDir(), "test.log");
+        appender.close();
+        other.join();
+
+        List<String> lines = FileUtils.readLines(testLog, StandardCharsets.UTF_8);
+        Assert.assertEquals(lines.size(), 100, "Not all messages were written before close!");
+        Assert.assertTrue(lines.get(0).contains("[ThreadLogAppenderTest]"), lines.get(0));
+        Assert.assertTrue(lines.get(99).endsWith("[INFO] message 99"), lines.get(99));
+
+        List<String> otherLines = FileUtils.readLines(otherLog[0], StandardCharsets.UTF_8);
+        Assert.assertEquals(otherLines.size(), 1, "Messages of the threads are mixed!");
+        Assert.assertTrue(otherLines.get(0).endsWith("other thread message"), otherLines.get(0));
+    }
+
+    private static LoggingEvent createEvent(String message) {
+        return new LoggingEvent(Logger.class.getName(), LOGGER, Level.INFO, message, null);
+    }
+}
@@ -24,7 +24,9 @@ public class Operation {
         TEST2("test2"),
         TEST3("test3"),
         TEST4("test4"),
-        TEST5("test5");
+        TEST5("test5"),
+        TEST6("test6"),
+        TEST7("test7");
 
         private String key;
 
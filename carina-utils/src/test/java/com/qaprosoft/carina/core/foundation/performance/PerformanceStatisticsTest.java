@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.performance.Operation.OPERATIONS;
+import com.qaprosoft.carina.core.foundation.report.ReportContext;
+
+public class PerformanceStatisticsTest {
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() {
+        Timer.startTest();
+        new File(ReportContext.getTestDir(), ReportContext.PERFORMANCE_LOG).delete();
+    }
+
+    @Test
+    public void testTestStatisticsArePublished() throws IOException {
+        Timer.startTest();
+        for (int i = 0; i < 2; i++) {
+            Timer.start(OPERATIONS.TEST6);
+            Timer.stop(OPERATIONS.TEST6);
+        }
+        Timer.add(OPERATIONS.TEST7, 4);
+
+        File file = ReportContext.savePerformanceStatistics();
+        Assert.assertNotNull(file, "Test statistics are not saved!");
+        Assert.assertEquals(file, new File(ReportContext.getTestDir(), ReportContext.PERFORMANCE_LOG));
+        String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+        Assert.assertTrue(content.contains(OPERATIONS.TEST6.getKey() + ": count=2, "), content);
+        Assert.assertTrue(content.contains(OPERATIONS.TEST7.getKey() + ": 4"), content);
+    }
+
+    @Test
+    public void testStatisticsArePublishedAfterMetricsReading() throws IOException {
+        Timer.startTest();
+        Timer.start(OPERATIONS.TEST6);
+        Timer.stop(OPERATIONS.TEST6);
+
+        // metrics could be already read by Zafira when test report is saved
+        Assert.assertTrue(Timer.readAndClear().containsKey(OPERATIONS.TEST6.getKey()));
+        File file = ReportContext.savePerformanceStatistics();
+        Assert.assertNotNull(file, "Test statistics are not saved after metrics reading!");
+        Assert.assertTrue(FileUtils.readFileToString(file, StandardCharsets.UTF_8).contains(OPERATIONS.TEST6.getKey() + ": count=1, "));
+    }
+
+    @Test
+    public void testNothingIsPublishedForNextTest() {
+        Timer.start(OPERATIONS.TEST6);
+        Timer.stop(OPERATIONS.TEST6);
+        Timer.readAndClear();
+
+        Timer.startTest();
+        Assert.assertTrue(Timer.getTestStatistics().isEmpty());
+        Assert.assertNull(ReportContext.savePerformanceStatistics());
+    }
+}
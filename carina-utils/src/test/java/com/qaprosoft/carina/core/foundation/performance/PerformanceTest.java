@@ -16,6 +16,7 @@
 package com.qaprosoft.carina.core.foundation.performance;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -81,6 +82,66 @@ public class PerformanceTest {
         // do not return non stopped metric
         Assert.assertEquals(testMetrics.size(), 0);
     }
+
+    @Test(priority = 6)
+    public void testLatencyStatistics() {
+        for (int i = 0; i < 3; i++) {
+            Timer.start(OPERATIONS.TEST6);
+            pause(0.05);
+            Assert.assertTrue(Timer.stop(OPERATIONS.TEST6) >= 50, "Elapsed time in ms is not returned!");
+        }
+
+        Map<String, Long> testMetrics = Timer.readAndClear();
+        Assert.assertTrue(testMetrics.get(OPERATIONS.TEST6.getKey()) >= 150);
+
+        OperationStatistics statistics = Timer.getTestStatistics().get(OPERATIONS.TEST6.getKey());
+        Assert.assertNotNull(statistics, "Test statistics are not collected!");
+        Assert.assertEquals(statistics.getCount(), 3);
+        Assert.assertTrue(statistics.getMin() >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertTrue(statistics.getP50() <= statistics.getP99());
+        Assert.assertTrue(statistics.getP99() <= statistics.getMax() + statistics.getMax() / 100);
+
+        // statistics of the test are merged into the suite ones
+        Assert.assertTrue(Timer.getSuiteStatistics().get(OPERATIONS.TEST6.getKey()).getCount() >= 3);
+    }
+
+    @Test(priority = 7)
+    public void testCountersAreReadSeparately() {
+        Timer.add(OPERATIONS.TEST7, 2);
+        Timer.add(OPERATIONS.TEST7, 3);
+
+        Map<String, Long> testMetrics = Timer.readAndClear();
+        Assert.assertFalse(testMetrics.containsKey(OPERATIONS.TEST7.getKey()), "Counter is returned as time metric!");
+        Assert.assertEquals(Timer.getTestCounters().get(OPERATIONS.TEST7.getKey()), Long.valueOf(5));
+
+        Timer.readAndClear();
+        Assert.assertTrue(Timer.getTestCounters().isEmpty());
+    }
+
+    @Test(priority = 8)
+    public void testSuiteStatisticsFromThreads() throws InterruptedException {
+        long before = getSuiteCount();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10; j++) {
+                    Timer.start(OPERATIONS.TEST6);
+                    Timer.stop(OPERATIONS.TEST6);
+                }
+                Timer.readAndClear();
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(getSuiteCount() - before, 40);
+    }
+
+    private long getSuiteCount() {
+        OperationStatistics statistics = Timer.getSuiteStatistics().get(OPERATIONS.TEST6.getKey());
+        return statistics != null ? statistics.getCount() : 0;
+    }
     
     private void pause(Number timeout) {
         try {
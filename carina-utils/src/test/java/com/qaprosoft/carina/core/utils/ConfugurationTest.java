@@ -48,6 +48,16 @@ public class ConfugurationTest {
         Configuration.validateConfiguration();
     }
 
+    @Test
+    public void testTypedValueAfterPut() {
+        R.CONFIG.put("explicit_timeout", "10");
+        Assert.assertEquals(Configuration.getLong(Parameter.EXPLICIT_TIMEOUT), 10L);
+        Assert.assertEquals(Configuration.getInt(Parameter.EXPLICIT_TIMEOUT), 10);
+        R.CONFIG.put("explicit_timeout", "20");
+        Assert.assertEquals(Configuration.getLong(Parameter.EXPLICIT_TIMEOUT), 20L, "Typed value was not updated!");
+        Assert.assertEquals(Configuration.get(Parameter.EXPLICIT_TIMEOUT), "20");
+    }
+
     @Test
     public void testConfigurationPlacehodler() {
         R.CONFIG.put("env", "STG");
@@ -61,6 +61,15 @@ public class RTest {
      * }
      */
 
+    @Test
+    public void testPlaceholdersAfterPut() {
+        R.CONFIG.put("placeholder_host", "localhost");
+        R.CONFIG.put("placeholder_url", "http://${placeholder_host}");
+        Assert.assertEquals(R.CONFIG.get("placeholder_url"), "http://localhost");
+        R.CONFIG.put("placeholder_host", "remote");
+        Assert.assertEquals(R.CONFIG.get("placeholder_url"), "http://remote", "Resolved value was not updated!");
+    }
+
     @Test
     public void testPlaceholdersInEmail() {
         Assert.assertEquals(R.EMAIL.get("title"), "${test}");
@@ -30,7 +30,6 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.NoAlertPresentException;
 import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.NoSuchSessionException;
 import org.openqa.selenium.NoSuchWindowException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.UnhandledAlertException;
@@ -42,7 +41,6 @@ import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
 import com.qaprosoft.carina.core.foundation.crypto.CryptoTool;
@@ -73,6 +71,10 @@ public class DriverHelper {
 
     protected static final long RETRY_TIME = Configuration.getLong(Parameter.RETRY_INTERVAL);
 
+    /**
+     * @deprecated not used anymore as waits are performed by thread specific {@link PollingWait}
+     */
+    @Deprecated
     protected static Wait<WebDriver> wait;
 
     protected long timer;
@@ -84,11 +86,11 @@ public class DriverHelper {
     protected static Pattern CRYPTO_PATTERN = Pattern.compile(SpecialKeywords.CRYPT);
 
     public DriverHelper() {
-        cryptoTool = new CryptoTool(Configuration.get(Parameter.CRYPTO_KEY_PATH));
+        cryptoTool = CryptoTool.getInstance(Configuration.get(Parameter.CRYPTO_KEY_PATH));
     }
 
     public DriverHelper(WebDriver driver) {
-        cryptoTool = new CryptoTool(Configuration.get(Parameter.CRYPTO_KEY_PATH));
+        cryptoTool = CryptoTool.getInstance(Configuration.get(Parameter.CRYPTO_KEY_PATH));
         this.driver = driver;
 
         if (driver == null) {
@@ -455,9 +457,8 @@ public class DriverHelper {
         boolean result;
         final String decryptedExpectedTitle = cryptoTool.decryptByPattern(expectedTitle, CRYPTO_PATTERN);
         final WebDriver drv = getDriver();
-        wait = new WebDriverWait(drv, EXPLICIT_TIMEOUT, RETRY_TIME);
         try {
-            wait.until((Function<WebDriver, Object>) dr -> drv.getTitle().contains(decryptedExpectedTitle));
+            PollingWait.get().until(drv, (Function<WebDriver, Object>) dr -> drv.getTitle().contains(decryptedExpectedTitle), EXPLICIT_TIMEOUT, RETRY_TIME);
             result = true;
             Messager.TITLE_CORERECT.info(drv.getCurrentUrl(), expectedTitle);
         } catch (Exception e) {
@@ -586,9 +587,8 @@ public class DriverHelper {
      */
     public void acceptAlert() {
         WebDriver drv = getDriver();
-        wait = new WebDriverWait(drv, EXPLICIT_TIMEOUT, RETRY_TIME);
         try {
-            wait.until((Function<WebDriver, Object>) dr -> isAlertPresent());
+            PollingWait.get().until(drv, (Function<WebDriver, Object>) dr -> isAlertPresent(), EXPLICIT_TIMEOUT, RETRY_TIME);
             drv.switchTo().alert().accept();
             Messager.ALERT_ACCEPTED.info("");
         } catch (Exception e) {
@@ -601,9 +601,8 @@ public class DriverHelper {
      */
     public void cancelAlert() {
         WebDriver drv = getDriver();
-        wait = new WebDriverWait(drv, EXPLICIT_TIMEOUT, RETRY_TIME);
         try {
-            wait.until((Function<WebDriver, Object>) dr -> isAlertPresent());
+            PollingWait.get().until(drv, (Function<WebDriver, Object>) dr -> isAlertPresent(), EXPLICIT_TIMEOUT, RETRY_TIME);
             drv.switchTo().alert().dismiss();
             Messager.ALERT_CANCELED.info("");
         } catch (Exception e) {
@@ -635,9 +634,8 @@ public class DriverHelper {
     public boolean isPageOpened(final AbstractPage page, long timeout) {
         boolean result;
         final WebDriver drv = getDriver();
-        wait = new WebDriverWait(drv, timeout, RETRY_TIME);
         try {
-            wait.until((Function<WebDriver, Object>) dr -> LogicUtils.isURLEqual(page.getPageURL(), drv.getCurrentUrl()));
+            PollingWait.get().until(drv, (Function<WebDriver, Object>) dr -> LogicUtils.isURLEqual(page.getPageURL(), drv.getCurrentUrl()), timeout, RETRY_TIME);
             result = true;
         } catch (Exception e) {
             result = false;
@@ -864,10 +862,8 @@ public class DriverHelper {
 		boolean result;
 		final WebDriver drv = getDriver();
 		Timer.start(ACTION_NAME.WAIT);
-		wait = new WebDriverWait(drv, timeout, RETRY_TIME).ignoring(WebDriverException.class)
-				.ignoring(NoSuchSessionException.class);
 		try {
-			wait.until(condition);
+			PollingWait.get().until(drv, condition, timeout, RETRY_TIME);
 			result = true;
 			LOGGER.debug("waitUntil: finished true...");
 		} catch (NoSuchElementException | TimeoutException e) {
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+
+/**
+ * DriverQuitExecutor quits driver sessions in background threads so test thread is not blocked by hung nodes.
+ *
+ * Quits are fanned out across bounded thread pool and tracked until {@link #await()} which waits for every
+ * pending quit no longer than 'driver_quit_timeout' seconds since its submission and logs summary of failed quits.
+ */
+public class DriverQuitExecutor {
+    private static final Logger LOGGER = Logger.getLogger(DriverQuitExecutor.class);
+
+    private static final int MAX_THREADS = 32;
+
+    private static final long DEFAULT_QUIT_TIMEOUT = 60;
+
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), r -> {
+                Thread thread = new Thread(r, "driver-quit");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static final Queue<PendingQuit> pending = new ConcurrentLinkedQueue<PendingQuit>();
+
+    private DriverQuitExecutor() {
+    }
+
+    /**
+     * Quit driver session in background. Driver should be already deregistered from the driver and device pools.
+     *
+     * @param name
+     *            String driver name
+     * @param drv
+     *            WebDriver
+     * @return Future to wait for quit if needed
+     */
+    public static Future<?> quit(String name, WebDriver drv) {
+        // quit listeners (video recording etc) register artifacts for the current test
+        final ITestResult result = Reporter.getCurrentTestResult();
+        Future<?> future = executor.submit(() -> {
+            Reporter.setCurrentTestResult(result);
+            try {
+                LOGGER.debug("Driver starting quit..." + name);
+                drv.quit();
+                LOGGER.debug("Driver finished quit..." + name);
+            } catch (Exception e) {
+                LOGGER.debug("Error discovered during driver quit: " + e.getMessage(), e);
+                throw e;
+            } finally {
+                Reporter.setCurrentTestResult(null);
+            }
+            return null;
+        });
+
+        // forget already finished quits to not accumulate them during long runs
+        pending.removeIf(quit -> quit.future.isDone() && quit.getFailure() == null);
+        pending.add(new PendingQuit(name, future));
+        return future;
+    }
+
+    /**
+     * Wait for all pending quits and log summary of failed ones.
+     *
+     * @return List of failed quits descriptions
+     */
+    public static List<String> await() {
+        List<String> failures = new ArrayList<String>();
+        PendingQuit quit;
+        while ((quit = pending.poll()) != null) {
+            String failure = quit.await();
+            if (failure != null) {
+                failures.add(quit.name + ": " + failure);
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            LOGGER.warn("Unable to quit " + failures.size() + " driver(s):\n" + String.join("\n", failures));
+        }
+        return failures;
+    }
+
+    private static long getQuitTimeout() {
+        return NumberUtils.toLong(Configuration.get(Parameter.DRIVER_QUIT_TIMEOUT), DEFAULT_QUIT_TIMEOUT);
+    }
+
+    private static class PendingQuit {
+        private final String name;
+        private final Future<?> future;
+        private final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getQuitTimeout());
+
+        private PendingQuit(String name, Future<?> future) {
+            this.name = name;
+            this.future = future;
+        }
+
+        private String await() {
+            try {
+                future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                return null;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return "not finished in " + getQuitTimeout() + " seconds";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "interrupted";
+            } catch (ExecutionException | CancellationException e) {
+                return getFailure();
+            }
+        }
+
+        private String getFailure() {
+            if (!future.isDone()) {
+                return null;
+            }
+            try {
+                future.get();
+                return null;
+            } catch (ExecutionException e) {
+                String message = String.valueOf(e.getCause().getMessage());
+                // TODO: it seems like BROWSER_TIMEOUT or NODE_FORWARDING should be handled here as well
+                return message.contains("Session ID is null.") ? null : message;
+            } catch (CancellationException e) {
+                return "cancelled";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "interrupted";
+            }
+        }
+    }
+}
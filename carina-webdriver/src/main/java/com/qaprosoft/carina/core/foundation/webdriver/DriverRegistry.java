@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import com.qaprosoft.carina.core.foundation.webdriver.TestPhase.Phase;
+
+/**
+ * Concurrent registry of Carina WebDrivers indexed by thread id, driver name and session id.
+ * Drivers registered on BEFORE_SUITE phase are kept in a separate bucket shared by all threads.
+ *
+ * Set view iterates over all registered drivers and is weakly consistent, so drivers could be
+ * registered/deregistered in parallel with iteration.
+ */
+public class DriverRegistry extends AbstractSet<CarinaDriver> {
+
+    // BEFORE_SUITE drivers visible for every thread: name -> driver
+    private final ConcurrentMap<String, CarinaDriver> suiteDrivers = new ConcurrentHashMap<String, CarinaDriver>();
+
+    // thread id -> (name -> driver)
+    private final ConcurrentMap<Long, ConcurrentMap<String, CarinaDriver>> threadDrivers = new ConcurrentHashMap<Long, ConcurrentMap<String, CarinaDriver>>();
+
+    // session id -> driver
+    private final ConcurrentMap<SessionId, CarinaDriver> sessionDrivers = new ConcurrentHashMap<SessionId, CarinaDriver>();
+
+    /**
+     * Register driver in the appropriate bucket according to its phase and thread id.
+     *
+     * @param carinaDriver
+     *            CarinaDriver
+     * @return false if the same driver is already registered
+     */
+    @Override
+    public boolean add(CarinaDriver carinaDriver) {
+        boolean added;
+        if (Phase.BEFORE_SUITE.equals(carinaDriver.getPhase())) {
+            added = suiteDrivers.putIfAbsent(carinaDriver.getName(), carinaDriver) == null;
+        } else {
+            final boolean[] result = new boolean[1];
+            threadDrivers.compute(carinaDriver.getThreadId(), (threadId, drivers) -> {
+                if (drivers == null) {
+                    drivers = new ConcurrentHashMap<String, CarinaDriver>();
+                }
+                result[0] = drivers.putIfAbsent(carinaDriver.getName(), carinaDriver) == null;
+                return drivers;
+            });
+            added = result[0];
+        }
+
+        SessionId sessionId = getSessionId(carinaDriver.getDriver());
+        if (added && sessionId != null) {
+            sessionDrivers.put(sessionId, carinaDriver);
+        }
+        return added;
+    }
+
+    /**
+     * Deregister driver from all indexes.
+     *
+     * @param o
+     *            CarinaDriver
+     * @return true if driver was registered
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof CarinaDriver)) {
+            return false;
+        }
+        CarinaDriver carinaDriver = (CarinaDriver) o;
+
+        boolean removed = suiteDrivers.remove(carinaDriver.getName(), carinaDriver);
+        if (!removed) {
+            removed = removeFromThread(carinaDriver.getThreadId(), carinaDriver);
+        }
+        if (!removed) {
+            // thread id, phase or name could be changed after registration so lookup the driver everywhere
+            removed = suiteDrivers.values().remove(carinaDriver);
+            for (Long threadId : threadDrivers.keySet()) {
+                if (removed) {
+                    break;
+                }
+                removed = removeFromThread(threadId, carinaDriver);
+            }
+        }
+
+        if (removed) {
+            SessionId sessionId = getSessionId(carinaDriver.getDriver());
+            if (sessionId == null || !sessionDrivers.remove(sessionId, carinaDriver)) {
+                // session id is reset by RemoteWebDriver on quit
+                sessionDrivers.values().remove(carinaDriver);
+            }
+        }
+        return removed;
+    }
+
+    private boolean removeFromThread(long threadId, CarinaDriver carinaDriver) {
+        final boolean[] result = new boolean[1];
+        threadDrivers.computeIfPresent(threadId, (id, drivers) -> {
+            result[0] = drivers.values().remove(carinaDriver);
+            // release empty bucket to avoid leaks in case of many short living threads
+            return drivers.isEmpty() ? null : drivers;
+        });
+        return result[0];
+    }
+
+    /**
+     * Find driver by name among the drivers of the thread and BEFORE_SUITE drivers.
+     *
+     * @param threadId
+     *            long
+     * @param name
+     *            String driver name
+     * @return CarinaDriver or null if nothing was found
+     */
+    public CarinaDriver get(long threadId, String name) {
+        Map<String, CarinaDriver> drivers = threadDrivers.get(threadId);
+        CarinaDriver carinaDriver = drivers != null ? drivers.get(name) : null;
+        if (carinaDriver == null) {
+            carinaDriver = suiteDrivers.get(name);
+        }
+        return carinaDriver;
+    }
+
+    /**
+     * Find driver by session id.
+     *
+     * @param sessionId
+     *            SessionId
+     * @return CarinaDriver or null if nothing was found
+     */
+    public CarinaDriver get(SessionId sessionId) {
+        return sessionDrivers.get(sessionId);
+    }
+
+    /**
+     * Verify if driver is registered for the thread or on BEFORE_SUITE phase.
+     *
+     * @param threadId
+     *            long
+     * @param name
+     *            String driver name
+     * @return boolean
+     */
+    public boolean contains(long threadId, String name) {
+        return get(threadId, name) != null;
+    }
+
+    /**
+     * Return number of drivers available for the thread including BEFORE_SUITE ones.
+     *
+     * @param threadId
+     *            long
+     * @return int
+     */
+    public int size(long threadId) {
+        Map<String, CarinaDriver> drivers = threadDrivers.get(threadId);
+        if (drivers == null) {
+            return suiteDrivers.size();
+        }
+        int size = drivers.size();
+        for (String name : suiteDrivers.keySet()) {
+            if (!drivers.containsKey(name)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Return snapshot of drivers available for the thread including BEFORE_SUITE ones.
+     *
+     * @param threadId
+     *            long
+     * @return ConcurrentHashMap of driver names and Carina WebDrivers
+     */
+    public ConcurrentHashMap<String, CarinaDriver> getDrivers(long threadId) {
+        ConcurrentHashMap<String, CarinaDriver> currentDrivers = new ConcurrentHashMap<String, CarinaDriver>(suiteDrivers);
+        Map<String, CarinaDriver> drivers = threadDrivers.get(threadId);
+        if (drivers != null) {
+            currentDrivers.putAll(drivers);
+        }
+        return currentDrivers;
+    }
+
+    @Override
+    public Iterator<CarinaDriver> iterator() {
+        return new Iterator<CarinaDriver>() {
+            private final Iterator<ConcurrentMap<String, CarinaDriver>> buckets = threadDrivers.values().iterator();
+            private Iterator<CarinaDriver> current = suiteDrivers.values().iterator();
+            private CarinaDriver last;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (!buckets.hasNext()) {
+                        return false;
+                    }
+                    current = buckets.next().values().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public CarinaDriver next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = current.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                DriverRegistry.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        int size = suiteDrivers.size();
+        for (Map<String, CarinaDriver> drivers : threadDrivers.values()) {
+            size += drivers.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return suiteDrivers.isEmpty() && threadDrivers.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        suiteDrivers.clear();
+        threadDrivers.clear();
+        sessionDrivers.clear();
+    }
+
+    private static SessionId getSessionId(WebDriver drv) {
+        if (drv instanceof EventFiringWebDriver) {
+            drv = ((EventFiringWebDriver) drv).getWrappedDriver();
+        }
+        if (drv instanceof RemoteWebDriver) {
+            return ((RemoteWebDriver) drv).getSessionId();
+        }
+        return null;
+    }
+
+}
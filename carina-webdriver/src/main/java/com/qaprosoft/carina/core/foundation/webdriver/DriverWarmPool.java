@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+import com.qaprosoft.carina.core.foundation.utils.R;
+import com.qaprosoft.carina.core.foundation.webdriver.core.factory.DriverFactory;
+import com.qaprosoft.carina.core.foundation.webdriver.device.Device;
+import com.qaprosoft.carina.core.foundation.webdriver.device.DevicePool;
+
+/**
+ * DriverWarmPool speculatively starts driver sessions in background threads so
+ * {@link IDriverPool#createDriver(String, DesiredCapabilities, String)} could hand over ready session
+ * instead of waiting for the new one.
+ *
+ * Pool is disabled by default and is enabled by 'driver_warm_pool_size' property which declares number of
+ * sessions kept ready per capabilities set. Sessions for the exact device (udid capability) are never pooled.
+ */
+public class DriverWarmPool {
+    private static final Logger LOGGER = Logger.getLogger(DriverWarmPool.class);
+
+    // driver name used for speculatively started sessions
+    private static final String WARM_DRIVER_NAME = "warm";
+
+    private static final long QUIT_TIMEOUT = 60;
+
+    // capabilities set -> ready sessions
+    private static final ConcurrentMap<String, BlockingQueue<WarmDriver>> sessions = new ConcurrentHashMap<String, BlockingQueue<WarmDriver>>();
+
+    // capabilities set -> number of sessions being started
+    private static final ConcurrentMap<String, AtomicInteger> starting = new ConcurrentHashMap<String, AtomicInteger>();
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "driver-warm-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // creates sessions in the warm pool threads, replaced in tests
+    static volatile SessionFactory factory = DriverFactory::create;
+
+    private static volatile boolean closed = false;
+
+    private DriverWarmPool() {
+    }
+
+    public static boolean isEnabled() {
+        return !closed && getPoolSize() > 0;
+    }
+
+    /**
+     * Start sessions for default capabilities set and reopen the pool after {@link #shutdown()}.
+     */
+    public static void start() {
+        closed = false;
+        warmUp(null, null);
+    }
+
+    /**
+     * Start missing sessions in background for the capabilities set to keep 'driver_warm_pool_size' sessions ready.
+     *
+     * @param capabilities
+     *            DesiredCapabilities or null for default capabilities
+     * @param seleniumHost
+     *            String or null for default selenium host
+     */
+    public static void warmUp(DesiredCapabilities capabilities, String seleniumHost) {
+        if (!isEnabled() || !isPoolable(capabilities)) {
+            return;
+        }
+
+        final String key = getKey(capabilities, seleniumHost);
+        final DesiredCapabilities caps = capabilities != null ? new DesiredCapabilities(capabilities) : null;
+        final BlockingQueue<WarmDriver> ready = sessions.computeIfAbsent(key, k -> new LinkedBlockingQueue<WarmDriver>());
+        final AtomicInteger counter = starting.computeIfAbsent(key, k -> new AtomicInteger());
+
+        int poolSize = getPoolSize();
+        int count = counter.get();
+        while (ready.size() + count < poolSize) {
+            if (counter.compareAndSet(count, count + 1)) {
+                LOGGER.debug("Starting warm driver for: " + key);
+                executor.execute(() -> startDriver(key, caps, seleniumHost, ready, counter));
+            }
+            count = counter.get();
+        }
+    }
+
+    /**
+     * Hand over ready session for the capabilities set and start replacement in background.
+     *
+     * @param capabilities
+     *            DesiredCapabilities or null for default capabilities
+     * @param seleniumHost
+     *            String or null for default selenium host
+     * @return WebDriver or null if pool is disabled or there is no ready session
+     */
+    public static WebDriver acquire(DesiredCapabilities capabilities, String seleniumHost) {
+        if (!isEnabled() || !isPoolable(capabilities)) {
+            return null;
+        }
+
+        WebDriver drv = null;
+        BlockingQueue<WarmDriver> ready = sessions.get(getKey(capabilities, seleniumHost));
+        WarmDriver warmDriver;
+        while (drv == null && ready != null && (warmDriver = ready.poll()) != null) {
+            if (warmDriver.isExpired()) {
+                LOGGER.debug("Evicting idle warm driver...");
+                final WarmDriver expired = warmDriver;
+                executor.execute(() -> quitDriver(expired));
+                continue;
+            }
+            if (warmDriver.device != null) {
+                // device was registered by the warm pool thread
+                DevicePool.attachDevice(warmDriver.device);
+            }
+            drv = warmDriver.driver;
+            LOGGER.debug("Warm driver was taken from the pool.");
+        }
+
+        warmUp(capabilities, seleniumHost);
+        return drv;
+    }
+
+    /**
+     * Quit all not used sessions. Sessions being started at the moment are quit as soon as they are ready.
+     */
+    public static void shutdown() {
+        closed = true;
+
+        List<Callable<Void>> quits = new ArrayList<Callable<Void>>();
+        for (BlockingQueue<WarmDriver> ready : sessions.values()) {
+            WarmDriver warmDriver;
+            while ((warmDriver = ready.poll()) != null) {
+                final WarmDriver drv = warmDriver;
+                quits.add(() -> {
+                    quitDriver(drv);
+                    return null;
+                });
+            }
+        }
+
+        if (quits.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Quitting " + quits.size() + " not used warm driver(s)...");
+        try {
+            executor.invokeAll(quits, QUIT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void startDriver(String key, DesiredCapabilities capabilities, String seleniumHost, BlockingQueue<WarmDriver> ready,
+            AtomicInteger counter) {
+        try {
+            WebDriver drv = factory.create(WARM_DRIVER_NAME, capabilities, seleniumHost);
+            // MobileFactory registers device for the current thread so detach it to hand over with the driver
+            WarmDriver warmDriver = new WarmDriver(drv, DevicePool.detachDevice());
+            if (closed) {
+                quitDriver(warmDriver);
+            } else {
+                ready.offer(warmDriver);
+                LOGGER.debug("Warm driver is ready for: " + key);
+            }
+        } catch (Throwable e) {
+            DevicePool.deregisterDevice();
+            LOGGER.error("Unable to start warm driver for: " + key + " - " + e.getMessage(), e);
+        } finally {
+            counter.decrementAndGet();
+        }
+    }
+
+    private static void quitDriver(WarmDriver warmDriver) {
+        try {
+            if (warmDriver.device != null) {
+                DevicePool.attachDevice(warmDriver.device);
+                DevicePool.deregisterDevice();
+            }
+            warmDriver.driver.quit();
+        } catch (Exception e) {
+            LOGGER.debug("Error discovered during warm driver quit: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isPoolable(DesiredCapabilities capabilities) {
+        // restart on the same device provides udid capability
+        return capabilities == null || capabilities.getCapability("udid") == null;
+    }
+
+    private static String getKey(DesiredCapabilities capabilities, String seleniumHost) {
+        String host = !StringUtils.isEmpty(seleniumHost) ? seleniumHost : Configuration.get(Parameter.SELENIUM_HOST);
+        Map<String, Object> caps = new TreeMap<String, Object>();
+        if (capabilities != null) {
+            caps.putAll(capabilities.asMap());
+        } else {
+            // default capabilities are resolved by factories from the current configuration
+            caps.put(Parameter.BROWSER.getKey(), Configuration.get(Parameter.BROWSER));
+            caps.put(Parameter.BROWSER_VERSION.getKey(), Configuration.get(Parameter.BROWSER_VERSION));
+            caps.put(Parameter.PLATFORM.getKey(), Configuration.getPlatform());
+            caps.put(Parameter.CUSTOM_CAPABILITIES.getKey(), Configuration.get(Parameter.CUSTOM_CAPABILITIES));
+            final String prefix = SpecialKeywords.CAPABILITIES + ".";
+            for (Object name : R.CONFIG.getProperties().keySet().toArray()) {
+                String key = name.toString();
+                if (key.toLowerCase().startsWith(prefix)) {
+                    caps.put(key, R.CONFIG.get(key));
+                }
+            }
+        }
+        return host + caps;
+    }
+
+    private static int getPoolSize() {
+        return NumberUtils.toInt(Configuration.get(Parameter.DRIVER_WARM_POOL_SIZE), 0);
+    }
+
+    interface SessionFactory {
+        WebDriver create(String testName, DesiredCapabilities capabilities, String seleniumHost);
+    }
+
+    private static class WarmDriver {
+        private final WebDriver driver;
+        private final Device device;
+        private final long created = System.currentTimeMillis();
+
+        private WarmDriver(WebDriver driver, Device device) {
+            this.driver = driver;
+            this.device = device;
+        }
+
+        private boolean isExpired() {
+            long timeout = NumberUtils.toLong(Configuration.get(Parameter.DRIVER_WARM_POOL_IDLE_TIMEOUT), 0);
+            return timeout > 0 && System.currentTimeMillis() - created > TimeUnit.SECONDS.toMillis(timeout);
+        }
+    }
+}
@@ -15,9 +15,7 @@
  *******************************************************************************/
 package com.qaprosoft.carina.core.foundation.webdriver;
 
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
@@ -25,7 +23,6 @@ import org.apache.log4j.MDC;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.DesiredCapabilities;
-import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.remote.SessionId;
 import org.openqa.selenium.support.events.EventFiringWebDriver;
 import org.testng.Assert;
@@ -44,8 +41,8 @@ public interface IDriverPool {
     static final Logger logger = Logger.getLogger(IDriverPool.class);
     static final String DEFAULT = "default";
 
-    // unified set of Carina WebDrivers 
-    static final Set<CarinaDriver> driversPool = new HashSet<CarinaDriver>();
+    // unified set of Carina WebDrivers indexed by thread, name and session id
+    static final DriverRegistry driversPool = new DriverRegistry();
   
     // the most popular drivers started inside tests
     //static final ConcurrentHashMap<Long, ConcurrentHashMap<String, WebDriver>> drivers = new ConcurrentHashMap<Long, ConcurrentHashMap<String, WebDriver>>();
@@ -86,9 +83,8 @@ public interface IDriverPool {
     default public WebDriver getDriver(String name, DesiredCapabilities capabilities, String seleniumHost) {
         WebDriver drv = null;
 
-        ConcurrentHashMap<String, CarinaDriver> currentDrivers = getDrivers();
-        if (currentDrivers.containsKey(name)) {
-        	CarinaDriver cdrv = currentDrivers.get(name);
+        CarinaDriver cdrv = driversPool.get(Thread.currentThread().getId(), name);
+        if (cdrv != null) {
             drv = cdrv.getDriver();
             if (Phase.BEFORE_SUITE.equals(cdrv.getPhase())) {
             	logger.info("Before suite registered driver will be returned.");
@@ -140,21 +136,15 @@ public interface IDriverPool {
     public static WebDriver getDriver(SessionId sessionId) {
     	logger.debug("Detecting WebDriver by sessionId...");
     	
-    	//TODO: [VD] do we need to get preliminary current drivers here to skip analysis for the drivers from different threads?
-    	for (CarinaDriver carinDriver : driversPool) {
-    		WebDriver drv = carinDriver.getDriver();
+    	CarinaDriver carinaDriver = driversPool.get(sessionId);
+    	if (carinaDriver != null) {
+    		WebDriver drv = carinaDriver.getDriver();
     		if (drv instanceof EventFiringWebDriver) {
     			EventFiringWebDriver eventFirDriver = (EventFiringWebDriver) drv;
     			drv = eventFirDriver.getWrappedDriver();
     		}
-    		
-    		SessionId drvSessionId = ((RemoteWebDriver)drv).getSessionId();
-    		
-    		logger.debug("analyzing driver: " + drvSessionId.toString());
-    		if (sessionId.equals(drvSessionId)) {
-    			logger.debug("Detected WebDriver by sessionId");
-    			return drv;
-    		}
+    		logger.debug("Detected WebDriver by sessionId");
+    		return drv;
     	}
 
     	throw new DriverPoolException("Unable to find driver using sessionId artifacts. Returning default one!");
@@ -195,11 +185,13 @@ public interface IDriverPool {
             deregisterDriver(DEFAULT);
             if (!isSameDevice) {
                 DevicePool.deregisterDevice();
+                // new session doesn't depend on the old one so quit it in parallel with the new session startup
+                DriverQuitExecutor.quit(DEFAULT, drv);
+            } else {
+                // device should be released before the new session on it
+                drv.quit();
+                logger.debug("Driver exited during restart...");
             }
-            
-            drv.quit();
-
-            logger.debug("Driver exited during restart...");
         } catch (WebDriverException e) {
             logger.debug("Error message detected during driver restart: " + e.getMessage(), e);
             // do nothing
@@ -245,11 +237,9 @@ public interface IDriverPool {
 //          since there some driver related action on method deregister device
             DevicePool.deregisterDevice();
             deregisterDriver(name);
-            
-            
-            logger.debug("Driver starting quit..." + name);
-            drv.quit();
-            logger.debug("Driver finsihed quite." + name);
+
+            // session is quit in background not to block test thread by hung node
+            DriverQuitExecutor.quit(name, drv);
         } catch (WebDriverException e) {
             logger.debug("Error message detected during driver verification: " + e.getMessage(), e);
             // do nothing
@@ -268,7 +258,8 @@ public interface IDriverPool {
     }
 
     /**
-     * Quit all drivers registered for current thread/test
+     * Quit all drivers registered for current thread/test. Sessions are quit in parallel in background, use
+     * {@link DriverQuitExecutor#await()} to wait for them.
      */
     default public void quitDrivers() {
 
@@ -308,7 +299,11 @@ public interface IDriverPool {
             try {
                 logger.debug("initDriver start...");
 
-                drv = DriverFactory.create(name, capabilities, seleniumHost);
+                // take speculatively started session if warm pool is enabled
+                drv = DriverWarmPool.acquire(capabilities, seleniumHost);
+                if (drv == null) {
+                    drv = DriverFactory.create(name, capabilities, seleniumHost);
+                }
                 
                 registerDriver(drv, name);
 
@@ -371,21 +366,20 @@ public interface IDriverPool {
      */
     default void registerDriver(WebDriver driver, String name) {
         Long threadId = Thread.currentThread().getId();
-        ConcurrentHashMap<String, CarinaDriver> currentDrivers = getDrivers();
         
         int maxDriverCount = Configuration.getInt(Parameter.MAX_DRIVER_COUNT);
         
-        if (currentDrivers.size() == maxDriverCount) {
+        if (driversPool.size(threadId) == maxDriverCount) {
             // TODO: after moving driver creation to DriverPoolEx need to add
             // such verification before driver start
             Assert.fail(
                     "Unable to register driver as you reached max number of drivers per thread: " + maxDriverCount);
         }
-        if (currentDrivers.containsKey(name)) {
+        if (driversPool.contains(threadId, name)) {
             Assert.fail("Driver '" + name + "' is already registered for thread: " + threadId);
         }
 
-        //new 6.0 approach to manipulate drivers via regular Set
+        //new 6.0 approach to manipulate drivers via regular Set indexed by thread, name and session id
         CarinaDriver carinaDriver = new CarinaDriver(name, driver, TestPhase.getActivePhase(), threadId);
         driversPool.add(carinaDriver);
     }
@@ -399,7 +393,7 @@ public interface IDriverPool {
      * @return boolean
      */
     default boolean isDriverRegistered(String name) {
-        return getDrivers().containsKey(name);
+        return driversPool.contains(Thread.currentThread().getId(), name);
     }
 
     
@@ -411,7 +405,7 @@ public interface IDriverPool {
      */
     default public int getDriversCount() {
         Long threadId = Thread.currentThread().getId();
-        int size = getDrivers().size();
+        int size = driversPool.size(threadId);
         logger.debug("Number of registered drivers for thread '" + threadId + "' is " + size);
         return size;
     }
@@ -425,7 +419,7 @@ public interface IDriverPool {
     @Deprecated
     default public int size() {
         Long threadId = Thread.currentThread().getId();
-        int size = getDrivers().size();
+        int size = driversPool.size(threadId);
         logger.debug("Number of registered drivers for thread '" + threadId + "' is " + size);
         return size;
     }
@@ -440,11 +434,11 @@ public interface IDriverPool {
      */
     default void deregisterDriver(String name) {
         long threadId = Thread.currentThread().getId();
-        ConcurrentHashMap<String, CarinaDriver> currentDrivers = getDrivers();
+        CarinaDriver carinaDriver = driversPool.get(threadId, name);
 
-        if (currentDrivers.containsKey(name)) {
+        if (carinaDriver != null) {
             logger.debug("Deregister '" + name + "' driver from pool for threadId: " + threadId );
-            driversPool.remove(currentDrivers.get(name));
+            driversPool.remove(carinaDriver);
         } else {
             logger.error("Unable to find '" + name + "' driver for deregistration in thread: " + threadId);
         }
@@ -458,28 +452,18 @@ public interface IDriverPool {
      * 
      */
     default public ConcurrentHashMap<String, CarinaDriver> getDrivers() {
-        Long threadId = Thread.currentThread().getId();
-        ConcurrentHashMap<String, CarinaDriver> currentDrivers = new ConcurrentHashMap<String, CarinaDriver>();
-        // look inside driversPool and return all before_suite drivers and drivers mounted to the current thread_id
-        for (CarinaDriver drv : driversPool) {
-        	if (Phase.BEFORE_SUITE.equals(drv.getPhase())) {
-        		// append all existing drivers in beforeSuite mode into the current list
-        		currentDrivers.put(drv.getName(), drv);
-        	} else if (threadId.equals(drv.getThreadId())) {
-        		currentDrivers.put(drv.getName(), drv);
-        	}
-        }
-        return currentDrivers;
+        // return snapshot of all before_suite drivers and drivers mounted to the current thread_id
+        return driversPool.getDrivers(Thread.currentThread().getId());
     }
     
     @Deprecated
     public static WebDriver getDefaultDriver() {
         WebDriver drv = null;
         String name = DEFAULT;
-        ConcurrentHashMap<String, WebDriver> currentDrivers = getStaticDrivers();
+        CarinaDriver cdrv = driversPool.get(Thread.currentThread().getId(), name);
 
-        if (currentDrivers.containsKey(name)) {
-            drv = currentDrivers.get(name);
+        if (cdrv != null) {
+            drv = cdrv.getDriver();
         }
 
         if (drv == null) {
@@ -494,14 +478,9 @@ public interface IDriverPool {
     public static ConcurrentHashMap<String, WebDriver> getStaticDrivers() {
         Long threadId = Thread.currentThread().getId();
         ConcurrentHashMap<String, WebDriver> currentDrivers = new ConcurrentHashMap<String, WebDriver>();
-        // look inside driversPool and return all before_suite drivers and drivers mounted to the current thread_id
-        for (CarinaDriver drv : driversPool) {
-        	if (Phase.BEFORE_SUITE.equals(drv.getPhase())) {
-        		// append all existing drivers in beforeSuite mode into the current list
-        		currentDrivers.put(drv.getName(), drv.getDriver());
-        	} else if (threadId.equals(drv.getThreadId())) {
-        		currentDrivers.put(drv.getName(), drv.getDriver());
-        	}
+        // return all before_suite drivers and drivers mounted to the current thread_id
+        for (CarinaDriver drv : driversPool.getDrivers(threadId).values()) {
+            currentDrivers.put(drv.getName(), drv.getDriver());
         }
         return currentDrivers;
     }
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import com.qaprosoft.carina.core.foundation.performance.ACTION_NAME;
+import com.qaprosoft.carina.core.foundation.performance.Timer;
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+
+/**
+ * PollingWait - reusable replacement of WebDriverWait for the waitUntil methods.
+ * 
+ * Instance is confined to the thread so there is no allocation per wait and no shared state between threads.
+ * Exceptions inherited from WebDriverException (NoSuchElement, NoSuchSession, StaleElementReference etc) are
+ * ignored during waiting. First polls could be done more often using 'retry_backoff' schedule, after that
+ * 'retry_interval' is used. Number of polls is summarized into 'wait_polls' performance counter.
+ */
+public final class PollingWait {
+    private static final Logger LOGGER = Logger.getLogger(PollingWait.class);
+
+    private static final Class<? extends Throwable> IGNORED_EXCEPTION = WebDriverException.class;
+
+    private static final long[] NO_BACKOFF = new long[0];
+
+    private static final ThreadLocal<PollingWait> waits = ThreadLocal.withInitial(PollingWait::new);
+
+    // raw 'retry_backoff' value the schedule was parsed from
+    private String backoffValue = StringUtils.EMPTY;
+
+    private long[] backoff = NO_BACKOFF;
+
+    // number of polls done by the last finished wait, nested waits don't share the counter
+    private int lastPolls;
+
+    private PollingWait() {
+    }
+
+    /**
+     * Get wait of the current thread.
+     * 
+     * @return PollingWait
+     */
+    public static PollingWait get() {
+        return waits.get();
+    }
+
+    /**
+     * Repeatedly apply condition until it returns neither null nor false or timeout expires.
+     * 
+     * @param drv - WebDriver.
+     * @param condition - ExpectedCondition or any other function.
+     * @param timeout - timeout in seconds.
+     * @param interval - poll interval in ms.
+     * @param <T> the condition result type.
+     * @return condition result.
+     * @throws TimeoutException if timeout expires, the last ignored exception is used as a cause.
+     */
+    public <T> T until(WebDriver drv, Function<? super WebDriver, T> condition, long timeout, long interval) {
+        long[] schedule = getBackoff();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        Throwable lastException = null;
+        int polls = 0;
+        try {
+            while (true) {
+                polls++;
+                try {
+                    T value = condition.apply(drv);
+                    if (value != null && (Boolean.class != value.getClass() || Boolean.TRUE.equals(value))) {
+                        return value;
+                    }
+                    // false or null result is the reason of the timeout in this case
+                    lastException = null;
+                } catch (Throwable e) {
+                    lastException = propagateIfNotIgnored(e);
+                }
+
+                if (System.nanoTime() - end >= 0) {
+                    throw new TimeoutException(String.format("Expected condition failed: waiting for %s (tried for %d second(s) with %d milliseconds interval)",
+                            condition, timeout, interval), lastException);
+                }
+                sleep(polls <= schedule.length ? schedule[polls - 1] : interval);
+            }
+        } finally {
+            LOGGER.debug("Wait finished after " + polls + " poll(s).");
+            lastPolls = polls;
+            Timer.add(ACTION_NAME.WAIT_POLLS, polls);
+        }
+    }
+
+    /**
+     * Get number of polls done by the last wait of the current thread.
+     * 
+     * @return int
+     */
+    public int getPolls() {
+        return lastPolls;
+    }
+
+    private long[] getBackoff() {
+        String value = Configuration.get(Parameter.RETRY_BACKOFF);
+        if (!value.equals(backoffValue)) {
+            // reparse only when value is changed, e.g. by thread specific configuration
+            String[] intervals = StringUtils.split(value, ",");
+            long[] schedule = new long[intervals.length];
+            for (int i = 0; i < intervals.length; i++) {
+                schedule[i] = NumberUtils.toLong(intervals[i].trim(), 0);
+            }
+            backoff = schedule;
+            backoffValue = value;
+        }
+        return backoff;
+    }
+
+    private static Throwable propagateIfNotIgnored(Throwable e) {
+        if (IGNORED_EXCEPTION.isInstance(e)) {
+            return e;
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        throw new RuntimeException(e);
+    }
+
+    private static void sleep(long interval) {
+        try {
+            Thread.sleep(interval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+}
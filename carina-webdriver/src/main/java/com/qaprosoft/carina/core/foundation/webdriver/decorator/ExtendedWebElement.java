@@ -21,6 +21,8 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -32,7 +34,6 @@ import org.openqa.selenium.InvalidElementStateException;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.NoSuchSessionException;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.StaleElementReferenceException;
@@ -50,8 +51,6 @@ import org.openqa.selenium.support.events.EventFiringWebDriver;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
 import com.qaprosoft.carina.core.foundation.commons.SpecialKeywords;
@@ -64,6 +63,7 @@ import com.qaprosoft.carina.core.foundation.utils.Messager;
 import com.qaprosoft.carina.core.foundation.utils.R;
 import com.qaprosoft.carina.core.foundation.utils.common.CommonUtils;
 import com.qaprosoft.carina.core.foundation.webdriver.IDriverPool;
+import com.qaprosoft.carina.core.foundation.webdriver.PollingWait;
 import com.qaprosoft.carina.core.foundation.webdriver.listener.DriverListener;
 import com.qaprosoft.carina.core.foundation.webdriver.locator.ExtendedElementLocator;
 
@@ -78,15 +78,16 @@ public class ExtendedWebElement {
 
     private static final long RETRY_TIME = Configuration.getLong(Parameter.RETRY_INTERVAL);
 
-    private static Wait<WebDriver> wait;
-    
     // we should keep both properties: driver and searchContext obligatory
     // driver is used for actions, javascripts execution etc
     // searchContext is used for searching element by default
     private WebDriver driver;
     private SearchContext searchContext;
     
-    private CryptoTool cryptoTool = new CryptoTool(Configuration.get(Parameter.CRYPTO_KEY_PATH));
+    // reflective fields resolved once per class: class -> field name -> field
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Field>> FIELDS = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Field>>();
+
+    private static final String EVENT_FIRING_ELEMENT = "EventFiringWebDriver$EventFiringWebElement";
 
     private static Pattern CRYPTO_PATTERN = Pattern.compile(SpecialKeywords.CRYPT);
 
@@ -138,14 +139,11 @@ public class ExtendedWebElement {
         }
 
 		try {
-			Field locatorField, searchContextField, byContextField, caseInsensitiveContextField = null;
 			SearchContext tempSearchContext = null;
 
-			if (element.getClass().toString().contains("EventFiringWebDriver$EventFiringWebElement")) {
+			if (element.getClass().getName().endsWith(EVENT_FIRING_ELEMENT)) {
 				// reuse reflection to get internal fields
-				locatorField = element.getClass().getDeclaredField("underlyingElement");
-				locatorField.setAccessible(true);
-				element = (RemoteWebElement) locatorField.get(element);
+				element = (RemoteWebElement) readField(element, "underlyingElement");
 			}
 
 			if (element instanceof RemoteWebElement) {
@@ -153,42 +151,26 @@ public class ExtendedWebElement {
 			} else if (element instanceof Proxy) {
 				InvocationHandler innerProxy = Proxy.getInvocationHandler(((Proxy) element));
 
-				locatorField = innerProxy.getClass().getDeclaredField("locator");
-				locatorField.setAccessible(true);
-
-				ExtendedElementLocator locator = (ExtendedElementLocator) locatorField.get(innerProxy);
+				ExtendedElementLocator locator = (ExtendedElementLocator) readField(innerProxy, "locator");
 
-				searchContextField = locator.getClass().getDeclaredField("searchContext");
-				searchContextField.setAccessible(true);
-				this.searchContext = tempSearchContext = (SearchContext) searchContextField.get(locator);
+				this.searchContext = tempSearchContext = (SearchContext) readField(locator, "searchContext");
 
-                caseInsensitiveContextField = locator.getClass().getDeclaredField("caseInsensitive");
-                caseInsensitiveContextField.setAccessible(true);
-                this.caseInsensitive = (Boolean) caseInsensitiveContextField.get(locator);
+                this.caseInsensitive = (Boolean) readField(locator, "caseInsensitive");
 
-				byContextField = locator.getClass().getDeclaredField("by");
-				byContextField.setAccessible(true);
 				//TODO: identify if it is a child element and 
 				//	1. get rootBy
 				//  2. append current "by" to the rootBy 
 				// -> it should allow to search via regular driver and fluent waits - getBy() 
-				this.by = (By) byContextField.get(locator);
+				this.by = (By) readField(locator, "by");
 
 				while (tempSearchContext instanceof Proxy) {
 					innerProxy = Proxy.getInvocationHandler(((Proxy) tempSearchContext));
 
-					locatorField = innerProxy.getClass().getDeclaredField("locator");
-					locatorField.setAccessible(true);
+					locator = (ExtendedElementLocator) readField(innerProxy, "locator");
 
-					locator = (ExtendedElementLocator) locatorField.get(innerProxy);
+					tempSearchContext = (SearchContext) readField(locator, "searchContext");
 
-					searchContextField = locator.getClass().getDeclaredField("searchContext");
-					searchContextField.setAccessible(true);
-					tempSearchContext = (SearchContext) searchContextField.get(locator);
-
-                    caseInsensitiveContextField = locator.getClass().getDeclaredField("caseInsensitive");
-                    caseInsensitiveContextField.setAccessible(true);
-                    this.caseInsensitive = (Boolean) caseInsensitiveContextField.get(locator);
+                    this.caseInsensitive = (Boolean) readField(locator, "caseInsensitive");
 				}
 			}
 
@@ -199,11 +181,9 @@ public class ExtendedWebElement {
 				return;
 			}
 
-			if (tempSearchContext != null && tempSearchContext.getClass().toString().contains("EventFiringWebDriver$EventFiringWebElement")) {
+			if (tempSearchContext != null && tempSearchContext.getClass().getName().endsWith(EVENT_FIRING_ELEMENT)) {
 				// reuse reflection to get internal fields
-				locatorField = tempSearchContext.getClass().getDeclaredField("underlyingElement");
-				locatorField.setAccessible(true);
-				this.searchContext = tempSearchContext = (RemoteWebElement) locatorField.get(tempSearchContext);
+				this.searchContext = tempSearchContext = (RemoteWebElement) readField(tempSearchContext, "underlyingElement");
 			}
 
 			if (tempSearchContext instanceof RemoteWebElement) {
@@ -243,6 +223,25 @@ public class ExtendedWebElement {
     	}
     }
 
+    private static Object readField(Object target, String name) throws NoSuchFieldException, IllegalAccessException {
+        return getField(target.getClass(), name).get(target);
+    }
+
+    private static Field getField(Class<?> clazz, String name) throws NoSuchFieldException {
+        ConcurrentMap<String, Field> fields = FIELDS.computeIfAbsent(clazz, c -> new ConcurrentHashMap<String, Field>());
+        Field field = fields.get(name);
+        if (field == null) {
+            field = clazz.getDeclaredField(name);
+            field.setAccessible(true);
+            fields.put(name, field);
+        }
+        return field;
+    }
+
+    private static CryptoTool getCryptoTool() {
+        return CryptoTool.getInstance(Configuration.get(Parameter.CRYPTO_KEY_PATH));
+    }
+
     public WebElement getElement() {
     	element = refindElement();
     	return element;
@@ -303,13 +302,11 @@ public class ExtendedWebElement {
 		final WebDriver drv = getDriver();
 		
 		Timer.start(ACTION_NAME.WAIT);
-		wait = new WebDriverWait(drv, timeout, RETRY_TIME).ignoring(WebDriverException.class)
-				.ignoring(NoSuchSessionException.class);
 		// StaleElementReferenceException is handled by selenium ExpectedConditions in many methods
 		try {
 			LOGGER.debug("waitUntil: starting..." + getNameWithLocator());
 			LOGGER.debug("waitUntil: starting condition: " + condition.toString());
-			wait.until(condition);
+			PollingWait.get().until(drv, condition, timeout, RETRY_TIME);
 			result = true;
 			LOGGER.debug("waitUntil: finished true..." + getNameWithLocator());
 		} catch (NoSuchElementException e) {
@@ -922,7 +919,7 @@ public class ExtendedWebElement {
      * @return element with text existence status.
      */
     public boolean isElementWithTextPresent(final String text, long timeout) {
-    	final String decryptedText = cryptoTool.decryptByPattern(text, CRYPTO_PATTERN);
+    	final String decryptedText = getCryptoTool().decryptByPattern(text, CRYPTO_PATTERN);
 		ExpectedCondition<Boolean> textCondition;
 		if (element != null) {
 			ExpectedCondition<Boolean>  tmpCondition = ExpectedConditions.and(ExpectedConditions.visibilityOf(element));
@@ -1532,7 +1529,7 @@ public class ExtendedWebElement {
 
 			@Override
 			public void doType(String text) {
-				final String decryptedText = cryptoTool.decryptByPattern(text, CRYPTO_PATTERN);
+				final String decryptedText = getCryptoTool().decryptByPattern(text, CRYPTO_PATTERN);
 
 				DriverListener.setMessages(Messager.KEYS_CLEARED_IN_ELEMENT.getMessage(getName()),
 						Messager.KEYS_NOT_CLEARED_IN_ELEMENT.getMessage(getNameWithLocator()));
@@ -1545,7 +1542,7 @@ public class ExtendedWebElement {
 
 			@Override
 			public void doAttachFile(String filePath) {
-				final String decryptedText = cryptoTool.decryptByPattern(filePath, CRYPTO_PATTERN);
+				final String decryptedText = getCryptoTool().decryptByPattern(filePath, CRYPTO_PATTERN);
 				
 				DriverListener.setMessages(Messager.FILE_ATTACHED.getMessage(decryptedText, getName()),
 						Messager.FILE_NOT_ATTACHED.getMessage(decryptedText, getNameWithLocator()));
@@ -1623,7 +1620,7 @@ public class ExtendedWebElement {
 			
 			@Override
 			public boolean doSelect(String text) {
-				final String decryptedSelectText = cryptoTool.decryptByPattern(text, CRYPTO_PATTERN);
+				final String decryptedSelectText = getCryptoTool().decryptByPattern(text, CRYPTO_PATTERN);
 				
 				DriverListener.setMessages(Messager.SELECT_BY_TEXT_PERFORMED.getMessage(decryptedSelectText, getName()),
 						Messager.SELECT_BY_TEXT_NOT_PERFORMED.getMessage(decryptedSelectText, getNameWithLocator()));
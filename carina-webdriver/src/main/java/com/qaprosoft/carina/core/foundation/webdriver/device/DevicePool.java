@@ -86,6 +86,27 @@ public class DevicePool {
         return device != null;
     }
     
+    /**
+     * Attach already registered device to the current thread.
+     * 
+     * @param device
+     *            Device
+     */
+    public static void attachDevice(Device device) {
+        setDevice(device);
+    }
+
+    /**
+     * Detach device from the current thread without remote disconnect so it could be attached to another thread.
+     * 
+     * @return Device or null if nothing is registered for the current thread
+     */
+    public static Device detachDevice() {
+        Device device = currentDevice.get();
+        currentDevice.remove();
+        return device;
+    }
+
     private static void setDevice(Device device) {
         long threadId = Thread.currentThread().getId();
         LOGGER.debug("Set current device '" + device.getName() + "' to thread: " + threadId);
@@ -26,23 +26,20 @@ import org.apache.log4j.Logger;
 import org.openqa.selenium.By;
 import org.openqa.selenium.InvalidElementStateException;
 import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.NoSuchSessionException;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.pagefactory.ElementLocator;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import com.qaprosoft.carina.core.foundation.performance.ACTION_NAME;
 import com.qaprosoft.carina.core.foundation.performance.Timer;
 import com.qaprosoft.carina.core.foundation.utils.Configuration;
 import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+import com.qaprosoft.carina.core.foundation.webdriver.PollingWait;
 import com.qaprosoft.carina.core.foundation.webdriver.decorator.ExtendedFieldDecorator;
 import com.qaprosoft.carina.core.gui.AbstractUIObject;
 
@@ -147,7 +144,6 @@ public class AbstractUIObjectListHandler<T extends AbstractUIObject> implements
      * @param timeout - timeout.
      * @return true if condition happen.
      */
-	@SuppressWarnings("unchecked")
 	private boolean waitUntil(ExpectedCondition<?> condition) {
 		boolean result;
 		
@@ -155,11 +151,8 @@ public class AbstractUIObjectListHandler<T extends AbstractUIObject> implements
 		long RETRY_TIME = Configuration.getLong(Parameter.RETRY_INTERVAL);
 		
 		Timer.start(ACTION_NAME.WAIT);
-		@SuppressWarnings("rawtypes")
-		Wait wait = new WebDriverWait(webDriver, timeout, RETRY_TIME).ignoring(WebDriverException.class)
-				.ignoring(NoSuchSessionException.class);
 		try {
-			wait.until(condition);
+			PollingWait.get().until(webDriver, condition, timeout, RETRY_TIME);
 			result = true;
 			LOGGER.debug("waitUntil: finished true...");
 		} catch (NoSuchElementException | TimeoutException e) {
@@ -25,21 +25,18 @@ import org.apache.log4j.Logger;
 import org.openqa.selenium.By;
 import org.openqa.selenium.InvalidElementStateException;
 import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.NoSuchSessionException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.pagefactory.ElementLocator;
 import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import com.qaprosoft.carina.core.foundation.performance.ACTION_NAME;
 import com.qaprosoft.carina.core.foundation.performance.Timer;
 import com.qaprosoft.carina.core.foundation.utils.Configuration;
 import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+import com.qaprosoft.carina.core.foundation.webdriver.PollingWait;
 import com.qaprosoft.carina.core.foundation.webdriver.decorator.ExtendedWebElement;
 
 public class LocatingElementListHandler implements InvocationHandler {
@@ -119,7 +116,6 @@ public class LocatingElementListHandler implements InvocationHandler {
      * @param timeout - timeout.
      * @return true if condition happen.
      */
-	@SuppressWarnings("unchecked")
 	private boolean waitUntil(ExpectedCondition<?> condition) {
 		boolean result;
 		
@@ -127,11 +123,8 @@ public class LocatingElementListHandler implements InvocationHandler {
 		long RETRY_TIME = Configuration.getLong(Parameter.RETRY_INTERVAL);
 		
 		Timer.start(ACTION_NAME.WAIT);
-		@SuppressWarnings("rawtypes")
-		Wait wait = new WebDriverWait(driver, timeout, RETRY_TIME).ignoring(WebDriverException.class)
-				.ignoring(NoSuchSessionException.class);
 		try {
-			wait.until(condition);
+			PollingWait.get().until(driver, condition, timeout, RETRY_TIME);
 			result = true;
 			LOGGER.debug("waitUntil: finished true...");
 		} catch (NoSuchElementException | TimeoutException e) {
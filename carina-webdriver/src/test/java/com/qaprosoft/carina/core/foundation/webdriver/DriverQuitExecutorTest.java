@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DriverQuitExecutorTest {
+
+    @Test
+    public void quitFailuresSummary() {
+        WebDriver drv = mock(WebDriver.class);
+        WebDriver brokenDrv = mock(WebDriver.class);
+        doThrow(new WebDriverException("node is not responding")).when(brokenDrv).quit();
+
+        DriverQuitExecutor.quit("default", drv);
+        DriverQuitExecutor.quit("custom", brokenDrv);
+
+        List<String> failures = DriverQuitExecutor.await();
+        verify(drv).quit();
+        verify(brokenDrv).quit();
+        Assert.assertEquals(failures.size(), 1, "Failed quit is not reported!");
+        Assert.assertTrue(failures.get(0).startsWith("custom: node is not responding"), failures.get(0));
+        Assert.assertTrue(DriverQuitExecutor.await().isEmpty(), "Failed quit is reported twice!");
+    }
+
+}
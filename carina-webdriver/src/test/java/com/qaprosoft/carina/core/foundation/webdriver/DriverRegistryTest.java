@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.webdriver.TestPhase.Phase;
+
+public class DriverRegistryTest {
+
+    @Test
+    public void threadAndSuiteLookup() {
+        DriverRegistry registry = new DriverRegistry();
+        CarinaDriver suiteDriver = new CarinaDriver("default", mock(WebDriver.class), Phase.BEFORE_SUITE, 1L);
+        CarinaDriver threadDriver = new CarinaDriver("custom", mock(WebDriver.class), Phase.METHOD, 2L);
+
+        Assert.assertTrue(registry.add(suiteDriver));
+        Assert.assertTrue(registry.add(threadDriver));
+        Assert.assertFalse(registry.add(threadDriver), "The same driver was registered twice!");
+
+        Assert.assertEquals(registry.size(), 2);
+        Assert.assertEquals(registry.size(2L), 2);
+        Assert.assertEquals(registry.size(3L), 1);
+        Assert.assertSame(registry.get(3L, "default"), suiteDriver, "Before suite driver is not visible for other threads!");
+        Assert.assertSame(registry.get(2L, "custom"), threadDriver);
+        Assert.assertNull(registry.get(3L, "custom"), "Thread driver is visible for other threads!");
+        Assert.assertEquals(registry.getDrivers(2L).size(), 2);
+
+        Assert.assertTrue(registry.remove(threadDriver));
+        Assert.assertFalse(registry.contains(2L, "custom"));
+        Assert.assertTrue(registry.remove(suiteDriver));
+        Assert.assertTrue(registry.isEmpty());
+    }
+
+    @Test
+    public void sessionLookup() {
+        DriverRegistry registry = new DriverRegistry();
+        SessionId sessionId = new SessionId("123");
+        RemoteWebDriver drv = mock(RemoteWebDriver.class);
+        when(drv.getSessionId()).thenReturn(sessionId);
+        CarinaDriver carinaDriver = new CarinaDriver("default", drv, Phase.METHOD, 1L);
+
+        registry.add(carinaDriver);
+        Assert.assertSame(registry.get(sessionId), carinaDriver);
+
+        // RemoteWebDriver resets session id on quit
+        when(drv.getSessionId()).thenReturn(null);
+        registry.remove(carinaDriver);
+        Assert.assertNull(registry.get(sessionId));
+    }
+
+    @Test
+    public void removeDriverWithChangedThread() {
+        DriverRegistry registry = new DriverRegistry();
+        CarinaDriver carinaDriver = new CarinaDriver("default", mock(WebDriver.class), Phase.METHOD, 1L);
+        registry.add(carinaDriver);
+        carinaDriver.setThreadId(5L);
+
+        Assert.assertTrue(registry.remove(carinaDriver));
+        Assert.assertTrue(registry.isEmpty());
+    }
+
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.utils.Configuration;
+import com.qaprosoft.carina.core.foundation.utils.Configuration.Parameter;
+import com.qaprosoft.carina.core.foundation.utils.R;
+import com.qaprosoft.carina.core.foundation.webdriver.device.Device;
+import com.qaprosoft.carina.core.foundation.webdriver.device.DevicePool;
+
+public class DriverWarmPoolTest {
+    private static final String[] PARAMETERS = { Parameter.DRIVER_WARM_POOL_SIZE.getKey(),
+            Parameter.DRIVER_WARM_POOL_IDLE_TIMEOUT.getKey(), Parameter.BROWSER.getKey() };
+
+    private final Map<String, String> config = new ConcurrentHashMap<String, String>();
+
+    // driver -> browser configured when session was started
+    private final Map<WebDriver, String> created = new ConcurrentHashMap<WebDriver, String>();
+    private final AtomicInteger starts = new AtomicInteger();
+    private volatile CountDownLatch block;
+    private volatile Device device;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() {
+        for (String parameter : PARAMETERS) {
+            config.put(parameter, R.CONFIG.get(parameter));
+        }
+        R.CONFIG.put(Parameter.DRIVER_WARM_POOL_SIZE.getKey(), "1");
+        R.CONFIG.put(Parameter.DRIVER_WARM_POOL_IDLE_TIMEOUT.getKey(), "0");
+        R.CONFIG.put(Parameter.BROWSER.getKey(), "chrome");
+
+        created.clear();
+        starts.set(0);
+        block = null;
+        device = null;
+        DriverWarmPool.factory = (name, capabilities, seleniumHost) -> {
+            starts.incrementAndGet();
+            CountDownLatch latch = block;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (device != null) {
+                // MobileFactory registers device for the thread which starts the session
+                DevicePool.attachDevice(device);
+            }
+            WebDriver drv = mock(WebDriver.class);
+            created.put(drv, Configuration.get(Parameter.BROWSER));
+            return drv;
+        };
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        DriverWarmPool.shutdown();
+        for (Map.Entry<String, String> entry : config.entrySet()) {
+            R.CONFIG.put(entry.getKey(), entry.getValue());
+        }
+        DevicePool.detachDevice();
+    }
+
+    @Test
+    public void testAcquireAndReplenish() throws InterruptedException {
+        DriverWarmPool.start();
+        WebDriver drv = awaitDriver();
+        Assert.assertTrue(created.containsKey(drv), "Warm driver is not created by the factory");
+
+        // acquired session is replaced in background
+        for (int i = 0; i < 50 && starts.get() < 2; i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(starts.get(), 2, "Acquired warm driver is not replenished");
+        Assert.assertNotSame(awaitDriver(), drv, "Warm driver is handed over twice");
+    }
+
+    @Test
+    public void testIdleDriverIsEvicted() throws InterruptedException {
+        DriverWarmPool.start();
+        for (int i = 0; i < 50 && created.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(created.size(), 1, "Warm driver is not started");
+        WebDriver idle = created.keySet().iterator().next();
+
+        R.CONFIG.put(Parameter.DRIVER_WARM_POOL_IDLE_TIMEOUT.getKey(), "1");
+        Thread.sleep(1100);
+        WebDriver drv = DriverWarmPool.acquire(null, null);
+        Assert.assertNotSame(drv, idle, "Idle warm driver is handed over");
+        verify(idle, timeout(5000)).quit();
+    }
+
+    @Test
+    public void testSessionStartedAfterShutdownIsQuit() throws InterruptedException {
+        block = new CountDownLatch(1);
+        DriverWarmPool.start();
+        for (int i = 0; i < 50 && starts.get() == 0; i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(starts.get(), 1, "Warm driver is not started");
+
+        DriverWarmPool.shutdown();
+        block.countDown();
+        for (int i = 0; i < 50 && created.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(created.size(), 1, "Warm driver is not started");
+        verify(created.keySet().iterator().next(), timeout(5000)).quit();
+        Assert.assertNull(DriverWarmPool.acquire(null, null), "Warm driver is handed over after shutdown");
+    }
+
+    @Test
+    public void testDeviceIsHandedOverWithDriver() throws InterruptedException {
+        device = new Device("Pixel", "phone", "ANDROID", "9", "0123456789", "");
+        DriverWarmPool.start();
+        Assert.assertFalse(DevicePool.isRegistered(), "Device is registered for the test thread too early");
+
+        awaitDriver();
+        Assert.assertSame(DevicePool.getDevice(), device, "Device is not attached to the thread which acquired driver");
+    }
+
+    @Test
+    public void testSessionIsPooledPerConfiguration() throws InterruptedException {
+        DriverWarmPool.start();
+        awaitDriver();
+        // replacement is started for chrome
+        for (int i = 0; i < 50 && starts.get() < 2; i++) {
+            Thread.sleep(20);
+        }
+
+        R.CONFIG.put(Parameter.BROWSER.getKey(), "firefox");
+        WebDriver drv = awaitDriver();
+        Assert.assertEquals(created.get(drv), "firefox", "Warm driver of another browser is handed over");
+    }
+
+    private WebDriver awaitDriver() throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            WebDriver drv = DriverWarmPool.acquire(null, null);
+            if (drv != null) {
+                return drv;
+            }
+            Thread.sleep(20);
+        }
+        Assert.fail("Warm driver is not started");
+        return null;
+    }
+}
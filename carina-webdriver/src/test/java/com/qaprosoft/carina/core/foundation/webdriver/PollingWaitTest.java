@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2013-2018 QaProSoft (http://www.qaprosoft.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package com.qaprosoft.carina.core.foundation.webdriver;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.qaprosoft.carina.core.foundation.performance.ACTION_NAME;
+import com.qaprosoft.carina.core.foundation.performance.Timer;
+import com.qaprosoft.carina.core.foundation.utils.R;
+
+public class PollingWaitTest {
+
+    private final WebDriver drv = mock(WebDriver.class);
+
+    @BeforeMethod
+    public void setUp() {
+        R.CONFIG.put("retry_backoff", "1,1");
+        Timer.readAndClear();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        R.CONFIG.put("retry_backoff", "NULL");
+    }
+
+    @Test
+    public void waitIgnoresWebDriverExceptions() {
+        AtomicInteger calls = new AtomicInteger();
+        String result = PollingWait.get().until(drv, d -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new NoSuchElementException("not yet");
+            }
+            return "found";
+        }, 10, 5000);
+
+        Assert.assertEquals(result, "found");
+        Assert.assertEquals(PollingWait.get().getPolls(), 3, "Backoff schedule was not used!");
+        Assert.assertFalse(Timer.readAndClear().containsKey(ACTION_NAME.WAIT_POLLS.getKey()), "Counter is mixed with time metrics!");
+        Assert.assertEquals(Timer.getTestCounters().get(ACTION_NAME.WAIT_POLLS.getKey()), Long.valueOf(3));
+    }
+
+    @Test
+    public void timeoutKeepsLastException() {
+        NoSuchElementException cause = new NoSuchElementException("missing");
+        try {
+            PollingWait.get().until(drv, d -> {
+                throw cause;
+            }, 0, 1);
+            Assert.fail("TimeoutException is expected!");
+        } catch (TimeoutException e) {
+            Assert.assertSame(e.getCause(), cause);
+        }
+        Assert.assertEquals(PollingWait.get().getPolls(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void notIgnoredExceptionIsPropagated() {
+        PollingWait.get().until(drv, d -> {
+            throw new IllegalStateException();
+        }, 10, 1);
+    }
+
+    @Test
+    public void falseResultIsNotAccepted() {
+        try {
+            PollingWait.get().until(drv, d -> false, 0, 1);
+            Assert.fail("TimeoutException is expected!");
+        } catch (TimeoutException e) {
+            Assert.assertNull(e.getCause());
+        }
+    }
+
+
+    @Test
+    public void nestedWaitDoesNotChangeOuterPolls() {
+        AtomicInteger calls = new AtomicInteger();
+        PollingWait.get().until(drv, d -> {
+            // nested wait is done by the condition of the outer one, e.g. inside of the element lookup
+            PollingWait.get().until(drv, nested -> true, 10, 1);
+            return calls.incrementAndGet() == 3;
+        }, 10, 1);
+
+        Assert.assertEquals(PollingWait.get().getPolls(), 3);
+        Timer.readAndClear();
+        Assert.assertEquals(Timer.getTestCounters().get(ACTION_NAME.WAIT_POLLS.getKey()), Long.valueOf(6));
+    }
+}